@@ -4,12 +4,17 @@ import seedu.tripbuddy.exception.DataLoadingException;
 import seedu.tripbuddy.exception.ExceptionHandler;
 import seedu.tripbuddy.framework.InputHandler;
 import seedu.tripbuddy.framework.ExpenseManager;
+import seedu.tripbuddy.framework.ExpenseStoreType;
 import seedu.tripbuddy.framework.Ui;
 import seedu.tripbuddy.storage.DataHandler;
+import seedu.tripbuddy.storage.RatesFileWatcher;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
 import java.util.logging.FileHandler;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.logging.SimpleFormatter;
 
@@ -21,8 +26,13 @@ public class TripBuddy {
 
     private static final String LOG_PATH = "log.txt";
     private static final String FILE_PATH = "tripbuddy_data.json";
+    private static final String RATE_HISTORY_PATH = "rate_history.csv";
+    private static final String RATES_PATH = "exchange_rates.csv";
+    /** System property naming the {@link ExpenseStoreType} to use, e.g. {@code -Dtripbuddy.store=columnar}. */
+    private static final String STORE_PROPERTY = "tripbuddy.store";
 
     private static Logger logger;
+    private static RatesFileWatcher ratesFileWatcher;
     private static final Ui ui = Ui.getInstance();
 
     /**
@@ -42,13 +52,85 @@ public class TripBuddy {
         }
     }
 
+    /**
+     * Switches the expense storage backend if one is requested through {@value #STORE_PROPERTY}.
+     * Must be called before any data is loaded.
+     */
+    private static void initExpenseStore(ExpenseManager expenseManager) {
+        String storeName = System.getProperty(STORE_PROPERTY);
+        if (storeName == null) {
+            return;
+        }
+        try {
+            ExpenseStoreType storeType = ExpenseStoreType.valueOf(storeName.toUpperCase(Locale.ROOT).replace('-', '_'));
+            expenseManager.setStore(storeType.createStore());
+            logger.info("Using expense store: " + storeType);
+        } catch (IllegalArgumentException e) {
+            ui.printMessage("Unknown expense store: " + storeName + ". Using the default store instead.");
+        }
+    }
+
+    /**
+     * Loads the exchange rates from {@value #RATES_PATH} if it exists, then watches it to reload the rates
+     * in the background whenever it is created or changed, re-valuing the expenses at the new rates.
+     */
+    private static void initRates(DataHandler dataHandler, ExpenseManager expenseManager) {
+        try {
+            String message = dataHandler.loadRates(RATES_PATH);
+            if (!message.isEmpty()) {
+                ui.printMessage(message);
+            }
+        } catch (FileNotFoundException e) {
+            logger.info("No exchange rates file found, using built-in rates");
+        }
+        try {
+            ratesFileWatcher = new RatesFileWatcher(Path.of(RATES_PATH), expenseManager::revalueExpenses);
+            ratesFileWatcher.start();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Cannot watch " + RATES_PATH + " for changes", e);
+        }
+    }
+
+    /**
+     * Stops watching the exchange rates file.
+     */
+    private static void stopWatchingRates() {
+        if (ratesFileWatcher == null) {
+            return;
+        }
+        try {
+            ratesFileWatcher.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to stop watching " + RATES_PATH, e);
+        }
+    }
+
+    /**
+     * Loads the exchange rate history from {@value #RATE_HISTORY_PATH} if it exists.
+     * Must be called before any expense is loaded, since amounts are converted at the rates of their time.
+     */
+    private static void initRateHistory(DataHandler dataHandler) {
+        try {
+            String message = dataHandler.loadRateHistory(RATE_HISTORY_PATH);
+            if (!message.isEmpty()) {
+                ui.printMessage(message);
+            }
+        } catch (FileNotFoundException e) {
+            logger.info("No exchange rate history found, using current rates only");
+        }
+    }
+
     /**
      * Starts the TripBuddy application.
      * Loads data, prints the welcome message, and processes user commands until quit is entered.
      */
     public static void run() {
         initLogging();
+        ExpenseManager expenseManager = ExpenseManager.getInstance();
+        initExpenseStore(expenseManager);
         DataHandler dataHandler = DataHandler.getInstance();
+        initRates(dataHandler, expenseManager);
+        initRateHistory(dataHandler);
         try {
             String message = dataHandler.loadData(FILE_PATH);
             ui.printMessage(message + "Loaded expense data from " + FILE_PATH);
@@ -57,7 +139,6 @@ public class TripBuddy {
         } catch (DataLoadingException e) {
             ui.printMessage(ExceptionHandler.handleException(e));
         }
-        ExpenseManager expenseManager = ExpenseManager.getInstance();
         InputHandler inputHandler = InputHandler.getInstance(logger);
         ui.printStartMessage();
         while (true) {
@@ -73,6 +154,7 @@ public class TripBuddy {
                 } catch (IOException e) {
                     ui.printMessage(ExceptionHandler.handleException(e));
                 }
+                stopWatchingRates();
                 ui.printEndMessage();
                 return;
             }
@@ -125,9 +125,24 @@ public class Command {
      *                                  non-positive, or exceeds {@code MAX_INPUT_VAL}
      */
     public Double parseDouble(String opt) throws MissingOptionException, InvalidArgumentException {
-        String val = getOpt(opt);
+        return parseDoubleValue(getOpt(opt));
+    }
+
+    /**
+     * Parses a value into a double, with the same range validation as {@link #parseDouble(String)}.
+     * Used for values that are not whole options, such as the fields of a row.
+     *
+     * @param val the value to parse
+     * @return the parsed double value
+     * @throws InvalidArgumentException if the value is not a valid number,
+     *                                  non-positive, or exceeds {@code MAX_INPUT_VAL}
+     */
+    public static double parseDoubleValue(String val) throws InvalidArgumentException {
         try {
             double ret = Double.parseDouble(val);
+            if (Double.isNaN(ret)) {
+                throw new InvalidArgumentException(val, "Not a number.");
+            }
             if (ret <= 0) {
                 throw new InvalidArgumentException(val, "Value should be more than 0.");
             }
@@ -140,4 +155,53 @@ public class Command {
             throw new InvalidArgumentException(val, "Not a number.");
         }
     }
+
+    /**
+     * Parses the value of the given option into an integer.
+     * Performs range validation.
+     *
+     * @param opt the option flag whose value should be parsed
+     * @return the parsed integer value
+     * @throws MissingOptionException if the option is not present
+     * @throws InvalidArgumentException if the value is not a valid integer,
+     *                                  non-positive, or exceeds {@code MAX_INPUT_VAL}
+     */
+    public int parseInt(String opt) throws MissingOptionException, InvalidArgumentException {
+        String val = getOpt(opt);
+        try {
+            int ret = Integer.parseInt(val);
+            if (ret <= 0) {
+                throw new InvalidArgumentException(val, "Value should be more than 0.");
+            }
+            if (ret > MAX_INPUT_VAL) {
+                throw new InvalidArgumentException(val,
+                        "Value should be no more than " + MAX_INPUT_VAL);
+            }
+            return ret;
+        } catch (NumberFormatException e) {
+            throw new InvalidArgumentException(val, "Not an integer.");
+        }
+    }
+
+    /**
+     * Parses the value of the given option into an integer that may be 0, such as an offset.
+     *
+     * @param opt the option flag whose value should be parsed
+     * @return the parsed integer value
+     * @throws MissingOptionException if the option is not present
+     * @throws InvalidArgumentException if the value is not a valid integer,
+     *                                  negative, or exceeds {@code Integer.MAX_VALUE}
+     */
+    public int parseNonNegativeInt(String opt) throws MissingOptionException, InvalidArgumentException {
+        String val = getOpt(opt);
+        try {
+            int ret = Integer.parseInt(val);
+            if (ret < 0) {
+                throw new InvalidArgumentException(val, "Value should not be negative.");
+            }
+            return ret;
+        } catch (NumberFormatException e) {
+            throw new InvalidArgumentException(val, "Not an integer.");
+        }
+    }
 }
@@ -21,9 +21,18 @@ public enum Keyword {
     /** Assigns or updates a category to an existing expense. */
     SET_CATEGORY,
 
+    /** Renames an existing category. */
+    RENAME_CATEGORY,
+
+    /** Merges one category into another. */
+    MERGE_CATEGORY,
+
     /** Adds a new expense entry. */
     ADD_EXPENSE,
 
+    /** Adds several expense entries at once. */
+    ADD_EXPENSES,
+
     /** Deletes a specific expense from the list. */
     DELETE_EXPENSE,
 
@@ -36,9 +45,24 @@ public enum Keyword {
     /** Returns the expense with the lowest amount. */
     MIN_EXPENSE,
 
+    /** Returns the expenses with the highest amounts. */
+    TOP_EXPENSE,
+
+    /** Returns the expense at a percentile of amounts. */
+    PERCENTILE_EXPENSE,
+
+    /** Filters expenses with amounts within a range. */
+    FILTER_AMOUNT,
+
     /** Filters expenses that fall within a date-time range. */
     FILTER_DATE,
 
+    /** Filters expenses by any combination of category, date, amount and name. */
+    QUERY,
+
+    /** Displays spending per day, week or month. */
+    VIEW_TREND,
+
     /** Displays exchange rates relative to the base currency. */
     VIEW_CURRENCY,
 
@@ -70,12 +94,20 @@ public enum Keyword {
         case VIEW_BUDGET -> "view-budget";
         case CREATE_CATEGORY -> "create-category";
         case SET_CATEGORY -> "set-category";
+        case RENAME_CATEGORY -> "rename-category";
+        case MERGE_CATEGORY -> "merge-category";
         case ADD_EXPENSE -> "add-expense";
+        case ADD_EXPENSES -> "add-expenses";
         case DELETE_EXPENSE -> "delete-expense";
         case LIST_EXPENSE -> "list-expense";
         case MAX_EXPENSE -> "max-expense";
         case MIN_EXPENSE -> "min-expense";
+        case TOP_EXPENSE -> "top-expense";
+        case PERCENTILE_EXPENSE -> "percentile-expense";
+        case FILTER_AMOUNT -> "filter-amount";
         case FILTER_DATE -> "filter-date";
+        case QUERY -> "query";
+        case VIEW_TREND -> "view-trend";
         case VIEW_CURRENCY -> "view-currency";
         case SEARCH -> "search";
         case VIEW_CATEGORIES -> "view-categories";
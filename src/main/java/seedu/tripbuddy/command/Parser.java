@@ -31,7 +31,7 @@ public class Parser {
      * @param logger the logger to associate with the parser
      * @return the singleton instance of {@code Parser}
      */
-    public static Parser getInstance(Logger logger) {
+    public static synchronized Parser getInstance(Logger logger) {
         if (instance == null) {
             instance = new Parser(logger);
         }
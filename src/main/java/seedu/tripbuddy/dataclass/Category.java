@@ -0,0 +1,102 @@
+package seedu.tripbuddy.dataclass;
+
+/**
+ * Represents an interned category that expenses refer to instead of holding its name.
+ * Renaming an entry renames the category of every expense under it at once.
+ * Merging links an entry to another, union-find style, so that expenses under either
+ * resolve to the same category without being touched.
+ */
+public class Category {
+
+    /** Id of an entry that was not interned by a dictionary. */
+    public static final int UNREGISTERED_ID = -1;
+
+    private final int id;
+    private String name;
+    private Category mergedInto = null;
+
+    /**
+     * Constructs a category entry outside of any dictionary.
+     *
+     * @param name the category name
+     */
+    public Category(String name) {
+        this(UNREGISTERED_ID, name);
+    }
+
+    /**
+     * Constructs a category entry with a dictionary id.
+     *
+     * @param id   the dense id assigned by the dictionary
+     * @param name the category name
+     */
+    public Category(int id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * Returns the id this entry was created with. The id is kept after renames and merges.
+     *
+     * @return the entry id, or {@link #UNREGISTERED_ID}
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the current name of the category, following merges.
+     *
+     * @return the category name
+     */
+    public String getName() {
+        return resolve().name;
+    }
+
+    /**
+     * Returns the entry this one has been merged into, directly or through other merges.
+     * Paths are compressed along the way.
+     *
+     * @return the representative entry, which is this entry if it was never merged
+     */
+    public Category resolve() {
+        Category root = this;
+        while (root.mergedInto != null) {
+            root = root.mergedInto;
+        }
+        Category entry = this;
+        while (entry != root) {
+            Category next = entry.mergedInto;
+            entry.mergedInto = root;
+            entry = next;
+        }
+        return root;
+    }
+
+    /**
+     * Renames the category, for every expense under it.
+     *
+     * @param newName the new category name
+     */
+    public void rename(String newName) {
+        resolve().name = newName;
+    }
+
+    /**
+     * Merges this category into another, so that both resolve to the other.
+     *
+     * @param target the category to merge into
+     */
+    public void mergeInto(Category target) {
+        Category root = resolve();
+        Category targetRoot = target.resolve();
+        if (root != targetRoot) {
+            root.mergedInto = targetRoot;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -1,8 +1,17 @@
 package seedu.tripbuddy.dataclass;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
 /**
- * Represents supported currencies and their exchange rates relative to the base currency (default: SGD).
- * Each enum constant has a currency code and a conversion rate.
+ * Represents supported currencies and their exchange rates relative to SGD.
+ * Each enum constant has a currency code and a default conversion rate.
+ * The rates in use are read from the current {@link RateTable}, so every conversion sees one consistent set.
+ * Rates are held as integers scaled by {@value #RATE_SCALE}, so that converting a {@link Money} amount
+ * is integer arithmetic with a single rounding.
+ * Amounts are held in canonical units, {@value #CANONICAL_SCALE} to a minor unit of SGD, and converted into
+ * the base currency of a trip only when shown, so changing the base currency never rewrites or re-rounds an amount.
  */
 public enum Currency {
     MYR("MYR", 3.29),
@@ -23,18 +32,46 @@ public enum Currency {
     ZAR("ZAR", 14.18),
     GBP("GBP", 0.58);
 
+    /** Base currency of a trip that has not chosen one. */
+    public static final Currency DEFAULT_BASE = SGD;
+    /** Rates are stored in millionths. */
+    public static final long RATE_SCALE = 1_000_000;
+    /**
+     * Number of canonical units, which amounts are held in whichever currency they are shown in,
+     * to a minor unit of SGD. A canonical unit is finer than the minor unit of any currency worth less than
+     * a millionth of SGD, so an amount converted into canonical units and back is unchanged.
+     */
+    public static final long CANONICAL_SCALE = RATE_SCALE;
+    /** Rate of the canonical unit relative to SGD, scaled by {@value #RATE_SCALE}, which never changes. */
+    private static final long CANONICAL_SCALED_RATE = CANONICAL_SCALE * RATE_SCALE;
+
     private final String name;
-    private double rate;
+    private final long defaultScaledRate;
 
     /**
-     * Constructs a currency enum with the given name and rate.
+     * Constructs a currency enum with the given name and default rate.
      *
      * @param name the currency code (e.g. \"USD\")
-     * @param rate the exchange rate relative to the base currency
+     * @param rate the default exchange rate relative to SGD
      */
     Currency(String name, double rate) {
         this.name = name;
-        this.rate = rate;
+        this.defaultScaledRate = toScaledRate(rate);
+    }
+
+    /**
+     * Scales a rate by {@value #RATE_SCALE}, keeping it positive.
+     */
+    static long toScaledRate(double rate) {
+        assert rate > 0 : "Rate must be positive";
+        return Math.max(1, Math.round(rate * RATE_SCALE));
+    }
+
+    /**
+     * Returns the rate this currency is declared with, scaled by {@value #RATE_SCALE}.
+     */
+    long getDefaultScaledRate() {
+        return defaultScaledRate;
     }
 
     /**
@@ -47,43 +84,217 @@ public enum Currency {
     }
 
     /**
-     * Converts an amount from the base currency to this currency.
+     * Converts an amount from SGD to this currency.
      *
-     * @param amount the amount in base currency
+     * @param amount the amount in SGD
      * @return the converted amount in this currency
      */
     public double convert(double amount) {
-        return amount * rate;
+        return RateTable.current().convert(amount, SGD, this);
+    }
+
+    /**
+     * Converts an amount from the given base currency to this currency.
+     *
+     * @param amount the amount in the base currency
+     * @param base   the currency the amount is in
+     * @return the converted amount in this currency
+     */
+    public double convert(double amount, Currency base) {
+        return RateTable.current().convert(amount, base, this);
+    }
+
+    /**
+     * Converts an exact amount from the given base currency to this currency,
+     * rounded to the nearest minor unit.
+     *
+     * @param amount the amount in the base currency
+     * @param base   the currency the amount is in
+     * @return the converted amount in this currency
+     */
+    public Money convert(Money amount, Currency base) {
+        return RateTable.current().convert(amount, base, this);
+    }
+
+    /**
+     * Converts an exact amount from the given base currency to this currency at the rates in force at a time,
+     * as recorded in the current {@link RateHistory}, rounded to the nearest minor unit.
+     *
+     * @param amount   the amount in the base currency
+     * @param base     the currency the amount is in
+     * @param dateTime the time the rates are taken at
+     * @return the converted amount in this currency
+     */
+    public Money convert(Money amount, Currency base, LocalDateTime dateTime) {
+        return RateHistory.current().convert(amount, base, this, dateTime);
     }
 
     /**
-     * Returns the current exchange rate of this currency relative to the base currency.
+     * Returns the exchange rate of this currency against the given base currency.
+     *
+     * @param base the currency to compare with
+     * @return the exchange rate
+     */
+    public double getRate(Currency base) {
+        return RateTable.current().getRate(base, this);
+    }
+
+    /**
+     * Returns the exchange rate of this currency relative to SGD.
      *
      * @return the exchange rate
      */
     public double getRate() {
-        return rate;
+        return (double) RateTable.current().getScaledRate(this) / RATE_SCALE;
     }
 
     /**
-     * Updates the exchange rate of this currency.
+     * Updates the exchange rate of this currency by installing a new rate table.
      *
      * @param rate the new exchange rate to set
      */
     public void setRate(double rate) {
-        this.rate = rate;
+        RateTable.update(table -> table.withRate(this, rate));
+    }
+
+    /**
+     * Converts an amount in this currency into canonical units.
+     *
+     * @param amount the amount in this currency
+     * @return the canonical amount
+     */
+    public Money toCanonical(Money amount) {
+        return Money.ofMinorUnits(toCanonical(amount.getMinorUnits(), RateTable.current().getScaledRate(this)));
+    }
+
+    /**
+     * Converts a canonical amount into this currency, rounded to the nearest minor unit.
+     *
+     * @param canonicalAmount the amount in canonical units
+     * @return the amount in this currency
+     */
+    public Money fromCanonical(Money canonicalAmount) {
+        return Money.ofMinorUnits(fromCanonical(canonicalAmount.getMinorUnits(),
+                RateTable.current().getScaledRate(this)));
     }
 
     /**
-     * Sets a new base currency by recalculating all exchange rates relative to the given base.
+     * Converts an amount in this currency into canonical units at the rates in force at a time.
      *
-     * @param newBase the new base currency
+     * @param amount   the amount in this currency
+     * @param dateTime the time the rates are taken at
+     * @return the canonical amount
      */
-    public static void setBaseCurrency(Currency newBase) {
-        double newBaseRate = newBase.rate;
-        for (Currency c : Currency.values()) {
-            c.rate /= newBaseRate;
+    public Money toCanonical(Money amount, LocalDateTime dateTime) {
+        long scaledRate = RateHistory.current().getScaledRate(this, RateHistory.toEpochSecond(dateTime),
+                RateTable.current());
+        return Money.ofMinorUnits(toCanonical(amount.getMinorUnits(), scaledRate));
+    }
+
+    /**
+     * Converts a canonical amount into this currency at the rates in force at a time,
+     * rounded to the nearest minor unit.
+     *
+     * @param canonicalAmount the amount in canonical units
+     * @param dateTime        the time the rates are taken at
+     * @return the amount in this currency
+     */
+    public Money fromCanonical(Money canonicalAmount, LocalDateTime dateTime) {
+        long scaledRate = RateHistory.current().getScaledRate(this, RateHistory.toEpochSecond(dateTime),
+                RateTable.current());
+        return Money.ofMinorUnits(fromCanonical(canonicalAmount.getMinorUnits(), scaledRate));
+    }
+
+    /**
+     * Converts minor units of a currency into canonical units, rounded half away from zero.
+     * The amount is split so that every product fits in a {@code long} for amounts of up to
+     * {@link Long#MAX_VALUE} canonical units, rather than falling back to {@link BigDecimal}.
+     *
+     * @param minorUnits the amount in minor units of the currency
+     * @param scaledRate the rate of the currency relative to SGD, scaled by {@value #RATE_SCALE}
+     * @return the amount in canonical units
+     */
+    static long toCanonical(long minorUnits, long scaledRate) {
+        // minorUnits * CANONICAL_SCALE * RATE_SCALE / scaledRate, with the first product split by the rate
+        long scaled = Math.abs(Math.multiplyExact(minorUnits, CANONICAL_SCALE));
+        long units = Math.multiplyExact(scaled / scaledRate, RATE_SCALE);
+        long remainder = scaled % scaledRate * RATE_SCALE;
+        units = Math.addExact(units, remainder / scaledRate);
+        if (remainder % scaledRate >= scaledRate - remainder % scaledRate) {
+            units++;
+        }
+        return minorUnits < 0 ? -units : units;
+    }
+
+    /**
+     * Converts canonical units into minor units of a currency, rounded half away from zero.
+     *
+     * @param canonicalUnits the amount in canonical units
+     * @param scaledRate     the rate of the currency relative to SGD, scaled by {@value #RATE_SCALE}
+     * @return the amount in minor units of the currency
+     */
+    static long fromCanonical(long canonicalUnits, long scaledRate) {
+        // canonicalUnits * scaledRate / CANONICAL_SCALED_RATE, dividing by one factor of it at a time
+        long abs = Math.abs(canonicalUnits);
+        long product;
+        try {
+            product = Math.multiplyExact(abs / CANONICAL_SCALE, scaledRate);
+        } catch (ArithmeticException e) {
+            return Money.multiplyRounded(canonicalUnits, scaledRate, CANONICAL_SCALED_RATE);
+        }
+        long units = product / RATE_SCALE;
+        long remainder = product % RATE_SCALE * CANONICAL_SCALE + abs % CANONICAL_SCALE * scaledRate;
+        units += remainder / CANONICAL_SCALED_RATE;
+        remainder %= CANONICAL_SCALED_RATE;
+        if (remainder >= CANONICAL_SCALED_RATE - remainder) {
+            units++;
+        }
+        return canonicalUnits < 0 ? -units : units;
+    }
+
+    /**
+     * Returns the least canonical amount that {@link #fromCanonical(Money)} shows as no less than an amount,
+     * so that a range given in this currency can be looked up among canonical amounts.
+     *
+     * @param minorUnits the lower bound in minor units of this currency, or {@link Long#MIN_VALUE} for none
+     * @return the lower bound in canonical units
+     */
+    public long toCanonicalLowerBound(long minorUnits) {
+        if (minorUnits == Long.MIN_VALUE || minorUnits == Long.MAX_VALUE) {
+            return minorUnits;
         }
+        // Amounts half a minor unit below the bound still round up to it
+        return toCanonicalCeiling(2 * minorUnits - 1);
+    }
+
+    /**
+     * Returns the greatest canonical amount that {@link #fromCanonical(Money)} shows as no more than an amount,
+     * so that a range given in this currency can be looked up among canonical amounts.
+     *
+     * @param minorUnits the upper bound in minor units of this currency, or {@link Long#MAX_VALUE} for none
+     * @return the upper bound in canonical units
+     */
+    public long toCanonicalUpperBound(long minorUnits) {
+        if (minorUnits == Long.MIN_VALUE || minorUnits == Long.MAX_VALUE) {
+            return minorUnits;
+        }
+        // Amounts half a minor unit above the bound already round up past it
+        long above = toCanonicalCeiling(2 * minorUnits + 1);
+        return above == Long.MAX_VALUE ? above : above - 1;
+    }
+
+    /**
+     * Converts a number of half minor units of this currency into canonical units, rounded up
+     * and clamped to the range of a {@code long}.
+     */
+    private long toCanonicalCeiling(long halfMinorUnits) {
+        BigDecimal bound = BigDecimal.valueOf(halfMinorUnits)
+                .multiply(BigDecimal.valueOf(CANONICAL_SCALED_RATE))
+                .divide(BigDecimal.valueOf(2 * RateTable.current().getScaledRate(this)), 0, RoundingMode.CEILING);
+        if (bound.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        return bound.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) <= 0 ? Long.MIN_VALUE : bound.longValue();
     }
 
     /**
@@ -93,6 +304,28 @@ public enum Currency {
      * @return a string formatted as \"#.## CODE\" (e.g. \"10.50 USD\")
      */
     public String getFormattedAmount(double amount) {
-        return String.format("%.2f", amount) + " " + name;
+        return getFormattedAmount(Money.of(amount));
+    }
+
+    /**
+     * Returns a formatted string of the given exact amount in this currency.
+     *
+     * @param amount the amount
+     * @return a string formatted as \"#.## CODE\" (e.g. \"10.50 USD\")
+     */
+    public String getFormattedAmount(Money amount) {
+        return appendFormattedAmount(new StringBuilder(), amount).toString();
+    }
+
+    /**
+     * Appends the given exact amount in this currency, formatted as by {@link #getFormattedAmount(Money)},
+     * for output built row by row.
+     *
+     * @param sb     the builder to append to
+     * @param amount the amount
+     * @return the same builder
+     */
+    public StringBuilder appendFormattedAmount(StringBuilder sb, Money amount) {
+        return amount.appendTo(sb).append(' ').append(name);
     }
 }
@@ -1,25 +1,38 @@
 package seedu.tripbuddy.dataclass;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 import org.json.JSONException;
 import org.json.JSONObject;
-import seedu.tripbuddy.framework.ExpenseManager;
+
+import seedu.tripbuddy.storage.JsonStreamWriter;
 
 /**
  * Represents an individual travel expense.
  * Contains details such as name, amount, category, and timestamp.
+ * The amount is kept as entered, with the currency it was entered in, so it can be re-valued exactly
+ * whenever rates change. It is also held in canonical units ({@link Currency#CANONICAL_SCALE}) for indexing
+ * and totals, and shown in the base currency of the owner, or {@link Currency#DEFAULT_BASE} if the expense has none.
+ * Amounts given without a currency are in the latter.
+ * Conversions use the rates in force at the timestamp of the expense, as recorded in {@link RateHistory}.
  */
 public class Expense {
 
     /** Formatter for consistent date-time representation across the app. */
     static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private String name;
-    private double amount;
-    private String category;
+    /** Currency the amount was entered in. */
+    private Currency originalCurrency;
+    /** Amount as entered, in {@link #originalCurrency}. */
+    private Money originalAmount;
+    /** Amount in canonical units, derived from the original amount. */
+    private Money amount;
+    private Category category;
     private LocalDateTime dateTime;
+    private volatile ExpenseObserver observer;
 
     /**
      * Constructs an expense with a name and amount. Timestamp is set to current time.
@@ -28,10 +41,7 @@ public class Expense {
      * @param amount  the monetary amount spent
      */
     public Expense(String name, double amount) {
-        this.name = name;
-        this.amount = amount;
-        this.category = null;
-        this.dateTime = LocalDateTime.now();
+        this(name, Money.of(amount), null);
     }
 
     /**
@@ -42,10 +52,60 @@ public class Expense {
      * @param category  the category assigned to the expense
      */
     public Expense(String name, double amount, String category) {
+        this(name, amount, toEntry(category));
+    }
+
+    /**
+     * Constructs an expense with name, amount, and an interned category. Timestamp is set to current time.
+     *
+     * @param name      the name of the expense
+     * @param amount    the monetary amount spent
+     * @param category  the category entry assigned to the expense, or null
+     */
+    public Expense(String name, double amount, Category category) {
+        this(name, Money.of(amount), category);
+    }
+
+    /**
+     * Constructs an expense with name, exact amount, and an interned category. Timestamp is set to current time.
+     *
+     * @param name      the name of the expense
+     * @param amount    the monetary amount spent
+     * @param category  the category entry assigned to the expense, or null
+     */
+    public Expense(String name, Money amount, Category category) {
+        this(name, amount, Currency.DEFAULT_BASE, category);
+    }
+
+    /**
+     * Constructs an expense with name, exact amount in a given currency, and an interned category.
+     * Timestamp is set to current time.
+     *
+     * @param name      the name of the expense
+     * @param amount    the monetary amount spent
+     * @param currency  the currency the amount is in
+     * @param category  the category entry assigned to the expense, or null
+     */
+    public Expense(String name, Money amount, Currency currency, Category category) {
+        this(name, amount, currency, category, LocalDateTime.now());
+    }
+
+    /**
+     * Constructs an expense with name, exact amount in a given currency, an interned category and a timestamp.
+     *
+     * @param name      the name of the expense
+     * @param amount    the monetary amount spent
+     * @param currency  the currency the amount is in
+     * @param category  the category entry assigned to the expense, or null
+     * @param dateTime  the timestamp of the expense
+     */
+    public Expense(String name, Money amount, Currency currency, Category category, LocalDateTime dateTime) {
         this.name = name;
-        this.amount = amount;
+        this.originalCurrency = currency;
+        this.originalAmount = amount;
+        this.amount = currency.toCanonical(amount, dateTime);
         this.category = category;
-        this.dateTime = LocalDateTime.now();
+        this.dateTime = dateTime;
     }
 
     /**
@@ -60,10 +120,12 @@ public class Expense {
      * @throws DateTimeParseException if the date-time string is in an invalid format
      */
     public Expense(String name, double amount, String category, String dateTimeStr) throws DateTimeParseException {
-        this.name = name;
-        this.amount = amount;
-        this.category = category;
-        this.dateTime = LocalDateTime.parse(dateTimeStr, FORMATTER);
+        this(name, Money.of(amount), Currency.DEFAULT_BASE, toEntry(category),
+                LocalDateTime.parse(dateTimeStr, FORMATTER));
+    }
+
+    private static Category toEntry(String category) {
+        return category == null ? null : new Category(category);
     }
 
     /**
@@ -77,29 +139,128 @@ public class Expense {
 
     /**
      * Updates the name of the expense.
+     * Names must stay unique, ignoring case, among the expenses of an owner.
      *
      * @param name the new name to set
+     * @throws IllegalArgumentException if another expense of the owner already has the name
      */
     public void setName(String name) {
-        this.name = name;
+        change(() -> {
+            if (observer != null) {
+                observer.checkName(this, name);
+            }
+            String oldName = this.name;
+            this.name = name;
+            if (observer != null) {
+                observer.onNameChanged(this, oldName);
+            }
+        });
     }
 
     /**
-     * Returns the amount of the expense.
+     * Returns the amount of the expense in major units of the currency it is shown in.
      *
      * @return the monetary amount
      */
     public double getAmount() {
+        return getMoney().toDouble();
+    }
+
+    /**
+     * Returns the exact amount of the expense in the currency it is shown in.
+     *
+     * @return the monetary amount
+     */
+    public Money getMoney() {
+        Currency displayCurrency = getDisplayCurrency();
+        if (displayCurrency == originalCurrency) {
+            return originalAmount;
+        }
+        return displayCurrency.fromCanonical(amount, dateTime);
+    }
+
+    /**
+     * Returns the amount of the expense in canonical units, which does not depend on any owner.
+     *
+     * @return the canonical amount
+     */
+    public Money getCanonicalMoney() {
         return amount;
     }
 
     /**
-     * Updates the amount of the expense.
+     * Returns the currency the amount was entered in.
+     *
+     * @return the original currency
+     */
+    public Currency getOriginalCurrency() {
+        return originalCurrency;
+    }
+
+    /**
+     * Returns the amount as it was entered, in {@link #getOriginalCurrency()}.
      *
-     * @param amount the new amount to set
+     * @return the original amount
+     */
+    public Money getOriginalMoney() {
+        return originalAmount;
+    }
+
+    /**
+     * Updates the amount of the expense, rounded to the nearest minor unit.
+     *
+     * @param amount the new amount to set, in the currency the expense is shown in
      */
     public void setAmount(double amount) {
-        this.amount = amount;
+        setAmount(Money.of(amount));
+    }
+
+    /**
+     * Updates the exact amount of the expense, which is from then on held as entered in the currency it is shown in.
+     *
+     * @param amount the new amount to set, in the currency the expense is shown in
+     */
+    public void setAmount(Money amount) {
+        setAmount(amount, getDisplayCurrency());
+    }
+
+    /**
+     * Updates the exact amount of the expense and the currency it is in.
+     *
+     * @param amount   the new amount to set
+     * @param currency the currency the amount is in
+     */
+    public void setAmount(Money amount, Currency currency) {
+        change(() -> {
+            Money oldAmount = this.amount;
+            Currency oldCurrency = originalCurrency;
+            Money oldOriginalAmount = originalAmount;
+            originalCurrency = currency;
+            originalAmount = amount;
+            this.amount = currency.toCanonical(amount, dateTime);
+            if (observer != null) {
+                observer.onAmountChanged(this, oldAmount, oldCurrency, oldOriginalAmount);
+            }
+        });
+    }
+
+    /**
+     * Converts the original amount into canonical units again at the rates now in force
+     * for the timestamp of the expense, such as after the rates were reloaded.
+     *
+     * @return true if the canonical amount changed
+     */
+    public boolean revalue() {
+        boolean[] isChanged = new boolean[1];
+        change(() -> {
+            Money oldAmount = amount;
+            amount = originalCurrency.toCanonical(originalAmount, dateTime);
+            isChanged[0] = !amount.equals(oldAmount);
+            if (isChanged[0] && observer != null) {
+                observer.onAmountChanged(this, oldAmount, originalCurrency, originalAmount);
+            }
+        });
+        return isChanged[0];
     }
 
     /**
@@ -108,6 +269,15 @@ public class Expense {
      * @return the category string, or null if not set
      */
     public String getCategory() {
+        return category == null ? null : category.getName();
+    }
+
+    /**
+     * Returns the category entry of the expense.
+     *
+     * @return the {@link Category}, or null if not set
+     */
+    public Category getCategoryEntry() {
         return category;
     }
 
@@ -126,7 +296,23 @@ public class Expense {
      * @param category the new category to assign
      */
     public void setCategory(String category) {
-        this.category = category;
+        setCategoryEntry(toEntry(category));
+    }
+
+    /**
+     * Updates the category of the expense to an interned entry.
+     * If the expense has an owner, it is bound to the entry of the owner for the same category.
+     *
+     * @param category the category entry to assign, or null to clear it
+     */
+    public void setCategoryEntry(Category category) {
+        change(() -> {
+            Category oldCategory = this.category;
+            this.category = observer == null || category == null ? category : observer.bindCategory(category);
+            if (observer != null) {
+                observer.onCategoryChanged(this, oldCategory);
+            }
+        });
     }
 
     /**
@@ -139,12 +325,64 @@ public class Expense {
     }
 
     /**
-     * Updates the timestamp of the expense.
+     * Updates the timestamp of the expense, then re-values it at the rates in force at the new timestamp.
      *
      * @param dateTime the new timestamp to assign
      */
     public void setDateTime(LocalDateTime dateTime) {
-        this.dateTime = dateTime;
+        change(() -> {
+            LocalDateTime oldDateTime = this.dateTime;
+            this.dateTime = dateTime;
+            if (observer != null) {
+                observer.onDateTimeChanged(this, oldDateTime);
+            }
+            revalue();
+        });
+    }
+
+    /**
+     * Runs a change to the fields of this expense under the lock of its owner, if it has one,
+     * so that the old values the change reports are the ones it replaced and no reader of the owner
+     * sees the new values before its indexes do.
+     * If the expense changes owner while the lock is awaited, the lock of the new owner is taken instead.
+     * An expense without an owner is assumed to be used by one thread only.
+     */
+    private void change(Runnable change) {
+        while (true) {
+            ExpenseObserver owner = observer;
+            if (owner == null) {
+                change.run();
+                return;
+            }
+            boolean isApplied = owner.runLocked(() -> {
+                if (observer != owner) {
+                    return false;
+                }
+                change.run();
+                return true;
+            });
+            if (isApplied) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sets the observer to notify when indexed fields of this expense change.
+     *
+     * @param observer the observer, or null to detach
+     */
+    public void setObserver(ExpenseObserver observer) {
+        this.observer = observer;
+    }
+
+    /**
+     * Returns the currency the amount is shown in.
+     *
+     * @return the base currency of the owner, or {@link Currency#DEFAULT_BASE} if it has none
+     */
+    public Currency getDisplayCurrency() {
+        return observer == null ? Currency.DEFAULT_BASE : observer.getBaseCurrency();
     }
 
     /**
@@ -159,46 +397,92 @@ public class Expense {
     }
 
     /**
-     * Returns a human-readable string of the expense including currency and date.
+     * Returns the exact amount formatted in the given currency.
+     *
+     * @param amount   the amount
+     * @param currency the currency to format with
+     * @return formatted amount string
+     */
+    public String getFormattedAmount(Money amount, Currency currency) {
+        return currency.getFormattedAmount(amount);
+    }
+
+    /**
+     * Appends a human-readable form of the expense including currency and date, as given by {@link #toString()}.
+     * Listings append every row to one builder this way instead of concatenating a string per row.
+     * The amount is shown in the base currency of the owner, or {@link Currency#DEFAULT_BASE} if it has none.
+     *
+     * @param sb the builder to append to
+     * @return the same builder
      */
+    public StringBuilder appendTo(StringBuilder sb) {
+        sb.append("name: ").append(name).append(", amount: ");
+        getDisplayCurrency().appendFormattedAmount(sb, getMoney());
+        if (category != null) {
+            sb.append(", category: ").append(category.getName());
+        }
+        sb.append(", date: ");
+        FORMATTER.formatTo(dateTime, sb);
+        return sb;
+    }
+
     @Override
     public String toString() {
-        String dateTimeStr = dateTime.format(FORMATTER);
-        Currency baseCurrency = ExpenseManager.getInstance().getBaseCurrency();
-        if (category == null) {
-            return "name: " + name + ", amount: " +
-                    getFormattedAmount(amount, baseCurrency) +
-                    ", date: " + dateTimeStr;
-        }
-        return "name: " + name + ", amount: " + getFormattedAmount(amount, baseCurrency)
-                + ", category: " + category + ", date: " + dateTimeStr;
+        return appendTo(new StringBuilder()).toString();
     }
 
     /**
-     * Serializes the expense object to a JSON representation.
+     * Writes the expense as a JSON object, with the amount in the currency it is shown in
+     * and the amount as entered. {@link #fromJSON(JSONObject, Currency)} reads it back.
      *
-     * @return the JSON object representing this expense
+     * @param writer the writer to stream the object into
+     * @throws IOException if the object cannot be written
      */
-    public JSONObject toJSON() {
-        JSONObject ret = new JSONObject();
-        ret.put("name", name);
-        ret.put("amount", (int)(amount * 100 + .5) / 100.);
-        ret.put("category", category);
-        ret.put("dateTime", getDateTimeString());
-        return ret;
+    public void writeTo(JsonStreamWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("name").value(name);
+        writer.name("amount").value(getMoney());
+        writer.name("originalCurrency").value(originalCurrency.getFullName());
+        writer.name("originalAmount").value(originalAmount);
+        if (category != null) {
+            writer.name("category").value(getCategory());
+        }
+        writer.name("dateTime").value(getDateTimeString());
+        writer.endObject();
     }
 
     /**
-     * Deserializes an expense from a {@link JSONObject}.
-     * Used when reading from saved files.
+     * Deserializes an expense from a {@link JSONObject} with the amount in {@link Currency#DEFAULT_BASE}.
      *
      * @param json the JSON object containing the expense data
      * @return the constructed {@code Expense}
      * @throws JSONException if any required field is missing or date format is invalid
      */
     public static Expense fromJSON(JSONObject json) throws JSONException {
+        return fromJSON(json, Currency.DEFAULT_BASE);
+    }
+
+    /**
+     * Deserializes an expense from a {@link JSONObject}.
+     * Used when reading from saved files. The amount as entered is read if saved, and the shown amount otherwise.
+     *
+     * @param json     the JSON object containing the expense data
+     * @param currency the currency the shown amount is in
+     * @return the constructed {@code Expense}
+     * @throws JSONException if any required field is missing or date format is invalid
+     */
+    public static Expense fromJSON(JSONObject json, Currency currency) throws JSONException {
         String name = json.getString("name");
         double amount = json.getDouble("amount");
+        if (json.has("originalCurrency")) {
+            String currencyName = json.getString("originalCurrency");
+            try {
+                currency = Currency.valueOf(currencyName);
+            } catch (IllegalArgumentException e) {
+                throw new JSONException('"' + name + "\": Unrecognized currency: " + currencyName);
+            }
+            amount = json.getDouble("originalAmount");
+        }
         String category = json.optString("category", null); // returns null if not present
         String dateTimeStr = json.getString("dateTime");
 
@@ -207,10 +491,14 @@ public class Expense {
             category = null;
         }
         try {
-            return new Expense(name, amount, category, dateTimeStr);
+            return new Expense(name, Money.of(amount), currency, toEntry(category),
+                    LocalDateTime.parse(dateTimeStr, FORMATTER));
         } catch (DateTimeParseException e) {
             throw new JSONException(e.getParsedString() +
                     ": Invalid date/time format! Please use yyyy-MM-dd HH:mm:ss");
+        } catch (ArithmeticException | NumberFormatException e) {
+            // Infinite, NaN or too large to hold in minor units
+            throw new JSONException('"' + name + "\": Expense amount is not a valid number.");
         }
     }
 }
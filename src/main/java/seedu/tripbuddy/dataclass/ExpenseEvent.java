@@ -0,0 +1,211 @@
+package seedu.tripbuddy.dataclass;
+
+import java.time.LocalDateTime;
+
+/**
+ * Describes one change to the expenses of an owner, with the value of the changed field before the change.
+ * The new value is read from the expense itself.
+ */
+public final class ExpenseEvent {
+
+    /**
+     * Kinds of change.
+     */
+    public enum Type {
+        /** An expense was added. */
+        ADDED,
+        /** An expense was removed. */
+        REMOVED,
+        /** The category of an expense was changed. */
+        RECATEGORIZED,
+        /** The timestamp of an expense was changed. */
+        RETIMED,
+        /** The amount of an expense was changed, or re-valued at new rates. */
+        REVALUED,
+        /** The name of an expense was changed. */
+        RENAMED,
+        /** Every expense was removed at once. Carries no expense. */
+        CLEARED
+    }
+
+    private static final ExpenseEvent CLEARED_EVENT = new ExpenseEvent(Type.CLEARED, null, null);
+
+    private final Type type;
+    private final Expense expense;
+    private final Object oldValue;
+    /** Currency the amount was entered in before a {@link Type#REVALUED} change. */
+    private final Currency oldCurrency;
+    /** Amount as entered before a {@link Type#REVALUED} change. */
+    private final Money oldOriginalAmount;
+
+    private ExpenseEvent(Type type, Expense expense, Object oldValue) {
+        this(type, expense, oldValue, null, null);
+    }
+
+    private ExpenseEvent(Type type, Expense expense, Object oldValue, Currency oldCurrency, Money oldOriginalAmount) {
+        this.type = type;
+        this.expense = expense;
+        this.oldValue = oldValue;
+        this.oldCurrency = oldCurrency;
+        this.oldOriginalAmount = oldOriginalAmount;
+    }
+
+    /**
+     * Creates an event for an added expense.
+     *
+     * @param expense the added expense
+     * @return the event
+     */
+    public static ExpenseEvent added(Expense expense) {
+        return new ExpenseEvent(Type.ADDED, expense, null);
+    }
+
+    /**
+     * Creates an event for a removed expense.
+     *
+     * @param expense the removed expense
+     * @return the event
+     */
+    public static ExpenseEvent removed(Expense expense) {
+        return new ExpenseEvent(Type.REMOVED, expense, null);
+    }
+
+    /**
+     * Creates an event for an expense moved to another category.
+     *
+     * @param expense     the updated expense
+     * @param oldCategory the category entry before the change, or null
+     * @return the event
+     */
+    public static ExpenseEvent recategorized(Expense expense, Category oldCategory) {
+        return new ExpenseEvent(Type.RECATEGORIZED, expense, oldCategory);
+    }
+
+    /**
+     * Creates an event for an expense given another timestamp.
+     *
+     * @param expense     the updated expense
+     * @param oldDateTime the timestamp before the change
+     * @return the event
+     */
+    public static ExpenseEvent retimed(Expense expense, LocalDateTime oldDateTime) {
+        return new ExpenseEvent(Type.RETIMED, expense, oldDateTime);
+    }
+
+    /**
+     * Creates an event for an expense given another amount.
+     *
+     * @param expense           the updated expense
+     * @param oldAmount         the amount before the change, in canonical units
+     * @param oldCurrency       the currency the amount was entered in before the change
+     * @param oldOriginalAmount the amount as entered before the change
+     * @return the event
+     */
+    public static ExpenseEvent revalued(Expense expense, Money oldAmount, Currency oldCurrency,
+            Money oldOriginalAmount) {
+        return new ExpenseEvent(Type.REVALUED, expense, oldAmount, oldCurrency, oldOriginalAmount);
+    }
+
+    /**
+     * Creates an event for an expense given another name.
+     *
+     * @param expense the updated expense
+     * @param oldName the name before the change
+     * @return the event
+     */
+    public static ExpenseEvent renamed(Expense expense, String oldName) {
+        return new ExpenseEvent(Type.RENAMED, expense, oldName);
+    }
+
+    /**
+     * Returns the event for every expense being removed at once.
+     *
+     * @return the event
+     */
+    public static ExpenseEvent cleared() {
+        return CLEARED_EVENT;
+    }
+
+    /**
+     * Returns the kind of change.
+     *
+     * @return the event type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the changed expense.
+     *
+     * @return the expense, or null for {@link Type#CLEARED}
+     */
+    public Expense getExpense() {
+        return expense;
+    }
+
+    /**
+     * Returns the category entry before a {@link Type#RECATEGORIZED} change.
+     *
+     * @return the old category entry, or null if the expense had none
+     */
+    public Category getOldCategory() {
+        assert type == Type.RECATEGORIZED : "Not a category change";
+        return (Category) oldValue;
+    }
+
+    /**
+     * Returns the timestamp before a {@link Type#RETIMED} change.
+     *
+     * @return the old timestamp
+     */
+    public LocalDateTime getOldDateTime() {
+        assert type == Type.RETIMED : "Not a timestamp change";
+        return (LocalDateTime) oldValue;
+    }
+
+    /**
+     * Returns the amount before a {@link Type#REVALUED} change.
+     *
+     * @return the old amount, in canonical units
+     */
+    public Money getOldAmount() {
+        assert type == Type.REVALUED : "Not an amount change";
+        return (Money) oldValue;
+    }
+
+    /**
+     * Returns the currency the amount was entered in before a {@link Type#REVALUED} change.
+     *
+     * @return the old original currency
+     */
+    public Currency getOldCurrency() {
+        assert type == Type.REVALUED : "Not an amount change";
+        return oldCurrency;
+    }
+
+    /**
+     * Returns the amount as entered before a {@link Type#REVALUED} change.
+     *
+     * @return the old original amount
+     */
+    public Money getOldOriginalAmount() {
+        assert type == Type.REVALUED : "Not an amount change";
+        return oldOriginalAmount;
+    }
+
+    /**
+     * Returns the name before a {@link Type#RENAMED} change.
+     *
+     * @return the old name
+     */
+    public String getOldName() {
+        assert type == Type.RENAMED : "Not a name change";
+        return (String) oldValue;
+    }
+
+    @Override
+    public String toString() {
+        return expense == null ? type.toString() : type + " " + expense.getName();
+    }
+}
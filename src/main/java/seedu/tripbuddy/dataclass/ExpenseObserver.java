@@ -0,0 +1,82 @@
+package seedu.tripbuddy.dataclass;
+
+import java.time.LocalDateTime;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Receives notifications when a field of an {@link Expense} is changed through its setters.
+ * Used to keep indexes over expenses consistent with direct setter calls.
+ * The observer is the owner of the expense, and also tells it which currency its amount is in
+ * and which category entries it shares between its expenses.
+ */
+public interface ExpenseObserver {
+
+    /**
+     * Returns the base currency that the amounts of observed expenses are shown in.
+     *
+     * @return the base currency of the owner
+     */
+    Currency getBaseCurrency();
+
+    /**
+     * Returns the entry of the owner that a category should be bound as,
+     * so that every expense of the owner under one category refers to the same entry.
+     *
+     * @param category the category entry being assigned, which may be standalone
+     * @return the entry of the owner for the same category
+     */
+    Category bindCategory(Category category);
+
+    /**
+     * Runs a change to an observed expense under the write lock of the owner, from reading the old values
+     * to the last notification, so that concurrent changes to one expense are applied one at a time.
+     * Calls made while the lock is already held by the same thread run the change directly.
+     *
+     * @param change the change, which returns false if it did not apply
+     * @return the result of the change
+     */
+    boolean runLocked(BooleanSupplier change);
+
+    /**
+     * Called after the timestamp of an expense has been changed.
+     *
+     * @param expense     the updated expense
+     * @param oldDateTime the timestamp before the change
+     */
+    void onDateTimeChanged(Expense expense, LocalDateTime oldDateTime);
+
+    /**
+     * Called after the amount of an expense has been changed, or re-valued at new rates.
+     *
+     * @param expense           the updated expense
+     * @param oldAmount         the amount before the change, in canonical units
+     * @param oldCurrency       the currency the amount was entered in before the change
+     * @param oldOriginalAmount the amount as entered before the change
+     */
+    void onAmountChanged(Expense expense, Money oldAmount, Currency oldCurrency, Money oldOriginalAmount);
+
+    /**
+     * Called before the name of an expense is changed, while the change can still be refused.
+     *
+     * @param expense the expense being renamed
+     * @param name    the new name
+     * @throws IllegalArgumentException if another expense of the owner has the name, ignoring case
+     */
+    void checkName(Expense expense, String name);
+
+    /**
+     * Called after the name of an expense has been changed.
+     *
+     * @param expense the updated expense
+     * @param oldName the name before the change
+     */
+    void onNameChanged(Expense expense, String oldName);
+
+    /**
+     * Called after the category of an expense has been changed.
+     *
+     * @param expense     the updated expense
+     * @param oldCategory the category entry before the change, or null
+     */
+    void onCategoryChanged(Expense expense, Category oldCategory);
+}
@@ -0,0 +1,202 @@
+package seedu.tripbuddy.dataclass;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Represents an exact amount of money as a whole number of minor units (hundredths of the currency).
+ * Sums and comparisons are integer operations, so running totals never drift.
+ * Rounding only happens when an amount is read from a {@code double} or multiplied by a rate,
+ * and is always half away from zero.
+ */
+public final class Money implements Comparable<Money> {
+
+    /** Number of decimal places kept. */
+    public static final int SCALE = 2;
+    public static final long MINOR_UNITS_PER_MAJOR = 100;
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    /**
+     * Creates an amount from a number of minor units.
+     *
+     * @param minorUnits the amount in hundredths
+     * @return the amount
+     */
+    public static Money ofMinorUnits(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Creates an amount from a decimal value, rounded to the nearest minor unit.
+     * The value is read through its shortest decimal representation, so 0.285 becomes 0.29.
+     *
+     * @param amount the amount in major units
+     * @return the rounded amount
+     */
+    public static Money of(double amount) {
+        assert Double.isFinite(amount) : "Amount must be finite";
+        return ofMinorUnits(BigDecimal.valueOf(amount).setScale(SCALE, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact());
+    }
+
+    /**
+     * Returns the amount in minor units.
+     *
+     * @return the amount in hundredths
+     */
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    /**
+     * Returns the amount as a decimal value, for callers that work in major units.
+     *
+     * @return the amount in major units
+     */
+    public double toDouble() {
+        return minorUnits / (double) MINOR_UNITS_PER_MAJOR;
+    }
+
+    /**
+     * Returns the sum of this amount and another.
+     *
+     * @param other the amount to add
+     * @return the exact sum
+     */
+    public Money plus(Money other) {
+        return ofMinorUnits(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    /**
+     * Returns the difference of this amount and another.
+     *
+     * @param other the amount to subtract
+     * @return the exact difference
+     */
+    public Money minus(Money other) {
+        return ofMinorUnits(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    /**
+     * Returns the negation of this amount.
+     *
+     * @return the negated amount
+     */
+    public Money negate() {
+        return ofMinorUnits(Math.negateExact(minorUnits));
+    }
+
+    /**
+     * Returns this amount multiplied by the ratio of two integers, rounded to the nearest minor unit.
+     * Used for rate conversion with rates held as scaled integers.
+     *
+     * @param numerator   the numerator of the ratio
+     * @param denominator the denominator of the ratio, positive
+     * @return the rounded product
+     */
+    public Money times(long numerator, long denominator) {
+        return ofMinorUnits(multiplyRounded(minorUnits, numerator, denominator));
+    }
+
+    /**
+     * Computes {@code value * numerator / denominator} rounded half away from zero,
+     * falling back to {@link BigDecimal} only when the product overflows a {@code long}.
+     */
+    static long multiplyRounded(long value, long numerator, long denominator) {
+        assert denominator > 0 : "Denominator must be positive";
+        long product;
+        try {
+            product = Math.multiplyExact(value, numerator);
+        } catch (ArithmeticException e) {
+            return BigDecimal.valueOf(value).multiply(BigDecimal.valueOf(numerator))
+                    .divide(BigDecimal.valueOf(denominator), 0, RoundingMode.HALF_UP).longValueExact();
+        }
+        long quotient = product / denominator;
+        long remainder = Math.abs(product % denominator);
+        if (remainder >= denominator - remainder) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+
+    /**
+     * Returns the sign of this amount.
+     *
+     * @return -1, 0 or 1 as the amount is negative, zero or positive
+     */
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    /**
+     * Appends this amount with exactly {@value #SCALE} decimal places, such as "-12.05".
+     *
+     * @param sb the builder to append to
+     * @return the same builder
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        return appendMinorUnits(sb, minorUnits);
+    }
+
+    /**
+     * Appends a decimal value rounded half away from zero to {@value #SCALE} decimal places,
+     * such as for exchange rates. Like {@code String.format("%.2f", value)}, the value is rounded
+     * through its shortest decimal representation and keeps its sign, but no pattern is parsed.
+     *
+     * @param sb    the builder to append to
+     * @param value the value, finite and less than {@link Long#MAX_VALUE} hundredths in magnitude
+     * @return the same builder
+     */
+    public static StringBuilder appendRounded(StringBuilder sb, double value) {
+        assert Double.isFinite(value) : "Value must be finite";
+        if (Math.copySign(1.0, value) < 0) {
+            // Values rounding to zero still print as "-0.00"
+            sb.append('-');
+        }
+        return appendMinorUnits(sb, BigDecimal.valueOf(Math.abs(value)).setScale(SCALE, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact());
+    }
+
+    private static StringBuilder appendMinorUnits(StringBuilder sb, long units) {
+        if (units < 0) {
+            sb.append('-');
+        }
+        // Negating Long.MIN_VALUE overflows, so the digits are taken from the negative side
+        long major = Math.abs(units / MINOR_UNITS_PER_MAJOR);
+        int minor = (int) Math.abs(units % MINOR_UNITS_PER_MAJOR);
+        sb.append(major).append('.');
+        if (minor < 10) {
+            sb.append('0');
+        }
+        return sb.append(minor);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Money other && minorUnits == other.minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    /**
+     * Returns the amount with exactly {@value #SCALE} decimal places, such as "12.50".
+     */
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder()).toString();
+    }
+}
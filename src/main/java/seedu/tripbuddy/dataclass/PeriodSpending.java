@@ -0,0 +1,65 @@
+package seedu.tripbuddy.dataclass;
+
+import java.util.Map;
+
+/**
+ * Represents the spending within one period of a rollup, with its breakdown by category.
+ */
+public class PeriodSpending {
+
+    private final String label;
+    private final Money total;
+    private final int count;
+    private final Map<String, Money> categoryTotals;
+
+    /**
+     * Constructs the spending of a period.
+     *
+     * @param label          the label of the period
+     * @param total          the amount spent within the period
+     * @param count          the number of expenses within the period
+     * @param categoryTotals the amount spent per category, ordered by category name
+     */
+    public PeriodSpending(String label, Money total, int count, Map<String, Money> categoryTotals) {
+        this.label = label;
+        this.total = total;
+        this.count = count;
+        this.categoryTotals = categoryTotals;
+    }
+
+    /**
+     * Returns the label of the period.
+     *
+     * @return the period label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Returns the amount spent within the period.
+     *
+     * @return the total amount
+     */
+    public Money getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the number of expenses within the period.
+     *
+     * @return the expense count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the amount spent per category within the period. Expenses without a category are left out.
+     *
+     * @return category name to amount, ordered by category name
+     */
+    public Map<String, Money> getCategoryTotals() {
+        return categoryTotals;
+    }
+}
@@ -0,0 +1,227 @@
+package seedu.tripbuddy.dataclass;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Immutable record of past exchange rates, relative to SGD, for converting amounts at the rate in force
+ * when they were spent.
+ * The rate in force for a currency at a time is that of its latest change at or before the time.
+ * Times before its first change, and currencies without any change, use the current {@link RateTable}.
+ * Each currency holds its changes as two sorted primitive arrays of UTC epoch seconds and scaled rates,
+ * so a lookup is a binary search.
+ */
+public final class RateHistory {
+
+    private static final RateHistory EMPTY = new Builder().build();
+    private static final AtomicReference<RateHistory> CURRENT = new AtomicReference<>(EMPTY);
+
+    /** Epoch seconds of the rate changes of each currency, by ordinal, in ascending order. */
+    private final long[][] epochSeconds;
+    /** Scaled rates matching {@link #epochSeconds}. */
+    private final long[][] scaledRates;
+
+    private RateHistory(long[][] epochSeconds, long[][] scaledRates) {
+        this.epochSeconds = epochSeconds;
+        this.scaledRates = scaledRates;
+    }
+
+    /**
+     * Returns a history without any rate change, under which every conversion uses the current rates.
+     *
+     * @return the empty history
+     */
+    public static RateHistory empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the history in use.
+     *
+     * @return the current history
+     */
+    public static RateHistory current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Replaces the history in use.
+     *
+     * @param history the new history
+     */
+    public static void install(RateHistory history) {
+        assert history != null : "Rate history must not be null";
+        CURRENT.set(history);
+    }
+
+    /**
+     * Converts a timestamp into the epoch second the history is keyed by.
+     *
+     * @param dateTime the timestamp
+     * @return its UTC epoch second
+     */
+    public static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Checks whether any rate change of a currency is recorded.
+     *
+     * @param currency the currency
+     * @return true if the rate of the currency depends on time
+     */
+    public boolean covers(Currency currency) {
+        return epochSeconds[currency.ordinal()].length > 0;
+    }
+
+    /**
+     * Checks whether conversions between a currency and canonical units use the same rate
+     * at every time, so that a sum of canonical amounts can be converted at once.
+     * Canonical units are fixed against SGD, so this holds unless the currency has a recorded rate change.
+     *
+     * @param currency the currency
+     * @return true if the currency has no recorded rate change
+     */
+    public boolean isFixedAgainstCanonical(Currency currency) {
+        return !covers(currency);
+    }
+
+    /**
+     * Returns the number of rate changes recorded over all currencies.
+     *
+     * @return the number of changes
+     */
+    public int size() {
+        int size = 0;
+        for (long[] times : epochSeconds) {
+            size += times.length;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the scaled rate of a currency in force at a time.
+     *
+     * @param currency    the currency
+     * @param epochSecond the time, as a UTC epoch second
+     * @param rates       the rates to use before the first recorded change
+     * @return the rate relative to SGD, scaled by {@link Currency#RATE_SCALE}
+     */
+    public long getScaledRate(Currency currency, long epochSecond, RateTable rates) {
+        long[] times = epochSeconds[currency.ordinal()];
+        int index = Arrays.binarySearch(times, epochSecond);
+        if (index < 0) {
+            // The change before the insertion point is the latest one before the time
+            index = -index - 2;
+        } else {
+            // Several changes may share a second, and the last one given wins
+            while (index + 1 < times.length && times[index + 1] == epochSecond) {
+                index++;
+            }
+        }
+        return index < 0 ? rates.getScaledRate(currency) : scaledRates[currency.ordinal()][index];
+    }
+
+    /**
+     * Converts an exact amount between currencies at the rates in force at a time,
+     * rounded to the nearest minor unit.
+     *
+     * @param amount   the amount in {@code from}
+     * @param from     the currency the amount is in
+     * @param to       the currency to convert to
+     * @param dateTime the time the rates are taken at
+     * @return the amount in {@code to}
+     */
+    public Money convert(Money amount, Currency from, Currency to, LocalDateTime dateTime) {
+        if (from == to) {
+            return amount;
+        }
+        RateTable rates = RateTable.current();
+        long epochSecond = toEpochSecond(dateTime);
+        return amount.times(getScaledRate(to, epochSecond, rates), getScaledRate(from, epochSecond, rates));
+    }
+
+    /**
+     * Converts a canonical amount into a currency at the rates in force at a time, in minor units.
+     * Meant for passes over many amounts, which look up the current rates once.
+     *
+     * @param canonicalUnits the amount in canonical units, as described in {@link Currency#CANONICAL_SCALE}
+     * @param to             the currency to convert to
+     * @param epochSecond    the time, as a UTC epoch second
+     * @param rates          the rates to use before the first recorded change
+     * @return the amount in minor units of {@code to}
+     */
+    public long fromCanonical(long canonicalUnits, Currency to, long epochSecond, RateTable rates) {
+        return Currency.fromCanonical(canonicalUnits, getScaledRate(to, epochSecond, rates));
+    }
+
+    /**
+     * Collects rate changes in any order and builds a {@link RateHistory} from them.
+     */
+    public static final class Builder {
+
+        private final long[][] epochSeconds = new long[Currency.values().length][];
+        private final long[][] scaledRates = new long[Currency.values().length][];
+        private final int[] counts = new int[Currency.values().length];
+
+        /**
+         * Constructs an empty builder.
+         */
+        public Builder() {
+            for (int i = 0; i < epochSeconds.length; i++) {
+                epochSeconds[i] = new long[0];
+                scaledRates[i] = new long[0];
+            }
+        }
+
+        /**
+         * Records a change of the rate of a currency.
+         *
+         * @param currency the currency
+         * @param dateTime the time the rate took effect
+         * @param rate     the rate relative to SGD, positive
+         * @return this builder
+         */
+        public Builder add(Currency currency, LocalDateTime dateTime, double rate) {
+            int i = currency.ordinal();
+            if (counts[i] == epochSeconds[i].length) {
+                int newCapacity = Math.max(4, counts[i] * 2);
+                epochSeconds[i] = Arrays.copyOf(epochSeconds[i], newCapacity);
+                scaledRates[i] = Arrays.copyOf(scaledRates[i], newCapacity);
+            }
+            epochSeconds[i][counts[i]] = toEpochSecond(dateTime);
+            scaledRates[i][counts[i]] = Currency.toScaledRate(rate);
+            counts[i]++;
+            return this;
+        }
+
+        /**
+         * Builds the history, sorting the changes of each currency by time.
+         * Changes at the same second keep the order they were added in.
+         *
+         * @return the history
+         */
+        public RateHistory build() {
+            long[][] sortedTimes = new long[counts.length][];
+            long[][] sortedRates = new long[counts.length][];
+            for (int i = 0; i < counts.length; i++) {
+                long[] times = epochSeconds[i];
+                long[] rates = scaledRates[i];
+                Integer[] order = new Integer[counts[i]];
+                for (int j = 0; j < order.length; j++) {
+                    order[j] = j;
+                }
+                Arrays.sort(order, (a, b) -> Long.compare(times[a], times[b]));
+                sortedTimes[i] = new long[order.length];
+                sortedRates[i] = new long[order.length];
+                for (int j = 0; j < order.length; j++) {
+                    sortedTimes[i][j] = times[order[j]];
+                    sortedRates[i][j] = rates[order[j]];
+                }
+            }
+            return new RateHistory(sortedTimes, sortedRates);
+        }
+    }
+}
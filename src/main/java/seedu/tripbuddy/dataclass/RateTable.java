@@ -0,0 +1,160 @@
+package seedu.tripbuddy.dataclass;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable snapshot of the exchange rates of every {@link Currency}, with the rate between every pair
+ * computed once when the snapshot is made.
+ * The rates in use are held in a single reference and replaced by a new snapshot as a whole,
+ * so a conversion never sees some rates from before an update and some from after.
+ * Rates are held as integers scaled by {@link Currency#RATE_SCALE} relative to SGD.
+ */
+public final class RateTable {
+
+    private static final AtomicReference<RateTable> CURRENT = new AtomicReference<>(defaults());
+
+    private final long version;
+    private final long[] scaledRates;
+    /** {@code crossRates[from][to]} is the number of units of {@code to} per unit of {@code from}. */
+    private final double[][] crossRates;
+
+    private RateTable(long version, long[] scaledRates) {
+        this.version = version;
+        this.scaledRates = scaledRates;
+        int n = scaledRates.length;
+        crossRates = new double[n][n];
+        for (int from = 0; from < n; from++) {
+            for (int to = 0; to < n; to++) {
+                crossRates[from][to] = (double) scaledRates[to] / scaledRates[from];
+            }
+        }
+    }
+
+    /**
+     * Returns a table of the rates each currency is declared with.
+     *
+     * @return the default rates, as version 0
+     */
+    public static RateTable defaults() {
+        Currency[] currencies = Currency.values();
+        long[] scaledRates = new long[currencies.length];
+        for (Currency currency : currencies) {
+            scaledRates[currency.ordinal()] = currency.getDefaultScaledRate();
+        }
+        return new RateTable(0, scaledRates);
+    }
+
+    /**
+     * Returns the rates in use.
+     *
+     * @return the current snapshot
+     */
+    public static RateTable current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Replaces the rates in use with a change made to the current snapshot.
+     * If another thread replaces the rates at the same time, the change is made again on its snapshot,
+     * so no update is lost.
+     *
+     * @param change the change, which must not have side effects
+     * @return the snapshot now in use
+     */
+    public static RateTable update(UnaryOperator<RateTable> change) {
+        return CURRENT.updateAndGet(change);
+    }
+
+    /**
+     * Replaces the rates in use.
+     *
+     * @param table the new snapshot
+     */
+    public static void install(RateTable table) {
+        assert table != null : "Rate table must not be null";
+        CURRENT.set(table);
+    }
+
+    /**
+     * Returns a copy of this table with the rate of one currency changed, as the next version.
+     *
+     * @param currency the currency
+     * @param rate     its new rate relative to SGD, positive
+     * @return the new table
+     */
+    public RateTable withRate(Currency currency, double rate) {
+        return withRates(Map.of(currency, rate));
+    }
+
+    /**
+     * Returns a copy of this table with the rates of some currencies changed, as the next version.
+     * Currencies not given keep their rates.
+     *
+     * @param rates the new rates relative to SGD, all positive
+     * @return the new table
+     */
+    public RateTable withRates(Map<Currency, Double> rates) {
+        long[] updated = scaledRates.clone();
+        for (Map.Entry<Currency, Double> entry : rates.entrySet()) {
+            updated[entry.getKey().ordinal()] = Currency.toScaledRate(entry.getValue());
+        }
+        return new RateTable(version + 1, updated);
+    }
+
+    /**
+     * Returns the number of updates made since the default rates.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the rate of a currency relative to SGD, scaled by {@link Currency#RATE_SCALE}.
+     *
+     * @param currency the currency
+     * @return the scaled rate
+     */
+    public long getScaledRate(Currency currency) {
+        return scaledRates[currency.ordinal()];
+    }
+
+    /**
+     * Returns the number of units of one currency per unit of another.
+     *
+     * @param from the currency converted from
+     * @param to   the currency converted to
+     * @return the exchange rate
+     */
+    public double getRate(Currency from, Currency to) {
+        return crossRates[from.ordinal()][to.ordinal()];
+    }
+
+    /**
+     * Converts an amount between currencies.
+     *
+     * @param amount the amount in {@code from}
+     * @param from   the currency the amount is in
+     * @param to     the currency to convert to
+     * @return the amount in {@code to}
+     */
+    public double convert(double amount, Currency from, Currency to) {
+        return amount * crossRates[from.ordinal()][to.ordinal()];
+    }
+
+    /**
+     * Converts an exact amount between currencies, rounded to the nearest minor unit.
+     * The scaled rates are used instead of the cross rate, so the result has a single rounding.
+     *
+     * @param amount the amount in {@code from}
+     * @param from   the currency the amount is in
+     * @param to     the currency to convert to
+     * @return the amount in {@code to}
+     */
+    public Money convert(Money amount, Currency from, Currency to) {
+        return from == to ? amount : amount.times(scaledRates[to.ordinal()], scaledRates[from.ordinal()]);
+    }
+}
@@ -0,0 +1,60 @@
+package seedu.tripbuddy.dataclass;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.util.Locale;
+
+/**
+ * Represents the period lengths that spending can be rolled up by.
+ * Each period of a length is identified by a {@code long} key that sorts chronologically.
+ */
+public enum RollupPeriod {
+    DAY,
+    WEEK,
+    MONTH;
+
+    /**
+     * Returns the key of the period containing the given timestamp.
+     * Weeks are ISO weeks, starting on Monday.
+     *
+     * @param dateTime the timestamp
+     * @return the period key
+     */
+    public long keyOf(LocalDateTime dateTime) {
+        LocalDate date = dateTime.toLocalDate();
+        return switch (this) {
+        case DAY -> date.toEpochDay();
+        case WEEK -> date.get(IsoFields.WEEK_BASED_YEAR) * 100L + date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+        case MONTH -> date.getYear() * 100L + date.getMonthValue();
+        };
+    }
+
+    /**
+     * Returns a readable label of a period, e.g. {@code 2025-04-05}, {@code 2025-W14} or {@code 2025-04}.
+     *
+     * @param key the period key
+     * @return the label
+     */
+    public String labelOf(long key) {
+        return switch (this) {
+        case DAY -> LocalDate.ofEpochDay(key).toString();
+        case WEEK -> appendTwoDigits(new StringBuilder().append(key / 100).append("-W"), key % 100).toString();
+        case MONTH -> appendTwoDigits(new StringBuilder().append(key / 100).append('-'), key % 100).toString();
+        };
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder sb, long value) {
+        return (value < 10 ? sb.append('0') : sb).append(value);
+    }
+
+    /**
+     * Returns the period in its user-facing string form.
+     *
+     * @return the lower-case name of the period
+     */
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
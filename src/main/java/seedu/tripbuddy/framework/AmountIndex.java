@@ -0,0 +1,344 @@
+package seedu.tripbuddy.framework;
+
+import seedu.tripbuddy.dataclass.Expense;
+import seedu.tripbuddy.dataclass.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+/**
+ * Orders expenses by amount in a size-augmented treap, so that rank queries take O(log n).
+ * Expenses with equal amounts are ordered by insertion.
+ * Amounts are kept in canonical minor units, so every comparison is an integer comparison
+ * and the order does not depend on the currency the amounts are shown in.
+ */
+class AmountIndex {
+
+    private static final class Node {
+        private final Expense expense;
+        private final long seq;
+        private final int priority;
+        /** Amount in minor units. */
+        private long amount;
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(Expense expense, long seq, int priority) {
+            this.expense = expense;
+            this.seq = seq;
+            this.priority = priority;
+            this.amount = expense.getCanonicalMoney().getMinorUnits();
+        }
+    }
+
+    /** Fixed seed so that tree shapes are reproducible between runs. */
+    private final Random random = new Random(2113);
+    private final IdentityHashMap<Expense, Node> nodes = new IdentityHashMap<>();
+    private Node root = null;
+    private long nextSeq = 0;
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int compare(long amount, long seq, Node node) {
+        int cmp = Long.compare(amount, node.amount);
+        return cmp != 0 ? cmp : Long.compare(seq, node.seq);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node top = node.left;
+        node.left = top.right;
+        top.right = node;
+        update(node);
+        update(top);
+        return top;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node top = node.right;
+        node.right = top.left;
+        top.left = node;
+        update(node);
+        update(top);
+        return top;
+    }
+
+    private static Node insert(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (compare(newNode.amount, newNode.seq, node) < 0) {
+            node.left = insert(node.left, newNode);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, newNode);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node delete(Node node, Node target) {
+        if (node == null) {
+            return null;
+        }
+        if (node == target) {
+            return merge(node.left, node.right);
+        }
+        if (compare(target.amount, target.seq, node) < 0) {
+            node.left = delete(node.left, target);
+        } else {
+            node.right = delete(node.right, target);
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    /**
+     * Adds an expense at its current amount.
+     *
+     * @param expense Expense to add.
+     */
+    void add(Expense expense) {
+        Node node = new Node(expense, nextSeq++, random.nextInt());
+        nodes.put(expense, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes an expense.
+     *
+     * @param expense Expense to remove.
+     */
+    void remove(Expense expense) {
+        Node node = nodes.remove(expense);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    /**
+     * Moves an expense to the position of its current amount.
+     * Its place among equal amounts is kept.
+     *
+     * @param expense Expense whose amount changed.
+     */
+    void reposition(Expense expense) {
+        Node node = nodes.get(expense);
+        if (node == null) {
+            return;
+        }
+        root = delete(root, node);
+        node.left = null;
+        node.right = null;
+        node.size = 1;
+        node.amount = expense.getCanonicalMoney().getMinorUnits();
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes all expenses.
+     */
+    void clear() {
+        nodes.clear();
+        root = null;
+    }
+
+    /**
+     * Gets the number of indexed expenses.
+     *
+     * @return The expense count.
+     */
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Gets the expense at a rank in ascending order of amount.
+     *
+     * @param rank Zero-based rank, less than {@link #size()}.
+     * @return The expense at that rank.
+     */
+    Expense select(int rank) {
+        assert rank >= 0 && rank < size() : "Rank out of bound";
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                node = node.left;
+            } else if (rank == leftSize) {
+                return node.expense;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Counts the expenses with amounts strictly less than the given amount.
+     *
+     * @param amount The amount to compare with, in minor units.
+     * @return The number of smaller expenses.
+     */
+    int countLessThan(long amount) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.amount < amount) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the earliest added expense among those with the lowest amount.
+     *
+     * @return The minimum expense, or null if empty.
+     */
+    Expense getMin() {
+        return root == null ? null : select(0);
+    }
+
+    /**
+     * Gets the earliest added expense among those with the highest amount.
+     *
+     * @return The maximum expense, or null if empty.
+     */
+    Expense getMax() {
+        if (root == null) {
+            return null;
+        }
+        Node node = root;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return select(countLessThan(node.amount));
+    }
+
+    /**
+     * Gets the expenses with the highest amounts, in descending order of amount.
+     *
+     * @param count Maximum number of expenses to return.
+     * @return Up to {@code count} expenses.
+     */
+    List<Expense> getTop(int count) {
+        ArrayList<Expense> ret = new ArrayList<>();
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        while (ret.size() < count && (node != null || !stack.isEmpty())) {
+            while (node != null) {
+                stack.push(node);
+                node = node.right;
+            }
+            node = stack.pop();
+            ret.add(node.expense);
+            node = node.left;
+        }
+        return ret;
+    }
+
+    /**
+     * Gets all expenses with amounts within the given range, inclusive, in ascending order of amount.
+     *
+     * @param min Lower bound of the amount, in minor units.
+     * @param max Upper bound of the amount, in minor units.
+     * @return List of expenses within the range.
+     */
+    List<Expense> getRange(long min, long max) {
+        ArrayList<Expense> ret = new ArrayList<>();
+        scan(min, max, ret::add);
+        return ret;
+    }
+
+    /**
+     * Visits the expenses with amounts within the given range, inclusive, in ascending order of amount,
+     * until the visitor asks to stop.
+     *
+     * @param min     Lower bound of the amount, in minor units.
+     * @param max     Upper bound of the amount, in minor units.
+     * @param visitor Called on each expense, returning false to stop the walk.
+     * @return False if the visitor stopped the walk.
+     */
+    boolean scan(long min, long max, Predicate<Expense> visitor) {
+        return scanRange(root, min, max, visitor);
+    }
+
+    /**
+     * Counts the expenses with amounts within the given range, inclusive.
+     *
+     * @param min Lower bound of the amount, in minor units.
+     * @param max Upper bound of the amount, in minor units.
+     * @return The exact expense count.
+     */
+    int countRange(long min, long max) {
+        if (min > max) {
+            return 0;
+        }
+        int atMost = max == Long.MAX_VALUE ? size() : countLessThan(max + 1);
+        return atMost - countLessThan(min);
+    }
+
+    /**
+     * Rounds a range bound to minor units, towards the inside of the range, clamping bounds beyond any amount.
+     */
+    static long toMinorUnits(double amount, RoundingMode mode) {
+        if (amount >= (double) Long.MAX_VALUE / Money.MINOR_UNITS_PER_MAJOR) {
+            return Long.MAX_VALUE;
+        }
+        if (amount <= (double) Long.MIN_VALUE / Money.MINOR_UNITS_PER_MAJOR) {
+            return Long.MIN_VALUE;
+        }
+        return BigDecimal.valueOf(amount).movePointRight(Money.SCALE).setScale(0, mode).longValueExact();
+    }
+
+    private static boolean scanRange(Node node, long min, long max, Predicate<Expense> visitor) {
+        if (node == null) {
+            return true;
+        }
+        if (node.amount >= min && !scanRange(node.left, min, max, visitor)) {
+            return false;
+        }
+        if (node.amount >= min && node.amount <= max && !visitor.test(node.expense)) {
+            return false;
+        }
+        return node.amount > max || scanRange(node.right, min, max, visitor);
+    }
+}
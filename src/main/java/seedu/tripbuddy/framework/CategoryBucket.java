@@ -0,0 +1,164 @@
+package seedu.tripbuddy.framework;
+
+import seedu.tripbuddy.dataclass.Expense;
+import seedu.tripbuddy.dataclass.Money;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Holds the expenses of one category entry together with their running total.
+ * Expenses are kept in insertion order.
+ * A merged bucket keeps its expenses and hands its total over to the bucket it was merged into,
+ * which then reports the expenses and total of both.
+ */
+class CategoryBucket {
+
+    private final LinkedHashSet<Expense> expenses = new LinkedHashSet<>();
+    private final ArrayList<CategoryBucket> mergedBuckets = new ArrayList<>();
+    private CategoryBucket mergedInto = null;
+    /** Total in minor units of this bucket and all buckets merged into it. Only kept up to date on the root. */
+    private long total = 0;
+
+    private CategoryBucket root() {
+        CategoryBucket root = this;
+        while (root.mergedInto != null) {
+            root = root.mergedInto;
+        }
+        CategoryBucket bucket = this;
+        while (bucket != root) {
+            CategoryBucket next = bucket.mergedInto;
+            bucket.mergedInto = root;
+            bucket = next;
+        }
+        return root;
+    }
+
+    /**
+     * Adds an expense to this bucket.
+     *
+     * @param expense Expense to add.
+     */
+    void add(Expense expense) {
+        if (expenses.add(expense)) {
+            root().total += expense.getCanonicalMoney().getMinorUnits();
+        }
+    }
+
+    /**
+     * Removes an expense from this bucket.
+     *
+     * @param expense Expense to remove.
+     */
+    void remove(Expense expense) {
+        if (expenses.remove(expense)) {
+            root().total -= expense.getCanonicalMoney().getMinorUnits();
+        }
+    }
+
+    /**
+     * Removes every expense from this bucket, keeping its merges.
+     * Totals are reset on every bucket, so all buckets must be cleared together.
+     */
+    void clear() {
+        expenses.clear();
+        total = 0;
+    }
+
+    /**
+     * Adjusts the running total after the amount of an expense in this bucket changed.
+     *
+     * @param oldAmount Amount before the change.
+     * @param newAmount Amount after the change.
+     */
+    void updateAmount(Money oldAmount, Money newAmount) {
+        root().total += newAmount.getMinorUnits() - oldAmount.getMinorUnits();
+    }
+
+    /**
+     * Merges this bucket into another in O(1). Its expenses stay where they are
+     * and are reported by the other bucket from then on.
+     *
+     * @param target Bucket to merge into.
+     */
+    void mergeInto(CategoryBucket target) {
+        CategoryBucket root = root();
+        CategoryBucket targetRoot = target.root();
+        if (root == targetRoot) {
+            return;
+        }
+        root.mergedInto = targetRoot;
+        targetRoot.mergedBuckets.add(root);
+        targetRoot.total += root.total;
+    }
+
+    /**
+     * Gets the expenses in this bucket, followed by those of buckets merged into it.
+     *
+     * @return A new list of the expenses, each bucket in insertion order.
+     */
+    List<Expense> getExpenses() {
+        ArrayList<Expense> ret = new ArrayList<>(expenses);
+        for (CategoryBucket merged : mergedBuckets) {
+            ret.addAll(merged.getExpenses());
+        }
+        return ret;
+    }
+
+    /**
+     * Gets one page of the expenses in the order of {@link #getExpenses()}, without listing the others.
+     *
+     * @param offset Number of leading expenses to skip.
+     * @param limit  Maximum number of expenses to return.
+     * @return A new list of the expenses in the page.
+     */
+    List<Expense> getExpenses(int offset, int limit) {
+        PageCollector page = new PageCollector(offset, limit);
+        scan(page::offer);
+        return page.getItems();
+    }
+
+    /**
+     * Visits the expenses of this bucket and those merged into it until the visitor asks to stop.
+     *
+     * @param visitor Called on each expense, returning false to stop the walk.
+     * @return False if the visitor stopped the walk.
+     */
+    boolean scan(Predicate<Expense> visitor) {
+        for (Expense expense : expenses) {
+            if (!visitor.test(expense)) {
+                return false;
+            }
+        }
+        for (CategoryBucket merged : mergedBuckets) {
+            if (!merged.scan(visitor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the sum of all amounts in this bucket and those merged into it.
+     *
+     * @return The running total, in canonical units.
+     */
+    Money getTotal() {
+        return Money.ofMinorUnits(root().total);
+    }
+
+    /**
+     * Gets the number of expenses in this bucket and those merged into it.
+     *
+     * @return The expense count.
+     */
+    int size() {
+        int size = expenses.size();
+        for (CategoryBucket merged : mergedBuckets) {
+            size += merged.size();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,119 @@
+package seedu.tripbuddy.framework;
+
+import seedu.tripbuddy.dataclass.Category;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Interns category names into {@link Category} entries with dense integer ids.
+ * Renaming and merging only touch the dictionary; expenses keep referring to their entries.
+ */
+class CategoryDictionary {
+
+    /** Current category name to its representative entry. */
+    private final HashMap<String, Category> entriesByName = new HashMap<>();
+    /** Every entry ever interned, merged or not, indexed by id. */
+    private final ArrayList<Category> entries = new ArrayList<>();
+
+    /**
+     * Gets the representative entry of a category, creating one if it has not been seen.
+     *
+     * @param name Category name.
+     * @return The entry of the category.
+     */
+    Category intern(String name) {
+        Category entry = entriesByName.get(name);
+        if (entry == null) {
+            entry = new Category(entries.size(), name);
+            entries.add(entry);
+            entriesByName.put(name, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Gets the representative entry of a category.
+     *
+     * @param name Category name.
+     * @return The entry of the category, or null if there is no such category.
+     */
+    Category get(String name) {
+        return entriesByName.get(name);
+    }
+
+    /**
+     * Checks whether an entry was interned by this dictionary, as opposed to a standalone entry
+     * or one of another dictionary.
+     *
+     * @param entry The entry.
+     * @return True if the entry belongs to this dictionary.
+     */
+    boolean owns(Category entry) {
+        int id = entry.getId();
+        return id >= 0 && id < entries.size() && entries.get(id) == entry;
+    }
+
+    /**
+     * Checks whether a category exists.
+     *
+     * @param name Category name.
+     * @return True if the category exists.
+     */
+    boolean contains(String name) {
+        return entriesByName.containsKey(name);
+    }
+
+    /**
+     * Gets the number of entries ever interned, which bounds their ids.
+     *
+     * @return The entry count.
+     */
+    int entryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the names of all current categories.
+     *
+     * @return A list of category names.
+     */
+    List<String> getNames() {
+        return entriesByName.keySet().stream().toList();
+    }
+
+    /**
+     * Renames a category. Both names are assumed to be validated by the caller.
+     *
+     * @param oldName Existing category name.
+     * @param newName Unused category name.
+     */
+    void rename(String oldName, String newName) {
+        Category entry = entriesByName.remove(oldName);
+        assert entry != null && !entriesByName.containsKey(newName) : "Invalid rename";
+        entry.rename(newName);
+        entriesByName.put(newName, entry);
+    }
+
+    /**
+     * Merges one category into another. Both names are assumed to be validated by the caller.
+     *
+     * @param source Category name to merge away.
+     * @param target Category name to merge into.
+     */
+    void merge(String source, String target) {
+        Category sourceEntry = entriesByName.remove(source);
+        Category targetEntry = entriesByName.get(target);
+        assert sourceEntry != null && targetEntry != null && sourceEntry != targetEntry : "Invalid merge";
+        sourceEntry.mergeInto(targetEntry);
+    }
+
+    /**
+     * Forgets all categories.
+     */
+    void clear() {
+        entriesByName.clear();
+        entries.clear();
+    }
+}
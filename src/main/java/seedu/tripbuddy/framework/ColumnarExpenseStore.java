@@ -0,0 +1,196 @@
+package seedu.tripbuddy.framework;
+
+import seedu.tripbuddy.dataclass.Currency;
+import seedu.tripbuddy.dataclass.Expense;
+import seedu.tripbuddy.dataclass.Money;
+import seedu.tripbuddy.dataclass.RateHistory;
+import seedu.tripbuddy.dataclass.RateTable;
+
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link ExpenseStore} that lays expense data out as parallel primitive columns.
+ * Names, amounts in canonical units and epoch seconds sit in contiguous arrays, so sums and name searches
+ * run as tight loops without following references to each {@link Expense}.
+ * A removed row is tombstoned by clearing its handle and zeroing its amount, so sums need no check.
+ */
+public class ColumnarExpenseStore implements ExpenseStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Expense[] handles = new Expense[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private long[] epochSeconds = new long[INITIAL_CAPACITY];
+    private int rowCount = 0;
+    private int tombstones = 0;
+
+    private final IdentityHashMap<Expense, Integer> rows = new IdentityHashMap<>();
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= handles.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, handles.length * 2);
+        handles = Arrays.copyOf(handles, newCapacity);
+        names = Arrays.copyOf(names, newCapacity);
+        amounts = Arrays.copyOf(amounts, newCapacity);
+        epochSeconds = Arrays.copyOf(epochSeconds, newCapacity);
+    }
+
+    private void writeRow(int row, Expense expense) {
+        handles[row] = expense;
+        names[row] = expense.getName();
+        amounts[row] = expense.getCanonicalMoney().getMinorUnits();
+        epochSeconds[row] = expense.getDateTime().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private void tombstone(Expense expense) {
+        Integer row = rows.remove(expense);
+        if (row == null) {
+            return;
+        }
+        handles[row] = null;
+        names[row] = null;
+        amounts[row] = 0;
+        tombstones++;
+    }
+
+    /**
+     * Moves the live rows down over the tombstones in one pass, once there are enough tombstones.
+     */
+    private void compactIfSparse() {
+        if (!ExpenseStore.needsCompaction(tombstones, rowCount)) {
+            return;
+        }
+        int live = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (handles[row] == null) {
+                continue;
+            }
+            if (row != live) {
+                handles[live] = handles[row];
+                names[live] = names[row];
+                amounts[live] = amounts[row];
+                epochSeconds[live] = epochSeconds[row];
+                rows.put(handles[live], live);
+            }
+            live++;
+        }
+        Arrays.fill(handles, live, rowCount, null);
+        Arrays.fill(names, live, rowCount, null);
+        Arrays.fill(amounts, live, rowCount, 0);
+        rowCount = live;
+        tombstones = 0;
+    }
+
+    @Override
+    public void add(Expense expense) {
+        ensureCapacity(rowCount + 1);
+        writeRow(rowCount, expense);
+        rows.put(expense, rowCount);
+        rowCount++;
+    }
+
+    @Override
+    public void addAll(List<Expense> batch) {
+        ensureCapacity(rowCount + batch.size());
+        ExpenseStore.super.addAll(batch);
+    }
+
+    @Override
+    public void remove(Expense expense) {
+        tombstone(expense);
+        compactIfSparse();
+    }
+
+    @Override
+    public void removeAll(Collection<Expense> removed) {
+        for (Expense expense : removed) {
+            tombstone(expense);
+        }
+        compactIfSparse();
+    }
+
+    @Override
+    public void update(Expense expense) {
+        Integer row = rows.get(expense);
+        if (row != null) {
+            writeRow(row, expense);
+        }
+    }
+
+    @Override
+    public Expense get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        if (tombstones == 0) {
+            return handles[index];
+        }
+        for (int row = 0; ; row++) {
+            if (handles[row] != null && index-- == 0) {
+                return handles[row];
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return rowCount - tombstones;
+    }
+
+    @Override
+    public int getTombstoneCount() {
+        return tombstones;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(handles, 0, rowCount, null);
+        Arrays.fill(names, 0, rowCount, null);
+        rowCount = 0;
+        tombstones = 0;
+        rows.clear();
+    }
+
+    @Override
+    public List<Expense> toList() {
+        if (tombstones == 0) {
+            return List.of(Arrays.copyOf(handles, rowCount));
+        }
+        return Arrays.stream(handles, 0, rowCount).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public Money sumAmounts(Currency currency, RateHistory history) {
+        RateTable rates = RateTable.current();
+        long sum = 0;
+        for (int i = 0; i < rowCount; i++) {
+            sum += history.fromCanonical(amounts[i], currency, epochSeconds[i], rates);
+        }
+        return Money.ofMinorUnits(sum);
+    }
+
+    @Override
+    public List<Expense> findByNameContaining(String word, int offset, int limit) {
+        PageCollector page = new PageCollector(offset, limit);
+        for (int i = 0; i < rowCount && !page.isFull(); i++) {
+            if (names[i] != null && TrigramIndex.containsIgnoreCase(names[i], word)) {
+                page.offer(handles[i]);
+            }
+        }
+        return page.getItems();
+    }
+
+    @Override
+    public Iterator<Expense> iterator() {
+        return Arrays.stream(handles, 0, rowCount).filter(Objects::nonNull).iterator();
+    }
+}
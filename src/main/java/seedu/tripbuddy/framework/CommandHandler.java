@@ -1,14 +1,23 @@
 package seedu.tripbuddy.framework;
 
+import seedu.tripbuddy.command.Command;
+import seedu.tripbuddy.dataclass.Category;
 import seedu.tripbuddy.dataclass.Currency;
 import seedu.tripbuddy.dataclass.Expense;
+import seedu.tripbuddy.dataclass.Money;
+import seedu.tripbuddy.dataclass.PeriodSpending;
+import seedu.tripbuddy.dataclass.RateTable;
+import seedu.tripbuddy.dataclass.RollupPeriod;
 import seedu.tripbuddy.exception.InvalidArgumentException;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Handles user commands and returns result messages.
@@ -23,13 +32,22 @@ public class CommandHandler {
      * Private constructor to enforce singleton pattern.
      */
     private CommandHandler() {
-        this.expenseManager = ExpenseManager.getInstance();
+        this(ExpenseManager.getInstance());
+    }
+
+    /**
+     * Constructs a handler for the given trip, e.g. one held by a {@link seedu.tripbuddy.storage.TripRegistry}.
+     *
+     * @param expenseManager the trip to run commands against
+     */
+    public CommandHandler(ExpenseManager expenseManager) {
+        this.expenseManager = expenseManager;
     }
 
     /**
      * Returns the singleton instance of {@code CommandHandler}.
      */
-    public static CommandHandler getInstance() {
+    public static synchronized CommandHandler getInstance() {
         if (instance == null) {
             instance = new CommandHandler();
         }
@@ -63,23 +81,45 @@ public class CommandHandler {
                         - Check your remaining budget.
                 add-expense EXPENSE_NAME -a AMOUNT [-c CATEGORY]
                         - Add a new expense.
+                add-expenses EXPENSE_NAME, AMOUNT[, CATEGORY]; ...
+                        - Add several expenses at once. Either all of them are added or none.
                 delete-expense EXPENSE_NAME
                         - Remove an expense by name.
-                list-expense [CATEGORY]
+                delete-expense [-c CATEGORY] [-f yyyy-MM-dd HH:mm:ss] [-t yyyy-MM-dd HH:mm:ss]
+                        - Remove every expense under a category and/or within a date range, inclusive.
+                list-expense [CATEGORY] [-l LIMIT] [-o OFFSET]
                         - Show all expenses, or expenses under a category if CATEGORY is given.
                         - Calculate sum of recorded expenses.
-                search SEARCHWORD
+                search SEARCHWORD [-l LIMIT] [-o OFFSET]
                         - Displays expenses that include the given search word.
                 max-expense
                         - Display an expense with the highest amount.
                 min-expense
                         - Display an expense with the lowest amount.
-                filter-date -f yyyy-MM-dd HH:mm:ss -t yyyy-MM-dd HH:mm:ss
+                top-expense COUNT
+                        - Display the COUNT expenses with the highest amounts.
+                percentile-expense PERCENTILE
+                        - Display the expense at the given percentile of amounts, e.g. 50 for the median.
+                filter-amount -f MIN_AMOUNT -t MAX_AMOUNT
+                        - Get all expenses with amounts within range, inclusive.
+                filter-date -f yyyy-MM-dd HH:mm:ss -t yyyy-MM-dd HH:mm:ss [-l LIMIT] [-o OFFSET]
                         - Get all expenses within date range, inclusive.
+                        - For list-expense, search, filter-date and query, -l shows at most LIMIT expenses
+                          and -o skips the first OFFSET of them.
+                query [-c CATEGORY] [-f yyyy-MM-dd HH:mm:ss] [-t yyyy-MM-dd HH:mm:ss]
+                        [-min MIN_AMOUNT] [-max MAX_AMOUNT] [-n WORD] [-e] [-l LIMIT] [-o OFFSET]
+                        - Get all expenses that pass every given filter, inclusive.
+                        - With -e, also show how the query ran and how many expenses it read.
+                view-trend day|week|month [-c CATEGORY]
+                        - Show spending per day, ISO week or month, broken down by category.
                 create-category CATEGORY
                         - Create a new expense category.
                 set-category EXPENSE_NAME -c CATEGORY
                         - Assign an expense to a category.
+                rename-category CATEGORY -n NEW_NAME
+                        - Rename a category, keeping its expenses.
+                merge-category CATEGORY -c TARGET_CATEGORY
+                        - Move all expenses of a category into another category.
                 view-categories
                         - Displays all categories.
                 set-time EXPENSE_NAME -t yyyy-MM-dd HH:mm:ss
@@ -94,25 +134,46 @@ public class CommandHandler {
 
     /**
      * Displays the user's budget, total spent, and remaining amount.
+     * If any expense was entered in another currency, the amount spent is also broken down by currency.
      */
     public String handleViewBudget() {
-        double budget = expenseManager.getBudget();
-        double totalExpense = expenseManager.getTotalExpense();
-        double remainingBudget = budget - totalExpense;
+        Money budget = expenseManager.getBudgetMoney();
+        Money totalExpense = expenseManager.getTotalExpenseMoney();
+        Money remainingBudget = budget.minus(totalExpense);
         Currency baseCurrency = expenseManager.getBaseCurrency();
-        if (remainingBudget > 0) {
+        String spent = baseCurrency.getFormattedAmount(totalExpense) + formatSpendingByCurrency(baseCurrency);
+        if (remainingBudget.signum() > 0) {
             return "The original budget you set was " + baseCurrency.getFormattedAmount(budget) +
-                    ".\nSo far, you have spent " + baseCurrency.getFormattedAmount(totalExpense) +
+                    ".\nSo far, you have spent " + spent +
                     ".\nThis leaves you with a remaining budget of " +
                     baseCurrency.getFormattedAmount(remainingBudget) + ".";
         }
         return "The original budget you set was " + baseCurrency.getFormattedAmount(budget) +
-                ".\nSo far, you have spent " + baseCurrency.getFormattedAmount(totalExpense) +
+                ".\nSo far, you have spent " + spent +
                 ".\nUh oh! You have exceeded your budget by " +
-                baseCurrency.getFormattedAmount(-remainingBudget) +
+                baseCurrency.getFormattedAmount(remainingBudget.negate()) +
                 ".\nConsider adjusting your budget to get back on track.";
     }
 
+    /**
+     * Formats the amount spent per currency as entered, e.g. " (12000.00 JPY + 300.00 THB)",
+     * or an empty string if every expense was entered in the base currency.
+     */
+    private String formatSpendingByCurrency(Currency baseCurrency) {
+        Map<Currency, Money> spending = expenseManager.getSpendingByCurrency();
+        if (spending.isEmpty() || spending.size() == 1 && spending.containsKey(baseCurrency)) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(" (");
+        for (Map.Entry<Currency, Money> entry : spending.entrySet()) {
+            if (sb.length() > 2) {
+                sb.append(" + ");
+            }
+            entry.getKey().appendFormattedAmount(sb, entry.getValue());
+        }
+        return sb.append(')').toString();
+    }
+
     /**
      * Sets a new budget amount.
      *
@@ -123,7 +184,7 @@ public class CommandHandler {
         assert budget > 0;
         expenseManager.setBudget(budget);
         Currency baseCurrency = expenseManager.getBaseCurrency();
-        return "Your budget has been set to " + baseCurrency.getFormattedAmount(budget) + ".";
+        return "Your budget has been set to " + baseCurrency.getFormattedAmount(expenseManager.getBudgetMoney()) + ".";
     }
 
     /**
@@ -149,6 +210,30 @@ public class CommandHandler {
         return "Successfully set category for " + expenseName + " to " + category + ".";
     }
 
+    /**
+     * Renames a category.
+     *
+     * @param category the existing category name
+     * @param newName  the new category name
+     * @return confirmation message
+     */
+    public String handleRenameCategory(String category, String newName) throws InvalidArgumentException {
+        expenseManager.renameCategory(category, newName);
+        return "Successfully renamed category " + category + " to " + newName + ".";
+    }
+
+    /**
+     * Merges a category into another.
+     *
+     * @param category       the category to merge away
+     * @param targetCategory the category to merge into
+     * @return confirmation message
+     */
+    public String handleMergeCategory(String category, String targetCategory) throws InvalidArgumentException {
+        expenseManager.mergeCategory(category, targetCategory);
+        return "Successfully merged category " + category + " into " + targetCategory + ".";
+    }
+
     /**
      * Deletes an expense by name.
      *
@@ -158,12 +243,28 @@ public class CommandHandler {
     public String handleDeleteExpense(String expenseName) throws InvalidArgumentException {
         expenseManager.deleteExpense(expenseName);
         return "Expense " + expenseName + " deleted successfully.\nYour remaining budget is " +
-                expenseManager.getBaseCurrency().getFormattedAmount(expenseManager.getRemainingBudget()) + ".";
+                expenseManager.getBaseCurrency().getFormattedAmount(expenseManager.getRemainingBudgetMoney()) + ".";
+    }
+
+    /**
+     * Deletes every expense that passes the filters of a query.
+     *
+     * @param query the filters to apply
+     * @return confirmation message with the number of deleted expenses
+     * @throws InvalidArgumentException if the query category doesn't exist
+     */
+    public String handleDeleteExpenses(ExpenseQuery query) throws InvalidArgumentException {
+        int count = expenseManager.deleteExpenses(query).size();
+        if (count == 0) {
+            return "No expenses matched, so none were deleted.";
+        }
+        return count + (count == 1 ? " expense" : " expenses") + " deleted successfully.\nYour remaining budget is " +
+                expenseManager.getBaseCurrency().getFormattedAmount(expenseManager.getRemainingBudgetMoney()) + ".";
     }
 
     /**
      * Adds a new expense with a given name, amount, and category or currency.
-     * If the category matches a supported currency code, the amount is converted accordingly.
+     * If the category matches a supported currency code, the amount is in that currency and is kept as entered.
      *
      * @param expenseName the name of the expense to add
      * @param amount      the amount of the expense
@@ -174,23 +275,27 @@ public class CommandHandler {
     public String handleAddExpense(String expenseName, double amount, String category)
             throws InvalidArgumentException {
         assert amount > 0;
-        try {
-            /* the value entered is a currency */
-            Currency currency = Currency.valueOf(category);
-            expenseManager.addExpense(expenseName, currency.convert(amount));
-        } catch (IllegalArgumentException e) {
+        Currency currency = parseCurrency(category);
+        String addedMessage;
+        if (currency != null) {
+            /* the value entered is a currency, and the expense has no category */
+            expenseManager.addExpenses(List.of(new Expense(expenseName, Money.of(amount), currency, null)));
+            addedMessage = "Expense " + expenseName + " of " + currency.getFormattedAmount(Money.of(amount))
+                    + " added successfully.\n";
+        } else {
             /* the value entered is a category */
             expenseManager.addExpense(expenseName, amount, category);
+            addedMessage = "Expense " + expenseName + " added successfully to category " + category + ".\n";
         }
 
-        double remainingBudget = expenseManager.getRemainingBudget();
+        Money remainingBudget = expenseManager.getRemainingBudgetMoney();
         Currency baseCurrency = expenseManager.getBaseCurrency();
-        if (remainingBudget >= 0) {
-            return "Expense " + expenseName + " added successfully to category " + category + ".\n" +
+        if (remainingBudget.signum() >= 0) {
+            return addedMessage +
                     "Your remaining budget is " + baseCurrency.getFormattedAmount(remainingBudget) + ".";
         } else {
-            double amountOfDebt = remainingBudget * -1;
-            return "Expense " + expenseName + " added successfully to category " + category + ".\n" +
+            Money amountOfDebt = remainingBudget.negate();
+            return addedMessage +
                     "Uh oh! You've exceeded your budget.\n" +
                     "You are now in debt by " +
                     baseCurrency.getFormattedAmount(amountOfDebt) + ". Time to rein it in!\n" +
@@ -209,19 +314,81 @@ public class CommandHandler {
     public String handleAddExpense(String expenseName, double amount) throws InvalidArgumentException {
         assert amount > 0;
         expenseManager.addExpense(expenseName, amount);
-        double remainingBudget = expenseManager.getRemainingBudget();
+        Money remainingBudget = expenseManager.getRemainingBudgetMoney();
         Currency baseCurrency = expenseManager.getBaseCurrency();
-        if (remainingBudget >= 0) {
+        if (remainingBudget.signum() >= 0) {
             return "Expense " + expenseName + " added successfully.\n" +
                     "Your remaining budget is $" +
                     baseCurrency.getFormattedAmount(remainingBudget) + ".";
         }
         return "Expense " + expenseName + " added successfully.\n" +
                 "Uh oh! You've exceeded your budget.\n" +
-                "You are now in debt by $" + baseCurrency.getFormattedAmount(-remainingBudget) +
+                "You are now in debt by $" + baseCurrency.getFormattedAmount(remainingBudget.negate()) +
+                ". Time to rein it in!\nConsider adjusting your budget to get back on track!";
+    }
+
+    /**
+     * Adds several expenses at once. Rows are separated by ';' and the fields of a row by ','.
+     * Each row is {@code NAME, AMOUNT} or {@code NAME, AMOUNT, CATEGORY}, where the category may be a currency code
+     * as in {@link #handleAddExpense(String, double, String)}. No expense is added if any row is invalid.
+     *
+     * @param rowsStr the rows of expenses
+     * @return a message confirming the additions and updated budget status
+     * @throws InvalidArgumentException if any row is invalid
+     */
+    public String handleAddExpenses(String rowsStr) throws InvalidArgumentException {
+        String[] rows = rowsStr.split(";");
+        ArrayList<Expense> batch = new ArrayList<>(rows.length);
+        Currency baseCurrency = expenseManager.getBaseCurrency();
+        LocalDateTime now = LocalDateTime.now();
+        for (String row : rows) {
+            if (row.isBlank()) {
+                continue;
+            }
+            String[] fields = row.split(",");
+            if (fields.length < 2 || fields.length > 3) {
+                throw new InvalidArgumentException(row.strip(),
+                        "Each row should be EXPENSE_NAME, AMOUNT or EXPENSE_NAME, AMOUNT, CATEGORY.");
+            }
+            String name = fields[0].strip();
+            Money amount = Money.of(Command.parseDoubleValue(fields[1].strip()));
+            String category = fields.length == 3 ? fields[2].strip() : null;
+            Currency currency = parseCurrency(category);
+            if (currency != null) {
+                category = null;
+            }
+            batch.add(new Expense(name, amount, currency == null ? baseCurrency : currency,
+                    category == null ? null : new Category(category), now));
+        }
+        if (batch.isEmpty()) {
+            throw new InvalidArgumentException(rowsStr, "No expenses given.");
+        }
+        expenseManager.addExpenses(batch);
+
+        Money remainingBudget = expenseManager.getRemainingBudgetMoney();
+        String added = "Successfully added " + batch.size() + (batch.size() == 1 ? " expense.\n" : " expenses.\n");
+        if (remainingBudget.signum() >= 0) {
+            return added + "Your remaining budget is " + baseCurrency.getFormattedAmount(remainingBudget) + ".";
+        }
+        return added + "Uh oh! You've exceeded your budget.\n" +
+                "You are now in debt by " + baseCurrency.getFormattedAmount(remainingBudget.negate()) +
                 ". Time to rein it in!\nConsider adjusting your budget to get back on track!";
     }
 
+    /**
+     * Gets the currency a category string names, if any.
+     */
+    private static Currency parseCurrency(String category) {
+        if (category == null) {
+            return null;
+        }
+        try {
+            return Currency.valueOf(category);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Lists all expenses or filters by category.
      *
@@ -230,18 +397,37 @@ public class CommandHandler {
      * @throws InvalidArgumentException if an error occurs retrieving expenses
      */
     public String handleListExpense(String category) throws InvalidArgumentException {
-        List<Expense> expenses = (category == null? expenseManager.getExpenses() :
-                expenseManager.getExpensesByCategory(category));
+        return handleListExpense(category, 0, ExpenseManager.NO_LIMIT);
+    }
+
+    /**
+     * Lists one page of all expenses or of those under a category.
+     *
+     * @param category the category to filter by (null to list all expenses)
+     * @param offset   the number of leading expenses to skip
+     * @param limit    the maximum number of expenses to list
+     * @return a formatted list of expenses and total amount spent
+     * @throws InvalidArgumentException if an error occurs retrieving expenses
+     */
+    public String handleListExpense(String category, int offset, int limit) throws InvalidArgumentException {
+        List<Expense> expenses = (category == null ? expenseManager.getExpenses(offset, fetchSize(limit)) :
+                expenseManager.getExpensesByCategory(category, offset, fetchSize(limit)));
+        if (expenses.isEmpty() && offset == 0) {
+            return "There are no expenses.";
+        }
+        Money totalAmount = (category == null ? expenseManager.getTotalExpenseMoney() :
+                expenseManager.getCategoryTotalMoney(category));
         StringBuilder expensesString = new StringBuilder();
-        double totalAmount = 0;
-        for (Expense expense : expenses) {
-            expensesString.append("\n - ").append(expense.toString());
-            totalAmount += expense.getAmount();
+        if (expenses.isEmpty()) {
+            // Paged past the last expense of a non-empty list
+            expensesString.append("There are no expenses at offset ").append(offset).append('.');
+        } else {
+            expensesString.append("Here is a list of your past expenses: ");
+            appendPage(expensesString, expenses, offset, limit);
         }
-        expensesString.append("\nTotal amount spent: ")
-                .append(expenseManager.getBaseCurrency().getFormattedAmount(totalAmount)).append(".");
-        return expenses.isEmpty() ? "There are no expenses." : "Here is a list of your past expenses: "
-                + expensesString;
+        expenseManager.getBaseCurrency().appendFormattedAmount(expensesString.append("\nTotal amount spent: "),
+                totalAmount).append(".");
+        return expensesString.toString();
     }
 
     /**
@@ -266,6 +452,64 @@ public class CommandHandler {
         return "Minimum expense: " + minExpense.toString();
     }
 
+    /**
+     * Lists the expenses with the highest amounts.
+     *
+     * @param count the maximum number of expenses to list
+     * @return a message listing the expenses in descending order of amount
+     */
+    public String handleTopExpense(int count) {
+        List<Expense> expenses = expenseManager.getTopExpenses(count);
+        if (expenses.isEmpty()) {
+            return "There are no expenses.";
+        }
+        StringBuilder sb = new StringBuilder("Top " + expenses.size() + " expenses:");
+        for (Expense expense : expenses) {
+            expense.appendTo(sb.append("\n - "));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Retrieves the expense at a percentile of amounts.
+     *
+     * @param percentile the percentile, more than 0 and no more than 100
+     * @return a message containing the expense details
+     * @throws InvalidArgumentException if no expenses are recorded or the percentile is out of range
+     */
+    public String handlePercentileExpense(double percentile) throws InvalidArgumentException {
+        Expense expense = expenseManager.getPercentileExpense(percentile);
+        StringBuilder sb = new StringBuilder("Expense at percentile ");
+        Money.appendRounded(sb, percentile).append(": ");
+        return expense.appendTo(sb).toString();
+    }
+
+    /**
+     * Filters and lists all expenses with amounts between two specified values.
+     *
+     * @param min the lower bound of the amount, inclusive
+     * @param max the upper bound of the amount, inclusive
+     * @return a formatted message listing filtered expenses or an appropriate message if none found
+     * @throws InvalidArgumentException if the lower bound exceeds the upper bound
+     */
+    public String handleFilterExpenseByAmountRange(double min, double max) throws InvalidArgumentException {
+        if (min > max) {
+            throw new InvalidArgumentException(Double.toString(min),
+                    "Lower bound should be no more than upper bound.");
+        }
+        Currency baseCurrency = expenseManager.getBaseCurrency();
+        String rangeString = baseCurrency.getFormattedAmount(min) + " and " + baseCurrency.getFormattedAmount(max);
+        List<Expense> filteredExpenses = expenseManager.getExpensesByAmountRange(min, max);
+        if (filteredExpenses.isEmpty()) {
+            return "No expenses found with amounts between " + rangeString + ".";
+        }
+        StringBuilder sb = new StringBuilder("Expenses with amounts between " + rangeString + ":");
+        for (Expense expense : filteredExpenses) {
+            expense.appendTo(sb.append("\n - "));
+        }
+        return sb.toString();
+    }
+
     /**
      * Filters and lists all expenses between two specified date-time values.
      *
@@ -277,23 +521,70 @@ public class CommandHandler {
      */
     public String handleFilterExpenseByDateRange(String startStr, String endStr)
             throws DateTimeParseException, InvalidArgumentException {
+        return handleFilterExpenseByDateRange(startStr, endStr, 0, ExpenseManager.NO_LIMIT);
+    }
+
+    /**
+     * Lists one page of the expenses between two specified date-time values.
+     *
+     * @param startStr the start date-time string in format yyyy-MM-dd HH:mm:ss
+     * @param endStr   the end date-time string in format yyyy-MM-dd HH:mm:ss
+     * @param offset   the number of leading expenses to skip
+     * @param limit    the maximum number of expenses to list
+     * @return a formatted message listing filtered expenses or an appropriate message if none found
+     * @throws DateTimeParseException      if either start or end date-time strings are invalid
+     */
+    public String handleFilterExpenseByDateRange(String startStr, String endStr, int offset, int limit)
+            throws DateTimeParseException {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
         LocalDateTime start = LocalDateTime.parse(startStr, formatter);
         LocalDateTime end = LocalDateTime.parse(endStr, formatter);
 
-        List<Expense> filteredExpenses = expenseManager.getExpensesByDateRange(start, end);
+        List<Expense> filteredExpenses = expenseManager.getExpensesByDateRange(start, end, offset, fetchSize(limit));
         if (filteredExpenses.isEmpty()) {
             return "No expenses found between " + startStr + " and " + endStr + ".";
         } else {
             StringBuilder sb = new StringBuilder("Expenses between " + startStr + " and " + endStr + ":");
-            for (Expense expense : filteredExpenses) {
-                sb.append("\n - ").append(expense.toString());
-            }
+            appendPage(sb, filteredExpenses, offset, limit);
             return sb.toString();
         }
     }
 
+    /**
+     * Displays spending per period, with a breakdown by category.
+     *
+     * @param periodStr The period length: day, week or month.
+     * @param category  The category to restrict to, or null for all expenses.
+     * @return A string listing the spending of each period.
+     * @throws InvalidArgumentException If the period or category is invalid.
+     */
+    public String handleViewTrend(String periodStr, String category) throws InvalidArgumentException {
+        RollupPeriod period;
+        try {
+            period = RollupPeriod.valueOf(periodStr.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidArgumentException(periodStr, "Period should be one of day, week or month.");
+        }
+        List<PeriodSpending> trend = expenseManager.getSpendingTrend(period, category);
+        if (trend.isEmpty()) {
+            return "There are no expenses.";
+        }
+        Currency baseCurrency = expenseManager.getBaseCurrency();
+        StringBuilder sb = new StringBuilder("Spending by " + period + ":");
+        for (PeriodSpending spending : trend) {
+            sb.append("\n - ").append(spending.getLabel()).append(": ");
+            baseCurrency.appendFormattedAmount(sb, spending.getTotal())
+                    .append(" over ").append(spending.getCount())
+                    .append(spending.getCount() == 1 ? " expense" : " expenses");
+            for (Map.Entry<String, Money> entry : spending.getCategoryTotals().entrySet()) {
+                baseCurrency.appendFormattedAmount(sb.append("\n     ").append(entry.getKey()).append(": "),
+                        entry.getValue());
+            }
+        }
+        return sb.toString();
+    }
+
     /**
      * Displays the current exchange rates of all currencies against the base currency.
      *
@@ -302,15 +593,16 @@ public class CommandHandler {
     public String handleViewCurrency() {
         StringBuilder message = new StringBuilder("The current exchange rate against base currency is: \n");
         Currency baseCurrency = expenseManager.getBaseCurrency();
+        // Read every rate from one snapshot, so that a concurrent rate update cannot mix two tables
+        RateTable rates = RateTable.current();
         for (Currency currency : Currency.values()) {
             if (currency != baseCurrency) {
                 message.append("Rate of ")
                         .append(baseCurrency.toString())
                         .append(" and ")
                         .append(currency.toString())
-                        .append(" is ")
-                        .append(String.format("%.2f", currency.getRate()))
-                        .append("\n");
+                        .append(" is ");
+                Money.appendRounded(message, rates.getRate(baseCurrency, currency)).append("\n");
             }
         }
         return message.toString();
@@ -323,18 +615,80 @@ public class CommandHandler {
      * @return A string listing all matched expenses or a message if no matches are found.
      */
     public String handleSearch(String searchWord) {
-        List<Expense> expenses = expenseManager.getExpensesBySearchword(searchWord);
+        return handleSearch(searchWord, 0, ExpenseManager.NO_LIMIT);
+    }
+
+    /**
+     * Lists one page of the expenses that match the provided search word.
+     *
+     * @param searchWord The word to search for in expense names.
+     * @param offset     The number of leading matches to skip.
+     * @param limit      The maximum number of matches to list.
+     * @return A string listing the matched expenses in the page or a message if no matches are found.
+     */
+    public String handleSearch(String searchWord, int offset, int limit) {
+        List<Expense> expenses = expenseManager.getExpensesBySearchword(searchWord, offset, fetchSize(limit));
         if (expenses.isEmpty()) {
             return "There are no expenses that matched your search word: " + searchWord + ".";
         } else {
             StringBuilder sb = new StringBuilder("Expenses that matched your search word '" + searchWord + "':");
-            for (Expense expense : expenses) {
-                sb.append("\n - ").append(expense.toString());
-            }
+            appendPage(sb, expenses, offset, limit);
             return sb.toString();
         }
     }
 
+    /**
+     * Lists one page of the expenses that pass every filter of a query,
+     * optionally followed by the plan it ran with and the number of expenses it read.
+     *
+     * @param query       the filters to apply
+     * @param isExplained whether to show the plan
+     * @param offset      the number of leading matches to skip
+     * @param limit       the maximum number of matches to list
+     * @return a formatted message listing matched expenses or an appropriate message if none found
+     * @throws InvalidArgumentException if the query category doesn't exist
+     */
+    public String handleQuery(ExpenseQuery query, boolean isExplained, int offset, int limit)
+            throws InvalidArgumentException {
+        QueryResult result = expenseManager.query(query, offset, fetchSize(limit));
+        List<Expense> expenses = result.getExpenses();
+        StringBuilder sb = new StringBuilder();
+        if (expenses.isEmpty()) {
+            sb.append("No expenses matched the query.");
+        } else {
+            sb.append("Expenses that matched the query:");
+            appendPage(sb, expenses, offset, limit);
+        }
+        if (isExplained) {
+            sb.append("\nPlan: ").append(result.getPlan())
+                    .append("\nRows scanned: ").append(result.getRowsScanned());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Gets the number of expenses to fetch for a page: one more than the page holds,
+     * so that {@link #appendPage} can tell whether another page follows.
+     */
+    private static int fetchSize(int limit) {
+        return limit == ExpenseManager.NO_LIMIT ? limit : limit + 1;
+    }
+
+    /**
+     * Appends the expenses of a page fetched with {@link #fetchSize}, followed by a hint if another page follows.
+     */
+    private static void appendPage(StringBuilder sb, List<Expense> fetched, int offset, int limit) {
+        int shown = Math.min(fetched.size(), limit);
+        for (int i = 0; i < shown; i++) {
+            fetched.get(i).appendTo(sb.append("\n - "));
+        }
+        if (fetched.size() > shown) {
+            int nextOffset = offset + shown;
+            sb.append("\nShowing ").append(offset + 1).append(" to ").append(nextOffset)
+                    .append(". Use -o ").append(nextOffset).append(" to see more.");
+        }
+    }
+
     /**
      * Retrieves and displays all user-defined expense categories.
      *
@@ -364,7 +718,7 @@ public class CommandHandler {
     }
 
     /**
-     * Sets a new base currency and converts all relevant data (budget, total spent, expenses) accordingly.
+     * Sets a new base currency, which the budget, total spent and expenses are shown in from then on.
      *
      * @param baseCurrency The new base currency as a string (e.g., "USD", "SGD").
      * @return A confirmation message displaying the new base currency.
@@ -378,19 +732,7 @@ public class CommandHandler {
             throw new InvalidArgumentException(baseCurrency, "Base currency is not a valid currency.");
         }
 
-        // change budget
-        double currentBudget = expenseManager.getBudget();
-        expenseManager.setBudget(newBase.convert(currentBudget));
-
-        // change total spent
-        double currentTotalSpent = expenseManager.getTotalExpense();
-        expenseManager.setTotalExpense(newBase.convert(currentTotalSpent));
-
-        // change all expenses
-        for (Expense expense : expenseManager.getExpenses()) {
-            expense.setAmount(newBase.convert(expense.getAmount()));
-        }
-
+        // Amounts are held in one canonical currency, so only the currency they are shown in changes
         expenseManager.setBaseCurrency(newBase);
 
         return "Current base is: " + newBase;
@@ -408,12 +750,7 @@ public class CommandHandler {
             throws DateTimeParseException, InvalidArgumentException {
         LocalDateTime timestamp = LocalDateTime.parse(timestampStr,
                 DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-        for (Expense expense : expenseManager.getExpenses()) {
-            if (expense.getName().equalsIgnoreCase(expenseName)) {
-                expense.setDateTime(timestamp);
-                return "Updated timestamp for \"" + expenseName + "\" to " + timestampStr + ".";
-            }
-        }
-        throw new InvalidArgumentException(expenseName, "Expense name not found.");
+        expenseManager.setExpenseDateTime(expenseName, timestamp);
+        return "Updated timestamp for \"" + expenseName + "\" to " + timestampStr + ".";
     }
 }
@@ -0,0 +1,77 @@
+package seedu.tripbuddy.framework;
+
+import seedu.tripbuddy.dataclass.Currency;
+import seedu.tripbuddy.dataclass.Expense;
+import seedu.tripbuddy.dataclass.Money;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Running subtotals of the amounts of expenses as entered, per currency they were entered in.
+ * Subtotals are kept in minor units in arrays indexed by currency, so every change updates one slot
+ * and reading the breakdown takes time proportional to the number of currencies, not of expenses.
+ */
+class CurrencyLedger {
+
+    private final long[] totals = new long[Currency.values().length];
+    private final int[] counts = new int[Currency.values().length];
+
+    private void apply(Currency currency, Money amount, int sign) {
+        totals[currency.ordinal()] += sign * amount.getMinorUnits();
+        counts[currency.ordinal()] += sign;
+    }
+
+    /**
+     * Adds an expense at its current original amount.
+     *
+     * @param expense Expense to add.
+     */
+    void add(Expense expense) {
+        apply(expense.getOriginalCurrency(), expense.getOriginalMoney(), 1);
+    }
+
+    /**
+     * Removes an expense at its current original amount.
+     *
+     * @param expense Expense to remove.
+     */
+    void remove(Expense expense) {
+        remove(expense.getOriginalCurrency(), expense.getOriginalMoney());
+    }
+
+    /**
+     * Removes an expense as it was before its amount changed.
+     *
+     * @param currency Currency it was added in.
+     * @param amount   Amount it was added with, in that currency.
+     */
+    void remove(Currency currency, Money amount) {
+        apply(currency, amount, -1);
+    }
+
+    /**
+     * Removes all expenses.
+     */
+    void clear() {
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = 0;
+            counts[i] = 0;
+        }
+    }
+
+    /**
+     * Gets the subtotal of every currency that has expenses.
+     *
+     * @return Currency to the sum of the amounts entered in it, in the order of {@link Currency}.
+     */
+    Map<Currency, Money> getSubtotals() {
+        EnumMap<Currency, Money> subtotals = new EnumMap<>(Currency.class);
+        for (Currency currency : Currency.values()) {
+            if (counts[currency.ordinal()] > 0) {
+                subtotals.put(currency, Money.ofMinorUnits(totals[currency.ordinal()]));
+            }
+        }
+        return subtotals;
+    }
+}
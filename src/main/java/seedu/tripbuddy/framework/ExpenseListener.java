@@ -0,0 +1,35 @@
+package seedu.tripbuddy.framework;
+
+import seedu.tripbuddy.dataclass.ExpenseEvent;
+
+import java.util.List;
+
+/**
+ * Receives the changes to the expenses of an {@link ExpenseManager}, so that a view derived from them
+ * can be kept up to date incrementally instead of being recomputed.
+ * Events are delivered on the mutating thread while the write lock of the manager is held,
+ * after the change has been made and in the order the changes were made.
+ * A listener must therefore be quick, must not throw, and must not call back into the manager.
+ */
+@FunctionalInterface
+public interface ExpenseListener {
+
+    /**
+     * Called after a single change.
+     *
+     * @param event The change.
+     */
+    void onEvent(ExpenseEvent event);
+
+    /**
+     * Called after a bulk operation with all of its changes, such as adding or deleting many expenses at once.
+     * Listeners that can apply a batch faster than one change at a time may override this.
+     *
+     * @param events The changes, in order.
+     */
+    default void onEvents(List<ExpenseEvent> events) {
+        for (ExpenseEvent event : events) {
+            onEvent(event);
+        }
+    }
+}
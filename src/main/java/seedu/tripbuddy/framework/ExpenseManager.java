@@ -3,31 +3,262 @@ package seedu.tripbuddy.framework;
 import org.json.JSONException;
 import org.json.JSONObject;
 import seedu.tripbuddy.command.Command;
+import seedu.tripbuddy.dataclass.Category;
 import seedu.tripbuddy.dataclass.Currency;
 import seedu.tripbuddy.dataclass.Expense;
+import seedu.tripbuddy.dataclass.ExpenseEvent;
+import seedu.tripbuddy.dataclass.ExpenseObserver;
+import seedu.tripbuddy.dataclass.Money;
+import seedu.tripbuddy.dataclass.PeriodSpending;
+import seedu.tripbuddy.dataclass.RateHistory;
+import seedu.tripbuddy.dataclass.RollupPeriod;
 import seedu.tripbuddy.exception.InvalidArgumentException;
 
+import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Has CRUD access to all user data.
+ * Safe for concurrent use: mutations hold the write lock of a {@link StampedLock}, queries hold its read lock,
+ * and the budget, total and snapshot reads behind the view and list paths are optimistic and lock-free.
+ * Every change to the expenses, including those made through their setters, is published as an
+ * {@link ExpenseEvent}; the indexes and totals are maintained by the first subscriber.
+ * Amounts are held in canonical units ({@link Currency#CANONICAL_SCALE}) and converted into the base currency
+ * only as they are read, so amounts passed in and returned are in the base currency, and changing it rewrites nothing.
  */
 public class ExpenseManager {
 
     public static final int DEFAULT_BUDGET = 1000;
+    /** Page size that returns every match. */
+    public static final int NO_LIMIT = Integer.MAX_VALUE;
 
     private static ExpenseManager instance = null;
 
-    private Currency baseCurrency;
-    private double budget;
-    private double totalExpense;
-    private final HashSet<String> categories = new HashSet<>();
-    private final ArrayList<Expense> expenses = new ArrayList<>();
-    private final HashSet<String> expenseNames = new HashSet<>();
+    /** Currency amounts are shown in. Replacing it is all a change of base currency takes. */
+    private volatile Currency baseCurrency;
+    /** Budget in canonical units. */
+    private Money budget;
+    /**
+     * Total amount spent in canonical minor units, so that it stays exact and is updated and read atomically.
+     */
+    private final AtomicLong totalMinorUnits = new AtomicLong();
+    /** Category names interned into entries shared by their expenses. */
+    private final CategoryDictionary categories = new CategoryDictionary();
+    /** Category entry id to the expenses bound to that entry, with their running total. */
+    private final ArrayList<CategoryBucket> categoryBuckets = new ArrayList<>();
+    /** All expenses in insertion order. */
+    private ExpenseStore expenses = new ListExpenseStore();
+    /** Case-folded expense name to expense, so that name lookups do not scan {@code expenses}. */
+    private HashMap<String, Expense> expensesByName = new HashMap<>();
+    /** Expenses ordered by timestamp, for date range queries. */
+    private final TimeIndex timeIndex = new TimeIndex();
+    /** Expenses ordered by amount, for max, min, rank and amount range queries. */
+    private final AmountIndex amountIndex = new AmountIndex();
+    /** Trigrams of case-folded expense names, for substring search. */
+    private final TrigramIndex trigramIndex = new TrigramIndex();
+    /** Spending per day, week and month, for trend queries. */
+    private final SpendingRollup spendingRollup = new SpendingRollup();
+    /** Spending per currency the amounts were entered in. */
+    private final CurrencyLedger currencyLedger = new CurrencyLedger();
+    private final IndexUpdater indexUpdater = new IndexUpdater();
+    /** Subscribers to changes to the expenses, starting with {@code indexUpdater}. */
+    private final CopyOnWriteArrayList<ExpenseListener> listeners = new CopyOnWriteArrayList<>();
+    private final StampedLock lock = new StampedLock();
+    /**
+     * Thread holding the write lock, so that setter callbacks made while it is held do not lock again.
+     * Only ever equal to the current thread if that thread set it, so it needs no synchronization.
+     */
+    private Thread writer = null;
+
+    /**
+     * Publishes the setter calls on owned expenses as change events, and keeps the indexes and totals
+     * up to date from every change event. It is the first listener, so later ones see current indexes.
+     */
+    private class IndexUpdater implements ExpenseObserver, ExpenseListener {
+
+        @Override
+        public Currency getBaseCurrency() {
+            return baseCurrency;
+        }
+
+        @Override
+        public Category bindCategory(Category category) {
+            assert writer == Thread.currentThread() : "Setters run under the write lock";
+            return categories.owns(category) ? category : internCategory(category.getName());
+        }
+
+        @Override
+        public boolean runLocked(BooleanSupplier change) {
+            boolean isNested = writer == Thread.currentThread();
+            long stamp = isNested ? 0 : lockWrite();
+            try {
+                return change.getAsBoolean();
+            } finally {
+                if (!isNested) {
+                    unlockWrite(stamp);
+                }
+            }
+        }
+
+        @Override
+        public void checkName(Expense expense, String name) {
+            Expense holder = expensesByName.get(toNameKey(name));
+            if (holder != null && holder != expense) {
+                throw new IllegalArgumentException("Expense name already exists: " + name);
+            }
+        }
+
+        @Override
+        public void onNameChanged(Expense expense, String oldName) {
+            publishFromSetter(ExpenseEvent.renamed(expense, oldName));
+        }
+
+        @Override
+        public void onCategoryChanged(Expense expense, Category oldCategory) {
+            publishFromSetter(ExpenseEvent.recategorized(expense, oldCategory));
+        }
+
+        @Override
+        public void onDateTimeChanged(Expense expense, LocalDateTime oldDateTime) {
+            publishFromSetter(ExpenseEvent.retimed(expense, oldDateTime));
+        }
+
+        @Override
+        public void onAmountChanged(Expense expense, Money oldAmount, Currency oldCurrency, Money oldOriginalAmount) {
+            publishFromSetter(ExpenseEvent.revalued(expense, oldAmount, oldCurrency, oldOriginalAmount));
+        }
+
+        /**
+         * Publishes a change made through a setter, which holds the write lock through {@link #runLocked}.
+         */
+        private void publishFromSetter(ExpenseEvent event) {
+            assert writer == Thread.currentThread() : "Setters run under the write lock";
+            publish(event);
+        }
+
+        @Override
+        public void onEvent(ExpenseEvent event) {
+            Expense expense = event.getExpense();
+            switch (event.getType()) {
+            case ADDED -> {
+                registerExpense(expense);
+                addToTotal(expense.getCanonicalMoney().getMinorUnits());
+            }
+            case REMOVED -> {
+                unregisterExpense(expense);
+                addToTotal(-expense.getCanonicalMoney().getMinorUnits());
+            }
+            case RECATEGORIZED -> updateCategory(expense, event.getOldCategory());
+            case RETIMED -> updateDateTime(expense, event.getOldDateTime());
+            case REVALUED -> updateAmount(expense, event.getOldAmount(), event.getOldCurrency(),
+                    event.getOldOriginalAmount());
+            case RENAMED -> updateName(expense, event.getOldName());
+            case CLEARED -> clearIndexes();
+            }
+        }
+
+        @Override
+        public void onEvents(List<ExpenseEvent> events) {
+            ExpenseEvent.Type type = events.get(0).getType();
+            for (ExpenseEvent event : events) {
+                if (event.getType() != type) {
+                    ExpenseListener.super.onEvents(events);
+                    return;
+                }
+            }
+            if (type == ExpenseEvent.Type.ADDED && events.size() > expensesByName.size()) {
+                // Rehashing once here is cheaper than doubling the table repeatedly while indexing
+                HashMap<String, Expense> resized = new HashMap<>((int) (expenses.size() / 0.75f) + 1);
+                resized.putAll(expensesByName);
+                expensesByName = resized;
+            }
+            if (type == ExpenseEvent.Type.REMOVED && events.size() > expenses.size()) {
+                // Most expenses are gone, such as after clearing out a bad import,
+                // so rebuilding from the rest is cheaper than removing each one from every index
+                long sum = 0;
+                for (ExpenseEvent event : events) {
+                    event.getExpense().setObserver(null);
+                    sum += event.getExpense().getCanonicalMoney().getMinorUnits();
+                }
+                reindexAll();
+                addToTotal(-sum);
+                return;
+            }
+            ExpenseListener.super.onEvents(events);
+        }
+
+        private void updateCategory(Expense expense, Category oldCategory) {
+            if (oldCategory != null) {
+                getCategoryBucket(oldCategory).remove(expense);
+            }
+            spendingRollup.remove(expense.getDateTime(), expense.getCanonicalMoney(), oldCategory);
+            if (expense.getCategoryEntry() != null) {
+                getCategoryBucket(expense.getCategoryEntry()).add(expense);
+            }
+            spendingRollup.add(expense);
+            expenses.update(expense);
+        }
+
+        private void updateDateTime(Expense expense, LocalDateTime oldDateTime) {
+            expenses.update(expense);
+            timeIndex.reposition(expense, oldDateTime);
+            spendingRollup.remove(oldDateTime, expense.getCanonicalMoney(), expense.getCategoryEntry());
+            spendingRollup.add(expense);
+        }
+
+        private void updateAmount(Expense expense, Money oldAmount, Currency oldCurrency, Money oldOriginalAmount) {
+            Money newAmount = expense.getCanonicalMoney();
+            currencyLedger.remove(oldCurrency, oldOriginalAmount);
+            currencyLedger.add(expense);
+            expenses.update(expense);
+            amountIndex.reposition(expense);
+            if (expense.getCategoryEntry() != null) {
+                getCategoryBucket(expense.getCategoryEntry()).updateAmount(oldAmount, newAmount);
+            }
+            spendingRollup.remove(expense.getDateTime(), oldAmount, expense.getCategoryEntry());
+            spendingRollup.add(expense);
+            addToTotal(newAmount.getMinorUnits() - oldAmount.getMinorUnits());
+        }
+
+        private void updateName(Expense expense, String oldName) {
+            String oldKey = toNameKey(oldName);
+            String newKey = toNameKey(expense.getName());
+            if (!oldKey.equals(newKey)) {
+                expensesByName.remove(oldKey, expense);
+                Expense previous = expensesByName.put(newKey, expense);
+                assert previous == null : "Names are checked by checkName before they change";
+                trigramIndex.remove(expense, oldName);
+                trigramIndex.add(expense);
+            }
+            expenses.update(expense);
+        }
+
+        private void clearIndexes() {
+            expensesByName.clear();
+            for (CategoryBucket bucket : categoryBuckets) {
+                bucket.clear();
+            }
+            timeIndex.clear();
+            amountIndex.clear();
+            trigramIndex.clear();
+            spendingRollup.clear();
+            currencyLedger.clear();
+            totalMinorUnits.set(0);
+        }
+    }
 
     /**
      * Private constructor for singleton pattern. Initializes with a given budget.
@@ -36,9 +267,9 @@ public class ExpenseManager {
      */
     private ExpenseManager(double budget) {
         assert budget > 0 : "Budget must be positive";
-        this.budget = budget;
-        this.totalExpense = 0;
-        this.baseCurrency = Currency.SGD;
+        this.baseCurrency = Currency.DEFAULT_BASE;
+        this.budget = baseCurrency.toCanonical(Money.of(budget));
+        listeners.add(indexUpdater);
         clearExpensesAndCategories();
     }
 
@@ -47,20 +278,29 @@ public class ExpenseManager {
      *
      * @return The singleton instance of {@code ExpenseManager}.
      */
-    public static ExpenseManager getInstance() {
+    public static synchronized ExpenseManager getInstance() {
         if (instance == null) {
             instance = new ExpenseManager(DEFAULT_BUDGET);
         }
         return instance;
     }
 
+    /**
+     * Creates a manager independent of the singleton, so that one process can hold several trips.
+     *
+     * @return A new {@code ExpenseManager} with the default budget.
+     */
+    public static ExpenseManager createTrip() {
+        return new ExpenseManager(DEFAULT_BUDGET);
+    }
+
     /**
      * Gets a singleton instance and sets the budget to the given value.
      *
      * @param budget The budget to initialize with.
      * @return The singleton instance of {@code ExpenseManager}.
      */
-    public static ExpenseManager getInstance(double budget) {
+    public static synchronized ExpenseManager getInstance(double budget) {
         if (instance == null) {
             instance = new ExpenseManager(budget);
         }
@@ -68,6 +308,46 @@ public class ExpenseManager {
         return instance;
     }
 
+    /**
+     * Subscribes to changes to the expenses. The listener receives every change made from then on,
+     * including those made through the setters of the expenses, after the indexes have been updated.
+     *
+     * @param listener The listener to add.
+     */
+    public void subscribe(ExpenseListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stops delivering changes to a listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void unsubscribe(ExpenseListener listener) {
+        if (listener != indexUpdater) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Moves all expenses into another backing store, which is used from then on.
+     *
+     * @param store An empty {@link ExpenseStore}.
+     */
+    public void setStore(ExpenseStore store) {
+        assert store.isEmpty() : "New store must be empty";
+        long stamp = lockWrite();
+        try {
+            for (Expense expense : expenses) {
+                store.add(expense);
+            }
+            expenses.clear();
+            expenses = store;
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
     /**
      * Gets the current base currency.
      *
@@ -78,13 +358,18 @@ public class ExpenseManager {
     }
 
     /**
-     * Sets the base currency.
+     * Sets the base currency. Amounts are held in canonical units, so none is converted here;
+     * every amount read from then on is shown in the new base currency.
      *
      * @param newBaseCurrency The new base {@link Currency}.
      */
     public void setBaseCurrency(Currency newBaseCurrency) {
-        baseCurrency = newBaseCurrency;
-        Currency.setBaseCurrency(baseCurrency);
+        long stamp = lockWrite();
+        try {
+            baseCurrency = newBaseCurrency;
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
@@ -93,7 +378,16 @@ public class ExpenseManager {
      * @return The current budget amount.
      */
     public double getBudget() {
-        return budget;
+        return getBudgetMoney().toDouble();
+    }
+
+    /**
+     * Gets the current budget exactly.
+     *
+     * @return The current budget amount.
+     */
+    public Money getBudgetMoney() {
+        return readOptimistically(() -> baseCurrency.fromCanonical(budget));
     }
 
     /**
@@ -102,16 +396,51 @@ public class ExpenseManager {
      * @return Total expense amount.
      */
     public double getTotalExpense() {
-        return totalExpense;
+        return getTotalExpenseMoney().toDouble();
     }
 
     /**
-     * Sets the total amount spent.
+     * Gets the total amount spent exactly.
+     * If the rates against the base currency changed over time, every expense is re-valued at the rates
+     * in force at its timestamp, in one pass over the store.
+     *
+     * @return Total expense amount.
+     */
+    public Money getTotalExpenseMoney() {
+        RateHistory history = RateHistory.current();
+        Currency currency = baseCurrency;
+        if (history.isFixedAgainstCanonical(currency)) {
+            return currency.fromCanonical(Money.ofMinorUnits(totalMinorUnits.get()));
+        }
+        long stamp = lock.readLock();
+        try {
+            return expenses.sumAmounts(currency, history);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Sets the total amount spent, rounded to the nearest minor unit.
      *
      * @param totalExpense New total expense value.
      */
     public void setTotalExpense(double totalExpense) {
-        this.totalExpense = totalExpense;
+        setTotalExpense(Money.of(totalExpense));
+    }
+
+    /**
+     * Sets the total amount spent exactly.
+     *
+     * @param totalExpense New total expense value.
+     */
+    public void setTotalExpense(Money totalExpense) {
+        long stamp = lockWrite();
+        try {
+            totalMinorUnits.set(baseCurrency.toCanonical(totalExpense).getMinorUnits());
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
@@ -120,7 +449,57 @@ public class ExpenseManager {
      * @return Budget remaining after subtracting total expenses.
      */
     public double getRemainingBudget() {
-        return budget - totalExpense;
+        return getRemainingBudgetMoney().toDouble();
+    }
+
+    /**
+     * Gets the remaining budget exactly.
+     *
+     * @return Budget remaining after subtracting total expenses.
+     */
+    public Money getRemainingBudgetMoney() {
+        if (!RateHistory.current().isFixedAgainstCanonical(baseCurrency)) {
+            // Expenses are each valued at their own time, while the budget is valued at the current rates
+            return getBudgetMoney().minus(getTotalExpenseMoney());
+        }
+        // Subtracted before converting, so that the remainder is rounded once
+        return readOptimistically(() -> baseCurrency.fromCanonical(
+                budget.minus(Money.ofMinorUnits(totalMinorUnits.get()))));
+    }
+
+    /**
+     * Gets the amount spent in each currency that expenses were entered in, as entered.
+     *
+     * @return Currency to the sum of the amounts entered in it, in the order of {@link Currency}.
+     */
+    public Map<Currency, Money> getSpendingByCurrency() {
+        long stamp = lock.readLock();
+        try {
+            return currencyLedger.getSubtotals();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Converts the amount of every expense, as entered, at the rates now in force for its timestamp,
+     * such as after the rates were reloaded. Expenses whose value did not change are left untouched.
+     *
+     * @return Number of expenses whose value changed.
+     */
+    public int revalueExpenses() {
+        long stamp = lockWrite();
+        try {
+            int revalued = 0;
+            for (Expense expense : expenses.toList()) {
+                if (expense.revalue()) {
+                    revalued++;
+                }
+            }
+            return revalued;
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
@@ -129,36 +508,90 @@ public class ExpenseManager {
      * @return A list of categories.
      */
     public List<String> getCategories() {
-        return categories.stream().toList();
+        long stamp = lock.readLock();
+        try {
+            return categories.getNames();
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     /**
      * Gets a list of all recorded expenses.
      *
-     * @return A copy of the expense list.
+     * @return An immutable snapshot of the expense list.
      */
     public List<Expense> getExpenses() {
-        return List.copyOf(expenses);
+        return readOptimistically(() -> expenses.toList());
+    }
+
+    /**
+     * Passes every recorded expense, in order, to an action without copying the list.
+     * The expenses cannot change until the action returns for the last one.
+     *
+     * @param action Action to run on each expense.
+     */
+    public void forEachExpense(Consumer<Expense> action) {
+        long stamp = lock.readLock();
+        try {
+            expenses.scan(expense -> {
+                action.accept(expense);
+                return true;
+            });
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets one page of the recorded expenses, reading the store only up to the end of the page.
+     *
+     * @param offset Number of leading expenses to skip.
+     * @param limit  Maximum number of expenses to return, or {@link #NO_LIMIT}.
+     * @return The expenses in the page, in insertion order.
+     */
+    public List<Expense> getExpenses(int offset, int limit) {
+        long stamp = lock.readLock();
+        try {
+            PageCollector page = new PageCollector(offset, limit);
+            expenses.scan(page::offer);
+            return page.getItems();
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     /**
      * Clears all expenses and categories while retaining budget and currency.
      */
     public void clearExpensesAndCategories() {
-        expenses.clear();
-        categories.clear();
-        expenseNames.clear();
-        totalExpense = 0;
+        long stamp = lockWrite();
+        try {
+            for (Expense expense : expenses) {
+                expense.setObserver(null);
+            }
+            expenses.clear();
+            publish(ExpenseEvent.cleared());
+            categories.clear();
+            categoryBuckets.clear();
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
-     * Sets the user-defined budget.
+     * Sets the user-defined budget, rounded to the nearest minor unit.
      *
      * @param budget The budget amount to set.
      */
     public void setBudget(double budget) {
         assert budget > 0 : "Budget must be positive";
-        this.budget = budget;
+        long stamp = lockWrite();
+        try {
+            this.budget = baseCurrency.toCanonical(Money.of(budget));
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
@@ -168,13 +601,66 @@ public class ExpenseManager {
      * @throws InvalidArgumentException If the name is empty or already exists.
      */
     public void createCategory(String categoryName) throws InvalidArgumentException {
-        if (categoryName.isEmpty()) {
-            throw new InvalidArgumentException("", "Category name should not be empty.");
+        long stamp = lockWrite();
+        try {
+            if (categoryName.isEmpty()) {
+                throw new InvalidArgumentException("", "Category name should not be empty.");
+            }
+            if (categories.contains(categoryName)) {
+                throw new InvalidArgumentException(categoryName, "Category name already exists.");
+            }
+            internCategory(categoryName);
+        } finally {
+            unlockWrite(stamp);
         }
-        if (categories.contains(categoryName)) {
-            throw new InvalidArgumentException(categoryName, "Category name already exists.");
+    }
+
+    /**
+     * Renames a category. Only the dictionary entry changes; every expense under it follows.
+     *
+     * @param oldName Existing category name.
+     * @param newName New category name.
+     * @throws InvalidArgumentException If the old name doesn't exist, or the new name is empty or already exists.
+     */
+    public void renameCategory(String oldName, String newName) throws InvalidArgumentException {
+        long stamp = lockWrite();
+        try {
+            if (!categories.contains(oldName)) {
+                throw new InvalidArgumentException(oldName, "Category name not found.");
+            }
+            if (newName.isEmpty()) {
+                throw new InvalidArgumentException("", "Category name should not be empty.");
+            }
+            if (categories.contains(newName)) {
+                throw new InvalidArgumentException(newName, "Category name already exists.");
+            }
+            categories.rename(oldName, newName);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Merges one category into another. Only the dictionary entries and the category totals change;
+     * every expense under the source category is reported under the target from then on.
+     *
+     * @param source Category name to merge away.
+     * @param target Category name to merge into.
+     * @throws InvalidArgumentException If either category doesn't exist, or they are the same.
+     */
+    public void mergeCategory(String source, String target) throws InvalidArgumentException {
+        long stamp = lockWrite();
+        try {
+            CategoryBucket sourceBucket = getCategoryBucket(source);
+            CategoryBucket targetBucket = getCategoryBucket(target);
+            if (source.equals(target)) {
+                throw new InvalidArgumentException(target, "Cannot merge a category into itself.");
+            }
+            categories.merge(source, target);
+            sourceBucket.mergeInto(targetBucket);
+        } finally {
+            unlockWrite(stamp);
         }
-        categories.add(categoryName);
     }
 
     /**
@@ -186,16 +672,19 @@ public class ExpenseManager {
      */
     public void addExpense(String name, double amount) throws InvalidArgumentException {
         assert amount > 0 : "Amount must be positive";
-        if (name.isEmpty()) {
-            throw new InvalidArgumentException("", "Expense name should not be empty.");
-        }
-        if (expenseNames.contains(name)) {
-            throw new InvalidArgumentException(name, "Expense name already exists.");
+        long stamp = lockWrite();
+        try {
+            if (name.isEmpty()) {
+                throw new InvalidArgumentException("", "Expense name should not be empty.");
+            }
+            if (expensesByName.containsKey(toNameKey(name))) {
+                throw new InvalidArgumentException(name, "Expense name already exists.");
+            }
+            Expense expense = new Expense(name, Money.of(amount), baseCurrency, null);
+            appendExpense(expense);
+        } finally {
+            unlockWrite(stamp);
         }
-        Expense expense = new Expense(name, amount);
-        expenses.add(expense);
-        expenseNames.add(name);
-        totalExpense += amount;
     }
 
     /**
@@ -208,54 +697,116 @@ public class ExpenseManager {
      */
     public void addExpense(String name, double amount, String categoryName) throws InvalidArgumentException {
         assert amount > 0 : "Amount must be positive";
-        if (name.isEmpty()) {
-            throw new InvalidArgumentException("", "Expense name should not be empty.");
-        }
-        if (expenseNames.contains(name)) {
-            throw new InvalidArgumentException(name, "Expense name already exists.");
-        }
-        if (!categories.contains(categoryName)) {
-            createCategory(categoryName);
+        long stamp = lockWrite();
+        try {
+            if (name.isEmpty()) {
+                throw new InvalidArgumentException("", "Expense name should not be empty.");
+            }
+            if (expensesByName.containsKey(toNameKey(name))) {
+                throw new InvalidArgumentException(name, "Expense name already exists.");
+            }
+            if (categoryName.isEmpty()) {
+                throw new InvalidArgumentException("", "Category name should not be empty.");
+            }
+            Expense expense = new Expense(name, Money.of(amount), baseCurrency, internCategory(categoryName));
+            appendExpense(expense);
+        } finally {
+            unlockWrite(stamp);
         }
-        Expense expense = new Expense(name, amount, categoryName);
-        expenses.add(expense);
-        expenseNames.add(name);
-        totalExpense += amount;
     }
 
     /**
-     * Adds a new expense from a JSON object.
+     * Adds a new expense from a JSON object, with the amount in the base currency.
      *
      * @param expObj JSON object representing an expense.
      * @throws JSONException If any data is invalid or duplicate.
      */
     public void addExpense(JSONObject expObj) throws JSONException {
-        Expense expense = Expense.fromJSON(expObj);
-        String name = expense.getName();
-        if (name.isEmpty()) {
-            throw new JSONException("Expense name should not be empty.");
-        }
-        if (expenseNames.contains(name)) {
-            throw new JSONException("Expense \"" + name + "\" already exists. Skipping");
-        }
+        long stamp = lockWrite();
+        try {
+            Expense expense = Expense.fromJSON(expObj, baseCurrency);
+            String name = expense.getName();
+            if (name.isEmpty()) {
+                throw new JSONException("Expense name should not be empty.");
+            }
+            if (expensesByName.containsKey(toNameKey(name))) {
+                throw new JSONException("Expense \"" + name + "\" already exists. Skipping");
+            }
 
-        double amount = expense.getAmount();
-        if (amount <= 0) {
-            throw new JSONException('"' + name + "\": Expense amount should be more than 0.");
-        }
-        if (amount > Command.MAX_INPUT_VAL) {
-            throw new JSONException('"' + name + "\": Expense amount should be no more than " +
-                    Command.MAX_INPUT_VAL);
+            double amount = baseCurrency.fromCanonical(expense.getCanonicalMoney()).toDouble();
+            if (amount <= 0) {
+                throw new JSONException('"' + name + "\": Expense amount should be more than 0.");
+            }
+            if (amount > Command.MAX_INPUT_VAL) {
+                throw new JSONException('"' + name + "\": Expense amount should be no more than " +
+                        Command.MAX_INPUT_VAL);
+            }
+
+            if (expense.getCategoryEntry() != null) {
+                expense.setCategoryEntry(internCategory(expense.getCategory()));
+            }
+            appendExpense(expense);
+        } finally {
+            unlockWrite(stamp);
         }
+    }
 
-        String categoryName = expense.getCategory();
-        if (categoryName != null) {
-            categories.add(categoryName);
+    /**
+     * Adds a batch of expenses atomically: either every expense is added, or none is.
+     * The whole batch is validated in one pass before anything changes, then appended to the store
+     * and published as one batch, so that the name map is sized for the batch up front.
+     * Categories of the expenses are created as needed.
+     *
+     * @param batch Expenses to add, in order. Their categories may be standalone entries.
+     * @throws InvalidArgumentException If a name is empty or duplicate, within the batch or with an existing
+     *                                  expense, an amount is out of range, or a category name is empty.
+     */
+    public void addExpenses(List<Expense> batch) throws InvalidArgumentException {
+        long stamp = lockWrite();
+        try {
+            validateBatch(batch);
+            ArrayList<ExpenseEvent> events = new ArrayList<>(batch.size());
+            for (Expense expense : batch) {
+                if (expense.getCategoryEntry() != null) {
+                    expense.setCategoryEntry(internCategory(expense.getCategory()));
+                }
+                events.add(ExpenseEvent.added(expense));
+            }
+            expenses.addAll(batch);
+            publish(events);
+        } finally {
+            unlockWrite(stamp);
         }
+    }
 
-        expenses.add(expense);
-        expenseNames.add(name);
-        totalExpense += amount;
+    /**
+     * Checks every expense of a batch without changing anything.
+     *
+     * @throws InvalidArgumentException At the first invalid expense.
+     */
+    private void validateBatch(List<Expense> batch) throws InvalidArgumentException {
+        Money maxAmount = baseCurrency.toCanonical(Money.of(Command.MAX_INPUT_VAL));
+        HashSet<String> batchNames = new HashSet<>((int) (batch.size() / 0.75f) + 1);
+        for (Expense expense : batch) {
+            String name = expense.getName();
+            if (name.isEmpty()) {
+                throw new InvalidArgumentException("", "Expense name should not be empty.");
+            }
+            String key = toNameKey(name);
+            if (expensesByName.containsKey(key) || !batchNames.add(key)) {
+                throw new InvalidArgumentException(name, "Expense name already exists.");
+            }
+            if (expense.getCanonicalMoney().signum() <= 0) {
+                throw new InvalidArgumentException(name, "Expense amount should be more than 0.");
+            }
+            if (expense.getCanonicalMoney().compareTo(maxAmount) > 0) {
+                throw new InvalidArgumentException(name, "Expense amount should be no more than "
+                        + Command.MAX_INPUT_VAL);
+            }
+            if (expense.getCategoryEntry() != null && expense.getCategory().isEmpty()) {
+                throw new InvalidArgumentException("", "Category name should not be empty.");
+            }
+        }
     }
 
     /**
@@ -266,10 +817,46 @@ public class ExpenseManager {
      * @throws InvalidArgumentException If index is out of bounds.
      */
     public Expense getExpense(int id) throws InvalidArgumentException {
-        if (id < 0 || id >= expenses.size()) {
-            throw new InvalidArgumentException(Integer.toString(id), "id index out of bound");
+        long stamp = lock.readLock();
+        try {
+            if (id < 0 || id >= expenses.size()) {
+                throw new InvalidArgumentException(Integer.toString(id), "id index out of bound");
+            }
+            return expenses.get(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Checks whether an expense with the given name exists, ignoring case.
+     *
+     * @param expenseName Expense name.
+     * @return True if such an expense exists.
+     */
+    public boolean hasExpense(String expenseName) {
+        long stamp = lock.readLock();
+        try {
+            return expensesByName.containsKey(toNameKey(expenseName));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Retrieves an expense by its name, ignoring case.
+     *
+     * @param expenseName Expense name.
+     * @return The expense with the given name.
+     * @throws InvalidArgumentException If expense name does not exist.
+     */
+    public Expense getExpenseByName(String expenseName) throws InvalidArgumentException {
+        long stamp = lock.readLock();
+        try {
+            return findExpense(expenseName);
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return expenses.get(id);
     }
 
     /**
@@ -279,15 +866,40 @@ public class ExpenseManager {
      * @throws InvalidArgumentException If expense name does not exist.
      */
     public void deleteExpense(String expenseName) throws InvalidArgumentException {
-        for (Expense expense : expenses) {
-            if (expense.getName().equalsIgnoreCase(expenseName)) {
-                expenses.remove(expense);
-                expenseNames.remove(expenseName);
-                totalExpense -= expense.getAmount();
-                return;
+        long stamp = lockWrite();
+        try {
+            Expense expense = findExpense(expenseName);
+            expenses.remove(expense);
+            publish(ExpenseEvent.removed(expense));
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Deletes every expense that passes the filters of a query, in one pass over the store.
+     * The expenses are found as by {@link #query}, tombstoned together, and the store compacts at most once.
+     * When most expenses are deleted, such as when clearing out a bad import, the indexes are rebuilt
+     * from the remaining expenses instead of having every deleted expense removed from them.
+     *
+     * @param query The filters to apply.
+     * @return The deleted expenses.
+     * @throws InvalidArgumentException If the query category doesn't exist.
+     */
+    public List<Expense> deleteExpenses(ExpenseQuery query) throws InvalidArgumentException {
+        long stamp = lockWrite();
+        try {
+            List<Expense> deleted = planQuery(query).execute(0, NO_LIMIT).getExpenses();
+            expenses.removeAll(deleted);
+            ArrayList<ExpenseEvent> events = new ArrayList<>(deleted.size());
+            for (Expense expense : deleted) {
+                events.add(ExpenseEvent.removed(expense));
             }
+            publish(events);
+            return deleted;
+        } finally {
+            unlockWrite(stamp);
         }
-        throw new InvalidArgumentException(expenseName, "Expense name not found.");
     }
 
     /**
@@ -298,17 +910,67 @@ public class ExpenseManager {
      * @throws InvalidArgumentException If category doesn't exist.
      */
     public List<Expense> getExpensesByCategory(String category) throws InvalidArgumentException {
-        if (!categories.contains(category)) {
-            throw new InvalidArgumentException(category, "Category name not found.");
+        long stamp = lock.readLock();
+        try {
+            return getCategoryBucket(category).getExpenses();
+        } finally {
+            lock.unlockRead(stamp);
         }
+    }
 
-        ArrayList<Expense> ret = new ArrayList<>();
-        for (Expense expense : expenses) {
-            if (category.equals(expense.getCategory())) {
-                ret.add(expense);
+    /**
+     * Gets one page of the expenses under a specific category.
+     *
+     * @param category Category name.
+     * @param offset   Number of leading expenses to skip.
+     * @param limit    Maximum number of expenses to return, or {@link #NO_LIMIT}.
+     * @return The expenses in the page, in the order of {@link #getExpensesByCategory(String)}.
+     * @throws InvalidArgumentException If category doesn't exist.
+     */
+    public List<Expense> getExpensesByCategory(String category, int offset, int limit)
+            throws InvalidArgumentException {
+        long stamp = lock.readLock();
+        try {
+            return getCategoryBucket(category).getExpenses(offset, limit);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets the total amount spent under a specific category.
+     *
+     * @param category Category name.
+     * @return Sum of the amounts of expenses in that category.
+     * @throws InvalidArgumentException If category doesn't exist.
+     */
+    public double getCategoryTotal(String category) throws InvalidArgumentException {
+        return getCategoryTotalMoney(category).toDouble();
+    }
+
+    /**
+     * Gets the total amount spent under a specific category exactly.
+     *
+     * @param category Category name.
+     * @return Sum of the amounts of expenses in that category.
+     * @throws InvalidArgumentException If category doesn't exist.
+     */
+    public Money getCategoryTotalMoney(String category) throws InvalidArgumentException {
+        long stamp = lock.readLock();
+        try {
+            CategoryBucket bucket = getCategoryBucket(category);
+            if (RateHistory.current().isFixedAgainstCanonical(baseCurrency)) {
+                return baseCurrency.fromCanonical(bucket.getTotal());
             }
+            Money[] total = {Money.ZERO};
+            bucket.scan(expense -> {
+                total[0] = total[0].plus(expense.getMoney());
+                return true;
+            });
+            return total[0];
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return ret;
     }
 
     /**
@@ -319,17 +981,59 @@ public class ExpenseManager {
      * @throws InvalidArgumentException If the expense doesn't exist.
      */
     public void setExpenseCategory(String expenseName, String category) throws InvalidArgumentException {
-        if (expenseName.isEmpty()) {
-            throw new JSONException("Expense name should not be empty.");
+        long stamp = lockWrite();
+        try {
+            if (expenseName.isEmpty()) {
+                throw new JSONException("Expense name should not be empty.");
+            }
+            // The buckets and rollups follow the category through indexUpdater
+            findExpense(expenseName).setCategoryEntry(internCategory(category));
+        } finally {
+            unlockWrite(stamp);
         }
-        for (Expense expense : expenses) {
-            if (expense.getName().equalsIgnoreCase(expenseName)) {
-                expense.setCategory(category);
-                categories.add(category);
-                return;
+    }
+
+    /**
+     * Renames an expense.
+     *
+     * @param oldName Existing expense name.
+     * @param newName New expense name.
+     * @throws InvalidArgumentException If the old name doesn't exist, or the new name is empty
+     *                                  or belongs to another expense.
+     */
+    public void renameExpense(String oldName, String newName) throws InvalidArgumentException {
+        long stamp = lockWrite();
+        try {
+            Expense expense = findExpense(oldName);
+            if (newName.isEmpty()) {
+                throw new InvalidArgumentException("", "Expense name should not be empty.");
+            }
+            Expense holder = expensesByName.get(toNameKey(newName));
+            if (holder != null && holder != expense) {
+                throw new InvalidArgumentException(newName, "Expense name already exists.");
             }
+            // The name index and trigrams follow the name through indexUpdater
+            expense.setName(newName);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Updates the timestamp of an expense.
+     *
+     * @param expenseName Expense name.
+     * @param dateTime    New timestamp to assign.
+     * @throws InvalidArgumentException If the expense doesn't exist.
+     */
+    public void setExpenseDateTime(String expenseName, LocalDateTime dateTime) throws InvalidArgumentException {
+        long stamp = lockWrite();
+        try {
+            Expense expense = findExpense(expenseName);
+            expense.setDateTime(dateTime);
+        } finally {
+            unlockWrite(stamp);
         }
-        throw new InvalidArgumentException(expenseName, "Expense name not found.");
     }
 
     /**
@@ -339,16 +1043,15 @@ public class ExpenseManager {
      * @throws InvalidArgumentException If there are no expenses.
      */
     public Expense getMaxExpense() throws InvalidArgumentException {
-        if (expenses.isEmpty()) {
-            throw new InvalidArgumentException("No expenses available");
-        }
-        Expense maxExpense = expenses.get(0);
-        for (Expense expense : expenses) {
-            if (expense.getAmount() > maxExpense.getAmount()) {
-                maxExpense = expense;
+        long stamp = lock.readLock();
+        try {
+            if (expenses.isEmpty()) {
+                throw new InvalidArgumentException("No expenses available");
             }
+            return amountIndex.getMax();
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return maxExpense;
     }
 
     /**
@@ -358,16 +1061,90 @@ public class ExpenseManager {
      * @throws InvalidArgumentException If there are no expenses.
      */
     public Expense getMinExpense() throws InvalidArgumentException {
-        if (expenses.isEmpty()) {
-            throw new InvalidArgumentException("No expenses available");
+        long stamp = lock.readLock();
+        try {
+            if (expenses.isEmpty()) {
+                throw new InvalidArgumentException("No expenses available");
+            }
+            return amountIndex.getMin();
+        } finally {
+            lock.unlockRead(stamp);
         }
-        Expense minExpense = expenses.get(0);
-        for (Expense expense : expenses) {
-            if (expense.getAmount() < minExpense.getAmount()) {
-                minExpense = expense;
+    }
+
+    /**
+     * Gets the expenses with the highest amounts.
+     *
+     * @param count Maximum number of expenses to return.
+     * @return Up to {@code count} expenses, in descending order of amount.
+     */
+    public List<Expense> getTopExpenses(int count) {
+        assert count > 0 : "Count must be positive";
+        long stamp = lock.readLock();
+        try {
+            return amountIndex.getTop(count);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets the expense at the given percentile of amounts, using the nearest-rank method.
+     * The 50th percentile is the (lower) median.
+     *
+     * @param percentile Percentile in the range (0, 100].
+     * @return The expense at that percentile.
+     * @throws InvalidArgumentException If there are no expenses or the percentile is out of range.
+     */
+    public Expense getPercentileExpense(double percentile) throws InvalidArgumentException {
+        long stamp = lock.readLock();
+        try {
+            if (percentile <= 0 || percentile > 100) {
+                throw new InvalidArgumentException(Double.toString(percentile),
+                        "Percentile should be more than 0 and no more than 100.");
+            }
+            if (expenses.isEmpty()) {
+                throw new InvalidArgumentException("No expenses available");
+            }
+            int size = amountIndex.size();
+            int rank = (int) Math.ceil(percentile / 100 * size);
+            return amountIndex.select(Math.max(1, Math.min(rank, size)) - 1);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets expenses with amounts within the given range.
+     * The amount index orders canonical amounts, so it is only used while they convert at a single rate.
+     *
+     * @param min Lower bound of the amount, inclusive.
+     * @param max Upper bound of the amount, inclusive.
+     * @return List of expenses within the range, in ascending order of amount.
+     */
+    public List<Expense> getExpensesByAmountRange(double min, double max) {
+        long stamp = lock.readLock();
+        try {
+            if (!RateHistory.current().isFixedAgainstCanonical(baseCurrency)) {
+                long minUnits = AmountIndex.toMinorUnits(min, RoundingMode.CEILING);
+                long maxUnits = AmountIndex.toMinorUnits(max, RoundingMode.FLOOR);
+                ArrayList<Expense> ret = new ArrayList<>();
+                expenses.scan(expense -> {
+                    long amount = expense.getMoney().getMinorUnits();
+                    if (amount >= minUnits && amount <= maxUnits) {
+                        ret.add(expense);
+                    }
+                    return true;
+                });
+                ret.sort((a, b) -> a.getMoney().compareTo(b.getMoney()));
+                return ret;
             }
+            return amountIndex.getRange(
+                    baseCurrency.toCanonicalLowerBound(AmountIndex.toMinorUnits(min, RoundingMode.CEILING)),
+                    baseCurrency.toCanonicalUpperBound(AmountIndex.toMinorUnits(max, RoundingMode.FLOOR)));
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return minExpense;
     }
 
     /**
@@ -375,43 +1152,371 @@ public class ExpenseManager {
      *
      * @param start Start datetime.
      * @param end   End datetime.
-     * @return List of expenses within the range.
+     * @return List of expenses within the range, in chronological order.
      */
     public List<Expense> getExpensesByDateRange(LocalDateTime start, LocalDateTime end) {
-        ArrayList<Expense> filteredExpenses = new ArrayList<>();
-        for (Expense expense : expenses) {
-            LocalDateTime expenseDateTime = expense.getDateTime();
-            if ((expenseDateTime.isEqual(start) || expenseDateTime.isAfter(start))
-                    && (expenseDateTime.isEqual(end) || expenseDateTime.isBefore(end))) {
-                filteredExpenses.add(expense);
+        return getExpensesByDateRange(start, end, 0, NO_LIMIT);
+    }
+
+    /**
+     * Gets one page of the expenses within the given date range.
+     *
+     * @param start  Start datetime.
+     * @param end    End datetime.
+     * @param offset Number of leading expenses to skip.
+     * @param limit  Maximum number of expenses to return, or {@link #NO_LIMIT}.
+     * @return The expenses in the page, in chronological order.
+     */
+    public List<Expense> getExpensesByDateRange(LocalDateTime start, LocalDateTime end, int offset, int limit) {
+        long stamp = lock.readLock();
+        try {
+            return timeIndex.getRange(start, end, offset, limit);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets the spending of every period of the given length that has expenses, from the running rollups.
+     * While the rates against the base currency vary over time, the rollups are rebuilt in one pass instead,
+     * with each expense valued at the rates in force at its timestamp.
+     *
+     * @param period   Period length.
+     * @param category Category to restrict to, or null for all expenses.
+     * @return The spending per period, in chronological order.
+     * @throws InvalidArgumentException If the category doesn't exist.
+     */
+    public List<PeriodSpending> getSpendingTrend(RollupPeriod period, String category)
+            throws InvalidArgumentException {
+        long stamp = lock.readLock();
+        try {
+            if (category != null && !categories.contains(category)) {
+                throw new InvalidArgumentException(category, "Category name not found.");
             }
+            if (!RateHistory.current().isFixedAgainstCanonical(baseCurrency)) {
+                return SpendingRollup.revalue(expenses, baseCurrency).getTrend(period, category, baseCurrency);
+            }
+            return spendingRollup.getTrend(period, category, baseCurrency);
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return filteredExpenses;
     }
 
     /**
      * Replaces the current categories with a loaded set.
+     * Every expense is rebound to the new entries, which is published as clearing all expenses
+     * and adding them back.
      *
      * @param loadedCategories Categories to load into memory.
      */
     public void setCategories(Set<String> loadedCategories) {
-        categories.clear();
-        categories.addAll(loadedCategories);
+        long stamp = lockWrite();
+        try {
+            for (Expense expense : expenses) {
+                expense.setObserver(null);
+            }
+            publish(ExpenseEvent.cleared());
+            categories.clear();
+            categoryBuckets.clear();
+            for (String category : loadedCategories) {
+                internCategory(category);
+            }
+            ArrayList<ExpenseEvent> events = new ArrayList<>(expenses.size());
+            for (Expense expense : expenses) {
+                if (expense.getCategoryEntry() != null) {
+                    expense.setCategoryEntry(internCategory(expense.getCategory()));
+                    expenses.update(expense);
+                }
+                events.add(ExpenseEvent.added(expense));
+            }
+            publish(events);
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
-     * Retrieves expenses whose names contain the given search word.
+     * Retrieves expenses whose names contain the given search word, ignoring case.
      *
      * @param searchword The keyword to search in expense names.
-     * @return List of matching expenses.
+     * @return List of matching expenses, in insertion order.
      */
     public List<Expense> getExpensesBySearchword(String searchword) {
-        ArrayList<Expense> matchingExpenses = new ArrayList<>();
-        for (Expense expense : expenses) {
-            if (expense.getName().toLowerCase().contains(searchword.toLowerCase())) {
-                matchingExpenses.add(expense);
+        return getExpensesBySearchword(searchword, 0, NO_LIMIT);
+    }
+
+    /**
+     * Gets one page of the expenses whose names contain the given search word, ignoring case.
+     *
+     * @param searchword The keyword to search in expense names.
+     * @param offset     Number of leading matches to skip.
+     * @param limit      Maximum number of matches to return, or {@link #NO_LIMIT}.
+     * @return The matching expenses in the page, in insertion order.
+     */
+    public List<Expense> getExpensesBySearchword(String searchword, int offset, int limit) {
+        long stamp = lock.readLock();
+        try {
+            if (searchword.length() < TrigramIndex.GRAM_LENGTH) {
+                return expenses.findByNameContaining(searchword, offset, limit);
             }
+            return trigramIndex.search(searchword, offset, limit);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets one page of the expenses that pass every filter of a query.
+     * The query starts from the index expected to yield the fewest expenses,
+     * checks the remaining filters on each expense as it is read, and stops once the page is full.
+     *
+     * @param query  The filters to apply.
+     * @param offset Number of leading matches to skip.
+     * @param limit  Maximum number of matches to return, or {@link #NO_LIMIT}.
+     * @return The matches in the page, in the order of the chosen index, with the plan and the rows it read.
+     * @throws InvalidArgumentException If the query category doesn't exist.
+     */
+    public QueryResult query(ExpenseQuery query, int offset, int limit) throws InvalidArgumentException {
+        long stamp = lock.readLock();
+        try {
+            return planQuery(query).execute(offset, limit);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Chooses the access path with the lowest estimated row count for a query.
+     * Ties go to the earlier candidate, so an index wins over a full scan of the same size.
+     * Must be called under the read or write lock.
+     *
+     * @param query The filters to apply.
+     * @return The chosen plan.
+     * @throws InvalidArgumentException If the query category doesn't exist.
+     */
+    QueryPlan planQuery(ExpenseQuery query) throws InvalidArgumentException {
+        Category category = null;
+        ArrayList<QueryPlan> candidates = new ArrayList<>();
+        if (query.hasCategory()) {
+            category = categories.get(query.getCategory());
+            if (category == null) {
+                throw new InvalidArgumentException(query.getCategory(), "Category name not found.");
+            }
+            CategoryBucket bucket = getCategoryBucket(category);
+            candidates.add(new QueryPlan(query, category, QueryPlan.Access.CATEGORY, bucket.size(), bucket::scan));
+        }
+        if (query.hasDateRange()) {
+            LocalDateTime start = query.getRangeStart();
+            LocalDateTime end = query.getRangeEnd();
+            candidates.add(new QueryPlan(query, category, QueryPlan.Access.DATE,
+                    timeIndex.estimateRange(start, end), visitor -> timeIndex.scan(start, end, visitor)));
+        }
+        // The amount index orders canonical amounts, which only match the order shown at a single rate
+        if (query.hasAmountRange() && RateHistory.current().isFixedAgainstCanonical(baseCurrency)) {
+            long min = baseCurrency.toCanonicalLowerBound(query.getMinMinorUnits());
+            long max = baseCurrency.toCanonicalUpperBound(query.getMaxMinorUnits());
+            candidates.add(new QueryPlan(query, category, QueryPlan.Access.AMOUNT,
+                    amountIndex.countRange(min, max), visitor -> amountIndex.scan(min, max, visitor)));
+        }
+        // Words shorter than a trigram have no posting list to start from
+        if (query.hasNameWord() && query.getNameWord().length() >= TrigramIndex.GRAM_LENGTH) {
+            String word = query.getNameWord();
+            candidates.add(new QueryPlan(query, category, QueryPlan.Access.NAME,
+                    trigramIndex.estimate(word), visitor -> trigramIndex.scan(word, visitor)));
+        }
+        candidates.add(new QueryPlan(query, category, QueryPlan.Access.FULL_SCAN, expenses.size(),
+                expenses::scan));
+
+        QueryPlan best = candidates.get(0);
+        for (QueryPlan candidate : candidates) {
+            if (candidate.getEstimatedRows() < best.getEstimatedRows()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Acquires the write lock and records the current thread as its holder.
+     */
+    private long lockWrite() {
+        long stamp = lock.writeLock();
+        writer = Thread.currentThread();
+        return stamp;
+    }
+
+    /**
+     * Releases the write lock acquired through {@link #lockWrite()}.
+     */
+    private void unlockWrite(long stamp) {
+        writer = null;
+        lock.unlockWrite(stamp);
+    }
+
+    /**
+     * Runs a read without locking, and again under the read lock if a write happened meanwhile.
+     * The reader must only follow fields that are replaced rather than mutated in place,
+     * or tolerate torn state by failing with a runtime exception. Such an exception is only taken for a torn read
+     * if a write did happen meanwhile, and is rethrown otherwise.
+     */
+    private <T> T readOptimistically(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T value = reader.get();
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+                // Torn read during a concurrent write, retried below
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Delivers a change to every listener, starting with {@code indexUpdater}. Must be called under the write lock.
+     */
+    private void publish(ExpenseEvent event) {
+        for (ExpenseListener listener : listeners) {
+            listener.onEvent(event);
+        }
+    }
+
+    /**
+     * Delivers the changes of a bulk operation to every listener at once. Must be called under the write lock.
+     */
+    private void publish(List<ExpenseEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        for (ExpenseListener listener : listeners) {
+            listener.onEvents(events);
+        }
+    }
+
+    /**
+     * Atomically adds a number of minor units to the total amount spent.
+     */
+    private void addToTotal(long delta) {
+        totalMinorUnits.addAndGet(delta);
+    }
+
+    /**
+     * Gets an expense by its name, ignoring case, without locking.
+     *
+     * @throws InvalidArgumentException If expense name does not exist.
+     */
+    private Expense findExpense(String expenseName) throws InvalidArgumentException {
+        Expense expense = expensesByName.get(toNameKey(expenseName));
+        if (expense == null) {
+            throw new InvalidArgumentException(expenseName, "Expense name not found.");
+        }
+        return expense;
+    }
+
+    /**
+     * Folds an expense name into the key used by {@code expensesByName}.
+     * Expense names are unique regardless of case.
+     */
+    private static String toNameKey(String expenseName) {
+        return expenseName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Appends a new expense to {@code expenses} and publishes it.
+     */
+    private void appendExpense(Expense expense) {
+        expenses.add(expense);
+        publish(ExpenseEvent.added(expense));
+    }
+
+    /**
+     * Registers an expense already in {@code expenses} in every index.
+     */
+    private void registerExpense(Expense expense) {
+        expensesByName.put(toNameKey(expense.getName()), expense);
+        if (expense.getCategoryEntry() != null) {
+            getCategoryBucket(expense.getCategoryEntry()).add(expense);
+        }
+        timeIndex.add(expense);
+        amountIndex.add(expense);
+        trigramIndex.add(expense);
+        spendingRollup.add(expense);
+        currencyLedger.add(expense);
+        expense.setObserver(indexUpdater);
+    }
+
+    /**
+     * Rebuilds every index from the expenses in {@code expenses}, keeping categories and their merges.
+     */
+    private void reindexAll() {
+        expensesByName = new HashMap<>();
+        for (CategoryBucket bucket : categoryBuckets) {
+            bucket.clear();
+        }
+        timeIndex.clear();
+        amountIndex.clear();
+        trigramIndex.clear();
+        spendingRollup.clear();
+        currencyLedger.clear();
+        for (Expense expense : expenses) {
+            registerExpense(expense);
+        }
+    }
+
+    /**
+     * Removes an expense already removed from {@code expenses} from every index.
+     */
+    private void unregisterExpense(Expense expense) {
+        expensesByName.remove(toNameKey(expense.getName()));
+        if (expense.getCategoryEntry() != null) {
+            getCategoryBucket(expense.getCategoryEntry()).remove(expense);
+        }
+        timeIndex.remove(expense, expense.getDateTime());
+        amountIndex.remove(expense);
+        trigramIndex.remove(expense);
+        spendingRollup.remove(expense);
+        currencyLedger.remove(expense);
+        expense.setObserver(null);
+    }
+
+    /**
+     * Gets the entry of a category, creating it and its bucket if it has not been seen.
+     */
+    private Category internCategory(String categoryName) {
+        Category entry = categories.intern(categoryName);
+        while (categoryBuckets.size() < categories.entryCount()) {
+            categoryBuckets.add(new CategoryBucket());
+        }
+        return entry;
+    }
+
+    /**
+     * Gets the bucket of the entry an expense is bound to, which may have been merged into another.
+     */
+    private CategoryBucket getCategoryBucket(Category entry) {
+        return categoryBuckets.get(entry.getId());
+    }
+
+    /**
+     * Gets the bucket of a category.
+     *
+     * @throws InvalidArgumentException If category doesn't exist.
+     */
+    private CategoryBucket getCategoryBucket(String category) throws InvalidArgumentException {
+        Category entry = categories.get(category);
+        if (entry == null) {
+            throw new InvalidArgumentException(category, "Category name not found.");
         }
-        return matchingExpenses;
+        return getCategoryBucket(entry);
     }
 }
@@ -0,0 +1,174 @@
+package seedu.tripbuddy.framework;
+
+import seedu.tripbuddy.dataclass.Category;
+import seedu.tripbuddy.dataclass.Expense;
+import seedu.tripbuddy.dataclass.Money;
+import seedu.tripbuddy.exception.InvalidArgumentException;
+
+import java.time.LocalDateTime;
+
+/**
+ * Describes a combination of filters on expenses, all of which must hold for an expense to match.
+ * Every filter is optional, and either end of a range may be left open.
+ * A query without any filter matches every expense.
+ * Amount bounds are in the base currency of the trip the query runs on.
+ */
+public class ExpenseQuery {
+
+    private String category = null;
+    private LocalDateTime start = null;
+    private LocalDateTime end = null;
+    private Money minAmount = null;
+    private Money maxAmount = null;
+    private String nameWord = null;
+
+    /**
+     * Keeps only the expenses under a category.
+     *
+     * @param category Category name.
+     */
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    /**
+     * Keeps only the expenses with timestamps within a range, inclusive.
+     *
+     * @param start Start datetime, or null to leave the range open.
+     * @param end   End datetime, or null to leave the range open.
+     * @throws InvalidArgumentException If the start is after the end.
+     */
+    public void setDateRange(LocalDateTime start, LocalDateTime end) throws InvalidArgumentException {
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new InvalidArgumentException(start.toString(), "Start time should be no later than end time.");
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Keeps only the expenses with amounts within a range, inclusive.
+     *
+     * @param minAmount Lower bound of the amount, or null to leave the range open.
+     * @param maxAmount Upper bound of the amount, or null to leave the range open.
+     * @throws InvalidArgumentException If the lower bound exceeds the upper bound.
+     */
+    public void setAmountRange(Money minAmount, Money maxAmount) throws InvalidArgumentException {
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new InvalidArgumentException(minAmount.toString(),
+                    "Lower bound should be no more than upper bound.");
+        }
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+    }
+
+    /**
+     * Keeps only the expenses whose names contain a word, ignoring case.
+     *
+     * @param nameWord Word to look for.
+     */
+    public void setNameContaining(String nameWord) {
+        this.nameWord = nameWord;
+    }
+
+    /**
+     * Gets the category name, or null if the query has none.
+     */
+    String getCategory() {
+        return category;
+    }
+
+    /**
+     * Gets the word names must contain, or null if the query has none.
+     */
+    String getNameWord() {
+        return nameWord;
+    }
+
+    /**
+     * Checks whether the query filters by category.
+     */
+    boolean hasCategory() {
+        return category != null;
+    }
+
+    /**
+     * Checks whether the query filters by date.
+     */
+    boolean hasDateRange() {
+        return start != null || end != null;
+    }
+
+    /**
+     * Checks whether the query filters by amount.
+     */
+    boolean hasAmountRange() {
+        return minAmount != null || maxAmount != null;
+    }
+
+    /**
+     * Checks whether the query filters by name.
+     */
+    boolean hasNameWord() {
+        return nameWord != null;
+    }
+
+    /**
+     * Gets the start of the date range, with an open end as the earliest datetime.
+     */
+    LocalDateTime getRangeStart() {
+        return start == null ? LocalDateTime.MIN : start;
+    }
+
+    /**
+     * Gets the end of the date range, with an open end as the latest datetime.
+     */
+    LocalDateTime getRangeEnd() {
+        return end == null ? LocalDateTime.MAX : end;
+    }
+
+    /**
+     * Gets the lower bound of the amount range in minor units, with an open end as the lowest value.
+     */
+    long getMinMinorUnits() {
+        return minAmount == null ? Long.MIN_VALUE : minAmount.getMinorUnits();
+    }
+
+    /**
+     * Gets the upper bound of the amount range in minor units, with an open end as the highest value.
+     */
+    long getMaxMinorUnits() {
+        return maxAmount == null ? Long.MAX_VALUE : maxAmount.getMinorUnits();
+    }
+
+    /**
+     * Checks whether an expense is under the category, given the dictionary entry the category resolved to.
+     */
+    static boolean isUnder(Expense expense, Category entry) {
+        Category expenseEntry = expense.getCategoryEntry();
+        return expenseEntry != null && expenseEntry.resolve() == entry.resolve();
+    }
+
+    /**
+     * Checks whether an expense is within the date range.
+     */
+    boolean isInDateRange(Expense expense) {
+        LocalDateTime dateTime = expense.getDateTime();
+        return !dateTime.isBefore(getRangeStart()) && !dateTime.isAfter(getRangeEnd());
+    }
+
+    /**
+     * Checks whether an expense is within the amount range.
+     */
+    boolean isInAmountRange(Expense expense) {
+        long amount = expense.getMoney().getMinorUnits();
+        return amount >= getMinMinorUnits() && amount <= getMaxMinorUnits();
+    }
+
+    /**
+     * Checks whether the name of an expense contains the word, ignoring case.
+     */
+    boolean hasNameWordIn(Expense expense) {
+        return TrigramIndex.containsIgnoreCase(expense.getName(), nameWord);
+    }
+}
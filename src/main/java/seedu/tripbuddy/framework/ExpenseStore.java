@@ -0,0 +1,179 @@
+package seedu.tripbuddy.framework;
+
+import seedu.tripbuddy.dataclass.Currency;
+import seedu.tripbuddy.dataclass.Expense;
+import seedu.tripbuddy.dataclass.Money;
+import seedu.tripbuddy.dataclass.RateHistory;
+import seedu.tripbuddy.dataclass.RateTable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Backing storage for the expenses of an {@link ExpenseManager}, in insertion order.
+ * Implementations decide how the expense data is laid out in memory.
+ *
+ * Removing an expense leaves a tombstone in its row instead of shifting every later row down.
+ * Reads skip tombstones, and a compaction pass reclaims them in one sweep once they make up
+ * more than {@link #MAX_TOMBSTONE_RATIO} of the rows, so removal is amortized O(1).
+ */
+public interface ExpenseStore extends Iterable<Expense> {
+
+    /** Share of tombstoned rows above which a store compacts. */
+    double MAX_TOMBSTONE_RATIO = 0.25;
+
+    /**
+     * Checks whether a store with the given rows should compact.
+     *
+     * @param tombstones Number of tombstoned rows.
+     * @param rows       Number of rows, live or tombstoned.
+     * @return True if tombstones make up more than {@link #MAX_TOMBSTONE_RATIO} of the rows.
+     */
+    static boolean needsCompaction(int tombstones, int rows) {
+        return tombstones > rows * MAX_TOMBSTONE_RATIO;
+    }
+
+    /**
+     * Appends an expense.
+     *
+     * @param expense Expense to append.
+     */
+    void add(Expense expense);
+
+    /**
+     * Appends expenses in order. Implementations reserve room for the whole batch up front.
+     *
+     * @param batch Expenses to append.
+     */
+    default void addAll(List<Expense> batch) {
+        for (Expense expense : batch) {
+            add(expense);
+        }
+    }
+
+    /**
+     * Removes an expense, keeping the order of the others.
+     *
+     * @param expense Expense to remove.
+     */
+    void remove(Expense expense);
+
+    /**
+     * Removes expenses in one pass, keeping the order of the others.
+     * Implementations tombstone every expense first and compact at most once.
+     *
+     * @param removed Expenses to remove.
+     */
+    default void removeAll(Collection<Expense> removed) {
+        for (Expense expense : removed) {
+            remove(expense);
+        }
+    }
+
+    /**
+     * Refreshes the stored data of an expense after one of its fields was changed.
+     *
+     * @param expense Expense that was changed.
+     */
+    void update(Expense expense);
+
+    /**
+     * Gets the expense at an index, counting only live expenses.
+     * Takes O(n) while tombstones are awaiting compaction.
+     *
+     * @param index Zero-based index, less than {@link #size()}.
+     * @return The expense at that index.
+     */
+    Expense get(int index);
+
+    /**
+     * Gets the number of stored expenses, excluding tombstones.
+     *
+     * @return The expense count.
+     */
+    int size();
+
+    /**
+     * Gets the number of tombstoned rows awaiting compaction.
+     *
+     * @return The tombstone count.
+     */
+    int getTombstoneCount();
+
+    /**
+     * Checks whether no expense is stored.
+     *
+     * @return True if empty.
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all expenses.
+     */
+    void clear();
+
+    /**
+     * Gets all expenses.
+     *
+     * @return An unmodifiable snapshot of the expenses, in insertion order, unaffected by later changes.
+     */
+    List<Expense> toList();
+
+    /**
+     * Re-values every expense in a currency at the rates in force at its timestamp and sums the results.
+     * Each amount is rounded on its own, so the sum matches the amounts as they are shown.
+     * Implementations run this as one pass over their amount and time data.
+     *
+     * @param currency Currency to sum in.
+     * @param history  Rate history to convert with.
+     * @return The sum of all amounts, in {@code currency}.
+     */
+    default Money sumAmounts(Currency currency, RateHistory history) {
+        RateTable rates = RateTable.current();
+        long sum = 0;
+        for (Expense expense : this) {
+            sum += history.fromCanonical(expense.getCanonicalMoney().getMinorUnits(), currency,
+                    RateHistory.toEpochSecond(expense.getDateTime()), rates);
+        }
+        return Money.ofMinorUnits(sum);
+    }
+
+    /**
+     * Gets the expenses whose names contain the given word, ignoring case.
+     *
+     * @param word Word to look for.
+     * @return List of matching expenses, in insertion order.
+     */
+    default List<Expense> findByNameContaining(String word) {
+        return findByNameContaining(word, 0, ExpenseManager.NO_LIMIT);
+    }
+
+    /**
+     * Gets one page of the expenses whose names contain the given word, ignoring case.
+     * The scan stops as soon as the page is full.
+     *
+     * @param word   Word to look for.
+     * @param offset Number of leading matches to skip.
+     * @param limit  Maximum number of matches to return.
+     * @return List of matching expenses, in insertion order.
+     */
+    List<Expense> findByNameContaining(String word, int offset, int limit);
+
+    /**
+     * Visits the expenses in insertion order until the visitor asks to stop.
+     *
+     * @param visitor Called on each expense, returning false to stop the scan.
+     * @return False if the visitor stopped the scan.
+     */
+    default boolean scan(Predicate<Expense> visitor) {
+        for (Expense expense : this) {
+            if (!visitor.test(expense)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,25 @@
+package seedu.tripbuddy.framework;
+
+/**
+ * Represents the available {@link ExpenseStore} backends that can be chosen at startup.
+ */
+public enum ExpenseStoreType {
+
+    /** Expense objects in a persistent vector, so snapshots share its structure. This is the default. */
+    LIST,
+
+    /** Parallel primitive columns on the heap. */
+    COLUMNAR;
+
+    /**
+     * Creates an empty store of this type.
+     *
+     * @return a new {@link ExpenseStore}
+     */
+    public ExpenseStore createStore() {
+        return switch (this) {
+        case LIST -> new ListExpenseStore();
+        case COLUMNAR -> new ColumnarExpenseStore();
+        };
+    }
+}
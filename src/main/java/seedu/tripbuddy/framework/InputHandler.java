@@ -3,11 +3,14 @@ package seedu.tripbuddy.framework;
 import seedu.tripbuddy.command.Command;
 import seedu.tripbuddy.command.Keyword;
 import seedu.tripbuddy.command.Parser;
+import seedu.tripbuddy.dataclass.Money;
 import seedu.tripbuddy.exception.ExceptionHandler;
 import seedu.tripbuddy.exception.InvalidArgumentException;
 import seedu.tripbuddy.exception.InvalidKeywordException;
 import seedu.tripbuddy.exception.MissingOptionException;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.logging.Logger;
 
@@ -18,6 +21,8 @@ import java.util.logging.Logger;
  */
 public class InputHandler {
 
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private static InputHandler instance = null;
 
     private final CommandHandler commandHandler;
@@ -39,7 +44,7 @@ public class InputHandler {
      * @param logger Logger instance for parser initialization.
      * @return The singleton {@code InputHandler}.
      */
-    public static InputHandler getInstance(Logger logger) {
+    public static synchronized InputHandler getInstance(Logger logger) {
         if (instance == null) {
             instance = new InputHandler(logger);
         }
@@ -56,6 +61,38 @@ public class InputHandler {
         return userInput.split(" ")[0].equals("quit");
     }
 
+    /**
+     * Gets the page offset of a listing command from its {@code -o} option, or 0 if it has none.
+     */
+    private static int getOffset(Command cmd) throws MissingOptionException, InvalidArgumentException {
+        return cmd.hasOpt("o") ? cmd.parseNonNegativeInt("o") : 0;
+    }
+
+    /**
+     * Gets the page size of a listing command from its {@code -l} option, or no limit if it has none.
+     */
+    private static int getLimit(Command cmd) throws MissingOptionException, InvalidArgumentException {
+        return cmd.hasOpt("l") ? cmd.parseInt("l") : ExpenseManager.NO_LIMIT;
+    }
+
+    /**
+     * Builds a query from the filter options of a query command. Every filter is optional.
+     */
+    private static ExpenseQuery getQuery(Command cmd) throws MissingOptionException, InvalidArgumentException {
+        ExpenseQuery query = new ExpenseQuery();
+        if (cmd.hasOpt("c")) {
+            query.setCategory(cmd.getOpt("c"));
+        }
+        query.setDateRange(cmd.hasOpt("f") ? LocalDateTime.parse(cmd.getOpt("f"), DATE_TIME_FORMATTER) : null,
+                cmd.hasOpt("t") ? LocalDateTime.parse(cmd.getOpt("t"), DATE_TIME_FORMATTER) : null);
+        query.setAmountRange(cmd.hasOpt("min") ? Money.of(cmd.parseDouble("min")) : null,
+                cmd.hasOpt("max") ? Money.of(cmd.parseDouble("max")) : null);
+        if (cmd.hasOpt("n")) {
+            query.setNameContaining(cmd.getOpt("n"));
+        }
+        return query;
+    }
+
     /**
      * Parses the user's input and executes the corresponding command.
      * Delegates command execution to {@code CommandHandler}.
@@ -67,13 +104,14 @@ public class InputHandler {
         try {
             Command cmd = parser.parseCommand(userInput);
             Keyword keyword = cmd.getKeyword();
-            int optCount = cmd.getOptCount();
             return switch (keyword) {
             case TUTORIAL -> commandHandler.handleTutorial();
             case SET_BUDGET -> commandHandler.handleSetBudget(cmd.parseDouble(""));
             case VIEW_BUDGET -> commandHandler.handleViewBudget();
             case CREATE_CATEGORY -> commandHandler.handleCreateCategory(cmd.getOpt(""));
             case SET_CATEGORY -> commandHandler.handleSetCategory(cmd.getOpt(""), cmd.getOpt("c"));
+            case RENAME_CATEGORY -> commandHandler.handleRenameCategory(cmd.getOpt(""), cmd.getOpt("n"));
+            case MERGE_CATEGORY -> commandHandler.handleMergeCategory(cmd.getOpt(""), cmd.getOpt("c"));
             case ADD_EXPENSE -> {
                 double amount = cmd.parseDouble("a");
                 if (cmd.hasOpt("c")) {
@@ -81,13 +119,27 @@ public class InputHandler {
                 }
                 yield commandHandler.handleAddExpense(cmd.getOpt(""), amount);
             }
-            case DELETE_EXPENSE -> commandHandler.handleDeleteExpense(cmd.getOpt(""));
-            case LIST_EXPENSE -> commandHandler.handleListExpense(optCount == 0 ? null : cmd.getOpt(""));
+            case ADD_EXPENSES -> commandHandler.handleAddExpenses(cmd.getOpt(""));
+            case DELETE_EXPENSE -> {
+                if (cmd.hasOpt("c") || cmd.hasOpt("f") || cmd.hasOpt("t")) {
+                    yield commandHandler.handleDeleteExpenses(getQuery(cmd));
+                }
+                yield commandHandler.handleDeleteExpense(cmd.getOpt(""));
+            }
+            case LIST_EXPENSE -> commandHandler.handleListExpense(cmd.hasOpt("") ? cmd.getOpt("") : null,
+                    getOffset(cmd), getLimit(cmd));
             case MAX_EXPENSE -> commandHandler.handleMaxExpense();
             case MIN_EXPENSE -> commandHandler.handleMinExpense();
-            case FILTER_DATE -> commandHandler.handleFilterExpenseByDateRange(cmd.getOpt("f"), cmd.getOpt("t"));
+            case TOP_EXPENSE -> commandHandler.handleTopExpense(cmd.parseInt(""));
+            case PERCENTILE_EXPENSE -> commandHandler.handlePercentileExpense(cmd.parseDouble(""));
+            case FILTER_AMOUNT -> commandHandler.handleFilterExpenseByAmountRange(cmd.parseDouble("f"),
+                    cmd.parseDouble("t"));
+            case FILTER_DATE -> commandHandler.handleFilterExpenseByDateRange(cmd.getOpt("f"), cmd.getOpt("t"),
+                    getOffset(cmd), getLimit(cmd));
+            case QUERY -> commandHandler.handleQuery(getQuery(cmd), cmd.hasOpt("e"), getOffset(cmd), getLimit(cmd));
+            case VIEW_TREND -> commandHandler.handleViewTrend(cmd.getOpt(""), cmd.hasOpt("c") ? cmd.getOpt("c") : null);
             case VIEW_CURRENCY -> commandHandler.handleViewCurrency();
-            case SEARCH -> commandHandler.handleSearch(cmd.getOpt(""));
+            case SEARCH -> commandHandler.handleSearch(cmd.getOpt(""), getOffset(cmd), getLimit(cmd));
             case VIEW_CATEGORIES -> commandHandler.handleViewCategories();
             case SET_BASE_CURRENCY -> commandHandler.handleSetBaseCurrency(cmd.getOpt(""));
             case SET_TIME -> commandHandler.handleSetTime(cmd.getOpt(""), cmd.getOpt("t"));
@@ -0,0 +1,172 @@
+package seedu.tripbuddy.framework;
+
+import seedu.tripbuddy.dataclass.Expense;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Default {@link ExpenseStore} that keeps expense objects in a {@link PersistentVector}.
+ * Every mutation produces a new version of the vector, so {@link #toList()} hands out
+ * the current version as an immutable snapshot in O(1) whenever no tombstones are awaiting compaction.
+ * A removed expense is tombstoned by replacing it with null, which copies only the path to its row.
+ */
+public class ListExpenseStore implements ExpenseStore {
+
+    private PersistentVector<Expense> expenses = PersistentVector.empty();
+    private final IdentityHashMap<Expense, Integer> rows = new IdentityHashMap<>();
+    private int tombstones = 0;
+
+    private boolean tombstone(Expense expense) {
+        Integer row = rows.remove(expense);
+        if (row == null) {
+            return false;
+        }
+        expenses = expenses.with(row, null);
+        tombstones++;
+        return true;
+    }
+
+    /**
+     * Rebuilds the vector from the live rows in one pass, once there are enough tombstones.
+     */
+    private void compactIfSparse() {
+        if (ExpenseStore.needsCompaction(tombstones, expenses.size())) {
+            compact();
+        }
+    }
+
+    /**
+     * Rebuilds the vector from the rows still in {@code rows}, dropping tombstones and
+     * expenses already taken out of {@code rows}.
+     */
+    private void compact() {
+        Object[] items = expenses.toArray();
+        int live = 0;
+        for (Object item : items) {
+            if (item != null && rows.containsKey(item)) {
+                rows.put((Expense) item, live);
+                items[live++] = item;
+            }
+        }
+        expenses = PersistentVector.of(items, live);
+        tombstones = 0;
+    }
+
+    @Override
+    public void add(Expense expense) {
+        rows.put(expense, expenses.size());
+        expenses = expenses.plus(expense);
+    }
+
+    @Override
+    public void addAll(List<Expense> batch) {
+        // A batch at least as large as the store is cheaper to build into a new vector in one pass
+        if (batch.size() < expenses.size()) {
+            ExpenseStore.super.addAll(batch);
+            return;
+        }
+        int size = expenses.size();
+        Object[] items = Arrays.copyOf(expenses.toArray(), size + batch.size());
+        for (Expense expense : batch) {
+            rows.put(expense, size);
+            items[size++] = expense;
+        }
+        expenses = PersistentVector.of(items, size);
+    }
+
+    @Override
+    public void remove(Expense expense) {
+        if (tombstone(expense)) {
+            compactIfSparse();
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<Expense> removed) {
+        // A batch that would trigger compaction anyway skips replacing each row with a tombstone first
+        if (ExpenseStore.needsCompaction(tombstones + removed.size(), expenses.size())) {
+            for (Expense expense : removed) {
+                rows.remove(expense);
+            }
+            compact();
+            return;
+        }
+        for (Expense expense : removed) {
+            tombstone(expense);
+        }
+        compactIfSparse();
+    }
+
+    @Override
+    public void update(Expense expense) {
+        // Fields are read from the expense itself
+    }
+
+    @Override
+    public Expense get(int index) {
+        if (tombstones == 0) {
+            return expenses.get(index);
+        }
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        for (Expense expense : expenses) {
+            if (expense != null && index-- == 0) {
+                return expense;
+            }
+        }
+        throw new IllegalStateException("Tombstone count out of sync");
+    }
+
+    @Override
+    public int size() {
+        return expenses.size() - tombstones;
+    }
+
+    @Override
+    public int getTombstoneCount() {
+        return tombstones;
+    }
+
+    @Override
+    public void clear() {
+        expenses = PersistentVector.empty();
+        rows.clear();
+        tombstones = 0;
+    }
+
+    @Override
+    public List<Expense> toList() {
+        PersistentVector<Expense> snapshot = expenses;
+        if (tombstones == 0) {
+            return snapshot;
+        }
+        return snapshot.stream().filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public List<Expense> findByNameContaining(String word, int offset, int limit) {
+        PageCollector page = new PageCollector(offset, limit);
+        for (int i = 0; i < expenses.size() && !page.isFull(); i++) {
+            Expense expense = expenses.get(i);
+            if (expense != null && TrigramIndex.containsIgnoreCase(expense.getName(), word)) {
+                page.offer(expense);
+            }
+        }
+        return page.getItems();
+    }
+
+    @Override
+    public Iterator<Expense> iterator() {
+        PersistentVector<Expense> snapshot = expenses;
+        if (tombstones == 0) {
+            return snapshot.iterator();
+        }
+        return snapshot.stream().filter(Objects::nonNull).iterator();
+    }
+}
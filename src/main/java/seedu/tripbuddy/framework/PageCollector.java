@@ -0,0 +1,63 @@
+package seedu.tripbuddy.framework;
+
+import seedu.tripbuddy.dataclass.Expense;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects one page of the matches of a scan, skipping the first {@code offset} and keeping at most {@code limit}.
+ * Scans offer their matches in order and stop as soon as the page is full,
+ * so only the requested page is ever materialized.
+ */
+final class PageCollector {
+
+    private final int limit;
+    private int toSkip;
+    private final ArrayList<Expense> items = new ArrayList<>();
+
+    /**
+     * Constructs a collector for one page.
+     *
+     * @param offset Number of leading matches to skip.
+     * @param limit  Maximum number of matches to keep, or {@link ExpenseManager#NO_LIMIT}.
+     */
+    PageCollector(int offset, int limit) {
+        assert offset >= 0 && limit > 0 : "Invalid page";
+        this.toSkip = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * Offers the next match of the scan.
+     *
+     * @param expense The match.
+     * @return False once the page is full and the scan can stop.
+     */
+    boolean offer(Expense expense) {
+        if (toSkip > 0) {
+            toSkip--;
+        } else {
+            items.add(expense);
+        }
+        return !isFull();
+    }
+
+    /**
+     * Checks whether the page is full.
+     *
+     * @return True if no more matches are wanted.
+     */
+    boolean isFull() {
+        return items.size() >= limit;
+    }
+
+    /**
+     * Gets the collected page.
+     *
+     * @return The kept matches, in the order they were offered.
+     */
+    List<Expense> getItems() {
+        return items;
+    }
+}
@@ -0,0 +1,191 @@
+package seedu.tripbuddy.framework;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list stored as a 32-way trie with a separate tail chunk.
+ * Appending or replacing an element copies only the path to it and shares the rest of the trie
+ * with the previous version, so every version can be handed out as a snapshot without copying.
+ * Mutating methods inherited from {@link java.util.List} throw {@link UnsupportedOperationException}.
+ *
+ * @param <E> Element type.
+ */
+final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final Object[] EMPTY_NODE = new Object[0];
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS, EMPTY_NODE, EMPTY_NODE);
+
+    private final int size;
+    /** Number of index bits consumed above the leaves of {@code root}. */
+    private final int shift;
+    private final Object[] root;
+    /** Last 1 to {@value #WIDTH} elements, kept outside the trie so that appends are cheap. */
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Gets the empty vector.
+     *
+     * @param <E> Element type.
+     * @return The empty vector.
+     */
+    @SuppressWarnings("unchecked")
+    static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Builds a vector from the first {@code count} elements of an array in O(n).
+     *
+     * @param items Elements in order.
+     * @param count Number of elements to take.
+     * @param <E>   Element type.
+     * @return A vector holding the elements.
+     */
+    static <E> PersistentVector<E> of(Object[] items, int count) {
+        if (count == 0) {
+            return empty();
+        }
+        int tailLength = ((count - 1) & MASK) + 1;
+        int trieCount = count - tailLength;
+        Object[] tail = Arrays.copyOfRange(items, trieCount, count);
+
+        Object[] nodes = new Object[trieCount >>> BITS];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = Arrays.copyOfRange(items, i << BITS, (i + 1) << BITS);
+        }
+        int shift = BITS;
+        while (nodes.length > WIDTH) {
+            Object[] parents = new Object[(nodes.length + MASK) >>> BITS];
+            for (int i = 0; i < parents.length; i++) {
+                parents[i] = Arrays.copyOfRange(nodes, i << BITS, Math.min(nodes.length, (i + 1) << BITS));
+            }
+            nodes = parents;
+            shift += BITS;
+        }
+        return new PersistentVector<>(count, shift, nodes, tail);
+    }
+
+    private int tailOffset() {
+        return size - tail.length;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return (E) leafFor(index)[index & MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets a new version with an element appended, in O(log n).
+     *
+     * @param element Element to append.
+     * @return The new version.
+     */
+    PersistentVector<E> plus(E element) {
+        if (tail.length < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = element;
+            return new PersistentVector<>(size + 1, shift, root, newTail);
+        }
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[] {root, newPath(shift, tail)};
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root);
+        }
+        return new PersistentVector<>(size + 1, newShift, newRoot, new Object[] {element});
+    }
+
+    private Object[] pushTail(int level, Object[] parent) {
+        int childIndex = ((size - 1) >>> level) & MASK;
+        Object[] ret = Arrays.copyOf(parent, Math.max(parent.length, childIndex + 1));
+        if (level == BITS) {
+            ret[childIndex] = tail;
+        } else if (childIndex < parent.length) {
+            ret[childIndex] = pushTail(level - BITS, (Object[]) parent[childIndex]);
+        } else {
+            ret[childIndex] = newPath(level - BITS, tail);
+        }
+        return ret;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        return level == 0 ? node : new Object[] {newPath(level - BITS, node)};
+    }
+
+    /**
+     * Gets a new version with the element at an index replaced, in O(log n).
+     *
+     * @param index   Index of the element.
+     * @param element Replacement element.
+     * @return The new version.
+     */
+    PersistentVector<E> with(int index, E element) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = element;
+            return new PersistentVector<>(size, shift, root, newTail);
+        }
+        return new PersistentVector<>(size, shift, assoc(shift, root, index, element), tail);
+    }
+
+    private static Object[] assoc(int level, Object[] node, int index, Object element) {
+        Object[] ret = node.clone();
+        if (level == 0) {
+            ret[index & MASK] = element;
+        } else {
+            int childIndex = (index >>> level) & MASK;
+            ret[childIndex] = assoc(level - BITS, (Object[]) node[childIndex], index, element);
+        }
+        return ret;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] ret = new Object[size];
+        int copied = 0;
+        while (copied < size) {
+            Object[] leaf = leafFor(copied);
+            int length = Math.min(leaf.length, size - copied);
+            System.arraycopy(leaf, 0, ret, copied, length);
+            copied += length;
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,137 @@
+package seedu.tripbuddy.framework;
+
+import seedu.tripbuddy.dataclass.Category;
+import seedu.tripbuddy.dataclass.Expense;
+
+import java.util.ArrayList;
+import java.util.function.Predicate;
+
+/**
+ * One way of running an {@link ExpenseQuery}: the access path that expenses are read from,
+ * and the remaining filters that each expense is checked against as it is read.
+ * A plan is built for a single run.
+ */
+final class QueryPlan {
+
+    /**
+     * Where a plan reads its candidate expenses from.
+     */
+    enum Access {
+        CATEGORY("category index"),
+        DATE("time index"),
+        AMOUNT("amount index"),
+        NAME("name index"),
+        FULL_SCAN("full scan");
+
+        private final String description;
+
+        Access(String description) {
+            this.description = description;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    /**
+     * Reads candidate expenses from an access path until the visitor asks to stop.
+     */
+    @FunctionalInterface
+    interface Scan {
+        boolean run(Predicate<Expense> visitor);
+    }
+
+    private final ExpenseQuery query;
+    private final Category category;
+    private final Access access;
+    private final int estimatedRows;
+    private final Scan scan;
+    private int rowsScanned = 0;
+
+    /**
+     * Constructs a plan.
+     *
+     * @param query         The query to run.
+     * @param category      The dictionary entry of the query category, or null if it has none.
+     * @param access        The access path to read from.
+     * @param estimatedRows The number of expenses the access path is expected to yield.
+     * @param scan          Reads the access path.
+     */
+    QueryPlan(ExpenseQuery query, Category category, Access access, int estimatedRows, Scan scan) {
+        this.query = query;
+        this.category = category;
+        this.access = access;
+        this.estimatedRows = estimatedRows;
+        this.scan = scan;
+    }
+
+    /**
+     * Gets the access path of this plan.
+     *
+     * @return The access path.
+     */
+    Access getAccess() {
+        return access;
+    }
+
+    /**
+     * Gets the number of expenses the access path is expected to yield.
+     *
+     * @return The estimated row count.
+     */
+    int getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    /**
+     * Reads the access path, keeping the expenses that pass the remaining filters,
+     * until the requested page is full.
+     *
+     * @param offset Number of leading matches to skip.
+     * @param limit  Maximum number of matches to return.
+     * @return The matches in the page, with this plan and the number of expenses read.
+     */
+    QueryResult execute(int offset, int limit) {
+        PageCollector page = new PageCollector(offset, limit);
+        scan.run(expense -> {
+            rowsScanned++;
+            return !isKeptByRest(expense) || page.offer(expense);
+        });
+        return new QueryResult(page.getItems(), describe(), estimatedRows, rowsScanned);
+    }
+
+    private boolean isKeptByRest(Expense expense) {
+        return (access == Access.CATEGORY || category == null || ExpenseQuery.isUnder(expense, category))
+                && (access == Access.DATE || !query.hasDateRange() || query.isInDateRange(expense))
+                && (access == Access.AMOUNT || !query.hasAmountRange() || query.isInAmountRange(expense))
+                && (access == Access.NAME || !query.hasNameWord() || query.hasNameWordIn(expense));
+    }
+
+    /**
+     * Describes the access path and the remaining filters, such as
+     * "amount index (estimated 3 rows), then filter by category and name".
+     */
+    private String describe() {
+        ArrayList<String> rest = new ArrayList<>();
+        if (access != Access.CATEGORY && category != null) {
+            rest.add("category");
+        }
+        if (access != Access.DATE && query.hasDateRange()) {
+            rest.add("date");
+        }
+        if (access != Access.AMOUNT && query.hasAmountRange()) {
+            rest.add("amount");
+        }
+        if (access != Access.NAME && query.hasNameWord()) {
+            rest.add("name");
+        }
+        StringBuilder sb = new StringBuilder().append(access)
+                .append(" (estimated ").append(estimatedRows).append(" rows)");
+        for (int i = 0; i < rest.size(); i++) {
+            sb.append(i == 0 ? ", then filter by " : i == rest.size() - 1 ? " and " : ", ").append(rest.get(i));
+        }
+        return sb.toString();
+    }
+}
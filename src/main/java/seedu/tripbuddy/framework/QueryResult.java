@@ -0,0 +1,67 @@
+package seedu.tripbuddy.framework;
+
+import seedu.tripbuddy.dataclass.Expense;
+
+import java.util.List;
+
+/**
+ * Holds one page of the matches of an {@link ExpenseQuery} together with how they were found.
+ */
+public class QueryResult {
+
+    private final List<Expense> expenses;
+    private final String plan;
+    private final int estimatedRows;
+    private final int rowsScanned;
+
+    /**
+     * Constructs a query result.
+     *
+     * @param expenses      The matches in the page.
+     * @param plan          Description of the plan the query ran with.
+     * @param estimatedRows Number of expenses the plan was expected to read.
+     * @param rowsScanned   Number of expenses the plan actually read.
+     */
+    QueryResult(List<Expense> expenses, String plan, int estimatedRows, int rowsScanned) {
+        this.expenses = expenses;
+        this.plan = plan;
+        this.estimatedRows = estimatedRows;
+        this.rowsScanned = rowsScanned;
+    }
+
+    /**
+     * Gets the matches in the page, in the order of the index the plan read from.
+     *
+     * @return The matching expenses.
+     */
+    public List<Expense> getExpenses() {
+        return expenses;
+    }
+
+    /**
+     * Gets a description of the plan, such as "amount index (estimated 3 rows), then filter by name".
+     *
+     * @return The plan description.
+     */
+    public String getPlan() {
+        return plan;
+    }
+
+    /**
+     * Gets the number of expenses the plan was expected to read.
+     *
+     * @return The estimated row count.
+     */
+    public int getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    /**
+     * Gets the number of expenses the plan actually read before the page was full or the index ran out.
+     *
+     * @return The scanned row count.
+     */
+    public int getRowsScanned() {
+        return rowsScanned;
+    }
+}
@@ -0,0 +1,181 @@
+package seedu.tripbuddy.framework;
+
+import seedu.tripbuddy.dataclass.Category;
+import seedu.tripbuddy.dataclass.Currency;
+import seedu.tripbuddy.dataclass.Expense;
+import seedu.tripbuddy.dataclass.Money;
+import seedu.tripbuddy.dataclass.PeriodSpending;
+import seedu.tripbuddy.dataclass.RollupPeriod;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running totals of spending per day, ISO week and month, and per category within each period.
+ * Every change to an expense touches one hash entry per period length, so trends are answered
+ * without scanning the expenses.
+ * Category totals are kept per category entry, so renaming and merging categories need no update here.
+ * The running rollups keep totals in canonical units and convert them only when a trend is read.
+ * While exchange rates vary over time, trends are instead read from rollups built in the currency shown,
+ * with each expense valued at the rates in force at its timestamp.
+ */
+class SpendingRollup {
+
+    private static class Tally {
+        /** Total in minor units. */
+        long total = 0;
+        int count = 0;
+
+        void add(long amount, int sign) {
+            total += sign * amount;
+            count += sign;
+        }
+    }
+
+    private static final class PeriodTally extends Tally {
+        /** Category entry, or null for expenses without one, to the spending under it. */
+        private final HashMap<Category, Tally> byCategory = new HashMap<>();
+    }
+
+    private final EnumMap<RollupPeriod, HashMap<Long, PeriodTally>> tables = new EnumMap<>(RollupPeriod.class);
+    /** Currency the totals are in, or null for canonical units. */
+    private final Currency currency;
+
+    SpendingRollup() {
+        this(null);
+    }
+
+    private SpendingRollup(Currency currency) {
+        this.currency = currency;
+        for (RollupPeriod period : RollupPeriod.values()) {
+            tables.put(period, new HashMap<>());
+        }
+    }
+
+    private void apply(LocalDateTime dateTime, Money money, Category category, int sign) {
+        long amount = money.getMinorUnits();
+        for (Map.Entry<RollupPeriod, HashMap<Long, PeriodTally>> table : tables.entrySet()) {
+            long key = table.getKey().keyOf(dateTime);
+            PeriodTally periodTally = table.getValue().computeIfAbsent(key, k -> new PeriodTally());
+            periodTally.add(amount, sign);
+            Tally categoryTally = periodTally.byCategory.computeIfAbsent(category, k -> new Tally());
+            categoryTally.add(amount, sign);
+            if (categoryTally.count == 0) {
+                periodTally.byCategory.remove(category);
+            }
+            if (periodTally.count == 0) {
+                table.getValue().remove(key);
+            }
+        }
+    }
+
+    /**
+     * Builds rollups of expenses valued in a currency, each at the rates in force at its timestamp.
+     * Takes a single pass over the expenses.
+     *
+     * @param expenses Expenses to roll up.
+     * @param currency Currency to value them in.
+     * @return The rollups.
+     */
+    static SpendingRollup revalue(Iterable<Expense> expenses, Currency currency) {
+        SpendingRollup rollup = new SpendingRollup(currency);
+        for (Expense expense : expenses) {
+            LocalDateTime dateTime = expense.getDateTime();
+            rollup.apply(dateTime, currency.fromCanonical(expense.getCanonicalMoney(), dateTime),
+                    expense.getCategoryEntry(), 1);
+        }
+        return rollup;
+    }
+
+    /**
+     * Adds an expense at its current timestamp, amount and category.
+     *
+     * @param expense Expense to add.
+     */
+    void add(Expense expense) {
+        apply(expense.getDateTime(), expense.getCanonicalMoney(), expense.getCategoryEntry(), 1);
+    }
+
+    /**
+     * Removes an expense at its current timestamp, amount and category.
+     *
+     * @param expense Expense to remove.
+     */
+    void remove(Expense expense) {
+        remove(expense.getDateTime(), expense.getCanonicalMoney(), expense.getCategoryEntry());
+    }
+
+    /**
+     * Removes an expense as it was before one of its fields changed.
+     *
+     * @param dateTime Timestamp it was added at.
+     * @param amount   Amount it was added with.
+     * @param category Category entry it was added under, or null.
+     */
+    void remove(LocalDateTime dateTime, Money amount, Category category) {
+        apply(dateTime, amount, category, -1);
+    }
+
+    /**
+     * Removes all expenses.
+     */
+    void clear() {
+        for (HashMap<Long, PeriodTally> table : tables.values()) {
+            table.clear();
+        }
+    }
+
+    /**
+     * Gets the spending of every period of the given length that has expenses, in chronological order.
+     *
+     * @param period        Period length.
+     * @param categoryName  Category to restrict to, or null for all expenses.
+     * @param shownCurrency Currency to show the amounts in.
+     * @return The spending per period.
+     */
+    List<PeriodSpending> getTrend(RollupPeriod period, String categoryName, Currency shownCurrency) {
+        HashMap<Long, PeriodTally> table = tables.get(period);
+        ArrayList<Long> keys = new ArrayList<>(table.keySet());
+        Collections.sort(keys);
+        ArrayList<PeriodSpending> ret = new ArrayList<>();
+        for (long key : keys) {
+            PeriodTally periodTally = table.get(key);
+            TreeMap<String, Money> categoryTotals = new TreeMap<>();
+            long total = categoryName == null ? periodTally.total : 0;
+            int count = categoryName == null ? periodTally.count : 0;
+            for (Map.Entry<Category, Tally> entry : periodTally.byCategory.entrySet()) {
+                if (entry.getKey() == null) {
+                    continue;
+                }
+                // Merged entries resolve to the same name and are summed here
+                String name = entry.getKey().getName();
+                if (categoryName != null && !categoryName.equals(name)) {
+                    continue;
+                }
+                Tally categoryTally = entry.getValue();
+                categoryTotals.merge(name, Money.ofMinorUnits(categoryTally.total), Money::plus);
+                if (categoryName != null) {
+                    total += categoryTally.total;
+                    count += categoryTally.count;
+                }
+            }
+            if (count > 0) {
+                // Merged entries are summed before converting, so each amount is rounded once
+                categoryTotals.replaceAll((name, amount) -> toShown(amount, shownCurrency));
+                ret.add(new PeriodSpending(period.labelOf(key),
+                        toShown(Money.ofMinorUnits(total), shownCurrency), count, categoryTotals));
+            }
+        }
+        return ret;
+    }
+
+    private Money toShown(Money amount, Currency shownCurrency) {
+        return currency == null ? shownCurrency.fromCanonical(amount) : shownCurrency.convert(amount, currency);
+    }
+}
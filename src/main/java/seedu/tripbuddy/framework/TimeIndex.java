@@ -0,0 +1,150 @@
+package seedu.tripbuddy.framework;
+
+import seedu.tripbuddy.dataclass.Expense;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Orders expenses by timestamp, keyed on epoch seconds.
+ * Expenses sharing the same second are kept in insertion order.
+ */
+class TimeIndex {
+
+    private final TreeMap<Long, LinkedHashSet<Expense>> expensesBySecond = new TreeMap<>();
+    private int size = 0;
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Adds an expense at its current timestamp.
+     *
+     * @param expense Expense to add.
+     */
+    void add(Expense expense) {
+        if (expensesBySecond.computeIfAbsent(toEpochSecond(expense.getDateTime()), k -> new LinkedHashSet<>())
+                .add(expense)) {
+            size++;
+        }
+    }
+
+    /**
+     * Removes an expense that was indexed at the given timestamp.
+     *
+     * @param expense  Expense to remove.
+     * @param dateTime Timestamp the expense was indexed at.
+     */
+    void remove(Expense expense, LocalDateTime dateTime) {
+        long key = toEpochSecond(dateTime);
+        LinkedHashSet<Expense> bucket = expensesBySecond.get(key);
+        if (bucket == null) {
+            return;
+        }
+        if (bucket.remove(expense)) {
+            size--;
+        }
+        if (bucket.isEmpty()) {
+            expensesBySecond.remove(key);
+        }
+    }
+
+    /**
+     * Moves an expense from its old timestamp to its current one.
+     *
+     * @param expense     Expense whose timestamp changed.
+     * @param oldDateTime Timestamp the expense was indexed at.
+     */
+    void reposition(Expense expense, LocalDateTime oldDateTime) {
+        remove(expense, oldDateTime);
+        add(expense);
+    }
+
+    /**
+     * Removes all expenses.
+     */
+    void clear() {
+        expensesBySecond.clear();
+        size = 0;
+    }
+
+    /**
+     * Gets all expenses with timestamps within the given range, inclusive, in chronological order.
+     * Only the first and last seconds of the range need a finer comparison.
+     *
+     * The walk stops as soon as the requested page is full.
+     *
+     * @param start  Start datetime.
+     * @param end    End datetime.
+     * @param offset Number of leading expenses to skip.
+     * @param limit  Maximum number of expenses to return.
+     * @return List of expenses within the range.
+     */
+    List<Expense> getRange(LocalDateTime start, LocalDateTime end, int offset, int limit) {
+        PageCollector page = new PageCollector(offset, limit);
+        scan(start, end, page::offer);
+        return page.getItems();
+    }
+
+    /**
+     * Visits the expenses with timestamps within the given range, inclusive, in chronological order,
+     * until the visitor asks to stop.
+     *
+     * @param start   Start datetime.
+     * @param end     End datetime.
+     * @param visitor Called on each expense, returning false to stop the walk.
+     * @return False if the visitor stopped the walk.
+     */
+    boolean scan(LocalDateTime start, LocalDateTime end, Predicate<Expense> visitor) {
+        long startKey = toEpochSecond(start);
+        long endKey = toEpochSecond(end);
+        if (startKey > endKey) {
+            return true;
+        }
+        NavigableMap<Long, LinkedHashSet<Expense>> range = expensesBySecond.subMap(startKey, true, endKey, true);
+        for (Map.Entry<Long, LinkedHashSet<Expense>> entry : range.entrySet()) {
+            long key = entry.getKey();
+            boolean isEdge = key == startKey || key == endKey;
+            for (Expense expense : entry.getValue()) {
+                if ((!isEdge || isWithin(expense.getDateTime(), start, end)) && !visitor.test(expense)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimates the number of expenses within the given range without walking it,
+     * assuming timestamps are spread evenly between the earliest and the latest.
+     *
+     * @param start Start datetime.
+     * @param end   End datetime.
+     * @return The estimated expense count.
+     */
+    int estimateRange(LocalDateTime start, LocalDateTime end) {
+        if (size == 0) {
+            return 0;
+        }
+        long first = expensesBySecond.firstKey();
+        long last = expensesBySecond.lastKey();
+        long low = Math.max(toEpochSecond(start), first);
+        long high = Math.min(toEpochSecond(end), last);
+        if (low > high) {
+            return 0;
+        }
+        double fraction = (double) (high - low + 1) / (last - first + 1);
+        return (int) Math.ceil(fraction * size);
+    }
+
+    private static boolean isWithin(LocalDateTime dateTime, LocalDateTime start, LocalDateTime end) {
+        return !dateTime.isBefore(start) && !dateTime.isAfter(end);
+    }
+}
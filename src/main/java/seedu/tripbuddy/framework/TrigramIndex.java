@@ -0,0 +1,173 @@
+package seedu.tripbuddy.framework;
+
+import seedu.tripbuddy.dataclass.Expense;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index from the case-folded trigrams of expense names to the expenses containing them.
+ * Each trigram is packed into a {@code long}, so names are never copied or lower-cased.
+ * Posting lists keep expenses in insertion order.
+ */
+class TrigramIndex {
+
+    static final int GRAM_LENGTH = 3;
+
+    private final HashMap<Long, LinkedHashSet<Expense>> postings = new HashMap<>();
+
+    private static long gramAt(String s, int start) {
+        long gram = 0;
+        for (int i = start; i < start + GRAM_LENGTH; i++) {
+            gram = (gram << Character.SIZE) | Character.toLowerCase(s.charAt(i));
+        }
+        return gram;
+    }
+
+    /**
+     * Checks whether {@code name} contains {@code word}, ignoring case, without allocating.
+     *
+     * @param name Expense name.
+     * @param word Word to look for.
+     * @return True if the word occurs in the name.
+     */
+    static boolean containsIgnoreCase(String name, String word) {
+        int last = name.length() - word.length();
+        for (int i = 0; i <= last; i++) {
+            if (name.regionMatches(true, i, word, 0, word.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the trigrams of an expense name.
+     *
+     * @param expense Expense to add.
+     */
+    void add(Expense expense) {
+        String name = expense.getName();
+        for (int i = 0; i + GRAM_LENGTH <= name.length(); i++) {
+            postings.computeIfAbsent(gramAt(name, i), k -> new LinkedHashSet<>()).add(expense);
+        }
+    }
+
+    /**
+     * Removes the trigrams of an expense name.
+     *
+     * @param expense Expense to remove.
+     */
+    void remove(Expense expense) {
+        remove(expense, expense.getName());
+    }
+
+    /**
+     * Removes the trigrams of a name an expense was indexed under, such as its name before a rename.
+     *
+     * @param expense Expense to remove.
+     * @param name    Name the expense was indexed under.
+     */
+    void remove(Expense expense, String name) {
+        for (int i = 0; i + GRAM_LENGTH <= name.length(); i++) {
+            long gram = gramAt(name, i);
+            LinkedHashSet<Expense> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(expense);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all expenses.
+     */
+    void clear() {
+        postings.clear();
+    }
+
+    /**
+     * Gets the expenses whose names contain the search word, ignoring case, in insertion order.
+     * Candidates come from the shortest posting list and are checked against the others
+     * before the final substring check.
+     *
+     * The scan stops as soon as the requested page is full.
+     *
+     * @param searchword Word to search for, at least {@link #GRAM_LENGTH} characters long.
+     * @param offset     Number of leading matches to skip.
+     * @param limit      Maximum number of matches to return.
+     * @return List of matching expenses.
+     */
+    List<Expense> search(String searchword, int offset, int limit) {
+        PageCollector page = new PageCollector(offset, limit);
+        scan(searchword, page::offer);
+        return page.getItems();
+    }
+
+    /**
+     * Visits the expenses whose names contain the search word, ignoring case, in insertion order,
+     * until the visitor asks to stop.
+     *
+     * @param searchword Word to search for, at least {@link #GRAM_LENGTH} characters long.
+     * @param visitor    Called on each match, returning false to stop the scan.
+     * @return False if the visitor stopped the scan.
+     */
+    boolean scan(String searchword, Predicate<Expense> visitor) {
+        assert searchword.length() >= GRAM_LENGTH : "Search word shorter than a trigram";
+        int gramCount = searchword.length() - GRAM_LENGTH + 1;
+        ArrayList<LinkedHashSet<Expense>> lists = new ArrayList<>(gramCount);
+        LinkedHashSet<Expense> shortest = null;
+        for (int i = 0; i < gramCount; i++) {
+            LinkedHashSet<Expense> posting = postings.get(gramAt(searchword, i));
+            if (posting == null) {
+                return true;
+            }
+            lists.add(posting);
+            if (shortest == null || posting.size() < shortest.size()) {
+                shortest = posting;
+            }
+        }
+
+        for (Expense expense : shortest) {
+            if (isInAll(expense, lists) && containsIgnoreCase(expense.getName(), searchword)
+                    && !visitor.test(expense)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimates the number of expenses whose names contain the search word as the length of
+     * the shortest posting list among its trigrams, which bounds the number of matches.
+     *
+     * @param searchword Word to search for, at least {@link #GRAM_LENGTH} characters long.
+     * @return The estimated match count.
+     */
+    int estimate(String searchword) {
+        assert searchword.length() >= GRAM_LENGTH : "Search word shorter than a trigram";
+        int shortest = Integer.MAX_VALUE;
+        for (int i = 0; i + GRAM_LENGTH <= searchword.length(); i++) {
+            LinkedHashSet<Expense> posting = postings.get(gramAt(searchword, i));
+            if (posting == null) {
+                return 0;
+            }
+            shortest = Math.min(shortest, posting.size());
+        }
+        return shortest;
+    }
+
+    private static boolean isInAll(Expense expense, List<LinkedHashSet<Expense>> lists) {
+        for (LinkedHashSet<Expense> posting : lists) {
+            if (!posting.contains(expense)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
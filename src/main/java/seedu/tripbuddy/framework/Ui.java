@@ -27,7 +27,7 @@ public class Ui {
      * Returns the singleton instance of {@code Ui}.
      * If the instance does not exist, it is created.
      */
-    public static Ui getInstance() {
+    public static synchronized Ui getInstance() {
         if (instance == null) {
             instance = new Ui();
         }
@@ -6,12 +6,23 @@ import org.json.JSONObject;
 import seedu.tripbuddy.command.Command;
 import seedu.tripbuddy.dataclass.Currency;
 import seedu.tripbuddy.dataclass.Expense;
+import seedu.tripbuddy.dataclass.RateHistory;
+import seedu.tripbuddy.dataclass.RateTable;
 import seedu.tripbuddy.exception.DataLoadingException;
 import seedu.tripbuddy.exception.InvalidArgumentException;
 import seedu.tripbuddy.framework.ExpenseManager;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -19,21 +30,17 @@ public class DataHandler {
 
     private static DataHandler instance = null;
     private static final Logger LOGGER = Logger.getLogger("TripBuddy");
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private final FileHandler fileHandler;
 
     private DataHandler() {
         fileHandler = FileHandler.getInstance();
     }
 
-    private static double round2Digits(double x) {
-        assert x > 0 && x <= Command.MAX_INPUT_VAL;
-        return (int) (x * 100 + .5) / 100.;
-    }
-
     /**
      * Gets a singleton instance of {@link DataHandler}.
      */
-    public static DataHandler getInstance() {
+    public static synchronized DataHandler getInstance() {
         if (instance == null) {
             instance = new DataHandler();
         }
@@ -42,35 +49,42 @@ public class DataHandler {
 
     /**
      * Saves the current {@link ExpenseManager} info into a json file.
+     * The document is streamed to the file one expense at a time, so saving takes no memory
+     * in proportion to the number of expenses. The file is only replaced once the document is complete.
      * @return The message for display
      */
     public String saveData(String path, ExpenseManager expenseManager) throws IOException {
-        JSONObject root = new JSONObject();
-        root.put("currency", expenseManager.getBaseCurrency().toString());
-        root.put("budget", round2Digits(expenseManager.getBudget()));
-
-        LOGGER.log(Level.INFO, "budget converted");
+        fileHandler.writeJsonDocument(path, writer -> {
+            writer.beginObject();
+            writer.name("currency").value(expenseManager.getBaseCurrency().toString());
+            writer.name("budget").value(expenseManager.getBudgetMoney());
 
-        JSONArray categoriesArr = new JSONArray();
-        for (String category : expenseManager.getCategories()) {
-            categoriesArr.put(category);
-        }
-        root.put("categories", categoriesArr);
+            writer.name("categories").beginArray();
+            for (String category : expenseManager.getCategories()) {
+                writer.value(category);
+            }
+            writer.endArray();
 
-        LOGGER.log(Level.INFO, "categories converted");
+            LOGGER.log(Level.INFO, "categories written");
 
-        JSONArray expensesArr = new JSONArray();
-        for (Expense expense : expenseManager.getExpenses()) {
-            JSONObject expObj = expense.toJSON();
-            expensesArr.put(expObj);
-            LOGGER.log(Level.INFO, "expense converted: " + expObj);
-        }
-        root.put("expenses", expensesArr);
-
-        LOGGER.log(Level.INFO, "expenses converted");
+            writer.name("expenses").beginArray();
+            try {
+                expenseManager.forEachExpense(expense -> {
+                    try {
+                        expense.writeTo(writer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.endArray();
+            writer.endObject();
 
-        String absPath = fileHandler.writeJsonObject(path, root);
-        return "Saved data to file:\n\t" + absPath;
+            LOGGER.log(Level.INFO, "expenses written");
+        });
+        return "Saved data to file:\n\t" + Path.of(path).toAbsolutePath();
     }
 
     /**
@@ -84,6 +98,20 @@ public class DataHandler {
      */
     public String loadData(String path)
             throws FileNotFoundException, DataLoadingException {
+        return loadData(path, ExpenseManager.getInstance());
+    }
+
+    /**
+     * Loads data from a file into the given {@link ExpenseManager} and returns a status message for display.
+     *
+     * @param path           The path to the JSON file.
+     * @param expenseManager The trip to load into.
+     * @return A message including all error info.
+     * @throws FileNotFoundException If the file cannot be found.
+     * @throws DataLoadingException  If required fields are missing or invalid.
+     */
+    public String loadData(String path, ExpenseManager expenseManager)
+            throws FileNotFoundException, DataLoadingException {
 
         JSONObject root;
         try {
@@ -91,22 +119,10 @@ public class DataHandler {
         } catch (JSONException e) {
             throw new DataLoadingException("Failed to load your json save due syntax errors:\n\t" + e.getMessage());
         }
-        ExpenseManager expenseManager = ExpenseManager.getInstance();
-
         // Save all messages to be displayed
         StringBuilder invalidJsonMessage = new StringBuilder();
 
-        try {
-            double budget = root.getDouble("budget");
-            if (budget <= 0 || budget > Command.MAX_INPUT_VAL) {
-                throw new DataLoadingException(
-                        "Budget value invalid or out of range. Using default budget instead.");
-            }
-            expenseManager.setBudget(budget);
-        } catch (JSONException e) {
-            invalidJsonMessage.append("Budget information missing. Using default budget instead.\n");
-        }
-
+        // The budget and amounts in the file are in its currency, so it is read first
         String currencyName;
         try {
             currencyName = root.getString("currency");
@@ -120,6 +136,17 @@ public class DataHandler {
                     .append(currencyName).append(". Using SGD instead.\n");
         }
 
+        try {
+            double budget = root.getDouble("budget");
+            if (Double.isNaN(budget) || budget <= 0 || budget > Command.MAX_INPUT_VAL) {
+                throw new DataLoadingException(
+                        "Budget value invalid or out of range. Using default budget instead.");
+            }
+            expenseManager.setBudget(budget);
+        } catch (JSONException e) {
+            invalidJsonMessage.append("Budget information missing. Using default budget instead.\n");
+        }
+
         try {
             JSONArray categoriesArr = root.getJSONArray("categories");
             for (int i = 0; i < categoriesArr.length(); i++) {
@@ -141,20 +168,147 @@ public class DataHandler {
 
         try {
             JSONArray expensesArr = root.getJSONArray("expenses");
+            ArrayList<Expense> parsed = new ArrayList<>(expensesArr.length());
+            ArrayList<Integer> parsedIndexes = new ArrayList<>(expensesArr.length());
             for (int i = 0; i < expensesArr.length(); i++) {
                 try {
-                    JSONObject expObj = expensesArr.getJSONObject(i);
-                    expenseManager.addExpense(expObj);
+                    parsed.add(Expense.fromJSON(expensesArr.getJSONObject(i), expenseManager.getBaseCurrency()));
+                    parsedIndexes.add(i);
                 } catch (JSONException e) {
-                    String message = e.getMessage();
-                    invalidJsonMessage.append("Failed to parse expense at index ").append(i).append(". Skipping:\n\t")
-                            .append(message).append("\n");
+                    appendSkippedExpense(invalidJsonMessage, i, e.getMessage());
                 }
             }
+            addParsedExpenses(expenseManager, parsed, parsedIndexes, invalidJsonMessage);
         } catch (JSONException e) {
             invalidJsonMessage.append("Expenses information missing.\n");
         }
 
         return invalidJsonMessage.toString();
     }
+
+    /**
+     * Loads a history of exchange rates from a CSV file and puts it in use.
+     * Each line is {@code CURRENCY,yyyy-MM-dd HH:mm:ss,RATE}, giving the rate relative to SGD from that time on.
+     * A header line and blank lines are ignored, and invalid lines are skipped.
+     *
+     * @param path The path to the CSV file.
+     * @return A message including all error info.
+     * @throws FileNotFoundException If the file cannot be found.
+     */
+    public String loadRateHistory(String path) throws FileNotFoundException {
+        List<String> lines = fileHandler.readLines(path);
+        StringBuilder invalidRowMessage = new StringBuilder();
+        RateHistory.Builder builder = new RateHistory.Builder();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || i == 0 && line.toLowerCase(Locale.ROOT).startsWith("currency")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            try {
+                if (fields.length != 3) {
+                    throw new IllegalArgumentException("Each line should be CURRENCY,yyyy-MM-dd HH:mm:ss,RATE");
+                }
+                LocalDateTime dateTime = LocalDateTime.parse(fields[1].strip(), DATE_TIME_FORMATTER);
+                builder.add(parseRateCurrency(fields[0]), dateTime, parseRate(fields[2]));
+            } catch (DateTimeParseException e) {
+                appendSkippedRate(invalidRowMessage, i + 1, "Invalid date/time format! Please use yyyy-MM-dd HH:mm:ss");
+            } catch (IllegalArgumentException e) {
+                appendSkippedRate(invalidRowMessage, i + 1, e.getMessage());
+            }
+        }
+        RateHistory history = builder.build();
+        RateHistory.install(history);
+        LOGGER.log(Level.INFO, "Loaded " + history.size() + " exchange rate changes from " + path);
+        return invalidRowMessage.toString();
+    }
+
+    /**
+     * Loads exchange rates from a CSV file and puts them in use as a new rate table, swapped in at once.
+     * Each line is {@code CURRENCY,RATE}, giving the rate relative to SGD.
+     * Currencies not in the file keep their rates. A header line and blank lines are ignored,
+     * and invalid lines are skipped.
+     *
+     * @param path The path to the CSV file.
+     * @return A message including all error info.
+     * @throws FileNotFoundException If the file cannot be found.
+     */
+    public String loadRates(String path) throws FileNotFoundException {
+        List<String> lines = fileHandler.readLines(path);
+        StringBuilder invalidRowMessage = new StringBuilder();
+        EnumMap<Currency, Double> rates = new EnumMap<>(Currency.class);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || i == 0 && line.toLowerCase(Locale.ROOT).startsWith("currency")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            try {
+                if (fields.length != 2) {
+                    throw new IllegalArgumentException("Each line should be CURRENCY,RATE");
+                }
+                rates.put(parseRateCurrency(fields[0]), parseRate(fields[1]));
+            } catch (IllegalArgumentException e) {
+                appendSkippedRate(invalidRowMessage, i + 1, e.getMessage());
+            }
+        }
+        if (!rates.isEmpty()) {
+            RateTable table = RateTable.update(current -> current.withRates(rates));
+            LOGGER.log(Level.INFO, "Loaded " + rates.size() + " exchange rates from " + path
+                    + " as version " + table.getVersion());
+        }
+        return invalidRowMessage.toString();
+    }
+
+    private static Currency parseRateCurrency(String field) {
+        try {
+            return Currency.valueOf(field.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unrecognized currency: " + field.strip());
+        }
+    }
+
+    private static double parseRate(String field) {
+        try {
+            double rate = Double.parseDouble(field.strip());
+            if (Double.isFinite(rate) && rate > 0) {
+                return rate;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Rate should be a positive number");
+    }
+
+    private static void appendSkippedRate(StringBuilder invalidRowMessage, int lineNumber, String message) {
+        invalidRowMessage.append("Failed to parse exchange rate at line ").append(lineNumber).append(". Skipping:\n\t")
+                .append(message).append("\n");
+    }
+
+    /**
+     * Adds parsed expenses in one batch. If the batch is rejected, adds them one at a time instead,
+     * so that only the invalid ones are skipped.
+     */
+    private static void addParsedExpenses(ExpenseManager expenseManager, List<Expense> parsed,
+            List<Integer> parsedIndexes, StringBuilder invalidJsonMessage) {
+        try {
+            expenseManager.addExpenses(parsed);
+            return;
+        } catch (InvalidArgumentException e) {
+            LOGGER.log(Level.INFO, "Batch load rejected, loading expenses one by one: " + e.getMessage());
+        }
+        for (int i = 0; i < parsed.size(); i++) {
+            try {
+                expenseManager.addExpenses(List.of(parsed.get(i)));
+            } catch (InvalidArgumentException e) {
+                appendSkippedExpense(invalidJsonMessage, parsedIndexes.get(i),
+                        '"' + e.getArgument() + "\": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void appendSkippedExpense(StringBuilder invalidJsonMessage, int index, String message) {
+        invalidJsonMessage.append("Failed to parse expense at index ").append(index).append(". Skipping:\n\t")
+                .append(message).append("\n");
+    }
 }
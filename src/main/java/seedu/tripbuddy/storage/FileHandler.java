@@ -7,6 +7,14 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -17,12 +25,27 @@ public class FileHandler {
 
     private static final Logger LOGGER = Logger.getLogger("TripBuddy");
 
+    /**
+     * A JSON document that is streamed rather than built in memory.
+     */
+    @FunctionalInterface
+    public interface JsonDocument {
+
+        /**
+         * Writes the document.
+         *
+         * @param writer Writer to stream the document into.
+         * @throws IOException If the document cannot be written.
+         */
+        void writeTo(JsonStreamWriter writer) throws IOException;
+    }
+
     private FileHandler() {}
 
     /**
      * Gets a singleton instance of {@link FileHandler}.
      */
-    public static FileHandler getInstance() {
+    public static synchronized FileHandler getInstance() {
         if (instance == null) {
             instance = new FileHandler();
         }
@@ -40,6 +63,23 @@ public class FileHandler {
         return new JSONObject(content.toString());
     }
 
+    /**
+     * Reads the lines of a text file.
+     *
+     * @param path Path of the file.
+     * @return The lines, without line terminators.
+     * @throws FileNotFoundException If the file does not exist.
+     */
+    public List<String> readLines(String path) throws FileNotFoundException {
+        ArrayList<String> lines = new ArrayList<>();
+        try (Scanner scanner = new Scanner(new File(path))) {
+            while (scanner.hasNextLine()) {
+                lines.add(scanner.nextLine());
+            }
+        }
+        return lines;
+    }
+
     /**
      * Write json string into a file. The file will be created if not exists.
      * @return absolute path of the file.
@@ -57,4 +97,34 @@ public class FileHandler {
         }
         return file.getAbsolutePath();
     }
+
+    /**
+     * Streams a JSON document into a file, replacing its content only once the document is complete.
+     * The document goes to a temporary file in the same directory, which is then moved over the file,
+     * so a failure part way leaves the file as it was. The file and its directories are created if they
+     * do not exist.
+     *
+     * @param path     Path of the file.
+     * @param document The document to write.
+     * @throws IOException If the document cannot be written or the file cannot be replaced.
+     */
+    public void writeJsonDocument(String path, JsonDocument document) throws IOException {
+        Path file = Path.of(path).toAbsolutePath();
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (JsonStreamWriter writer = new JsonStreamWriter(FileChannel.open(temp, StandardOpenOption.WRITE))) {
+                document.writeTo(writer);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                LOGGER.log(Level.WARNING, "Atomic move not supported, replacing " + file + " directly");
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            // Only left behind if the document or the move failed
+            Files.deleteIfExists(temp);
+        }
+    }
 }
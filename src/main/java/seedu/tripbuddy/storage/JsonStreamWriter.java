@@ -0,0 +1,274 @@
+package seedu.tripbuddy.storage;
+
+import seedu.tripbuddy.dataclass.Money;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a JSON document to a channel as it is produced, indented by four spaces.
+ * Characters go through one fixed-size buffer and are encoded as UTF-8 into another,
+ * which is written out whenever it fills, so the memory used does not grow with the document.
+ * Callers open and close objects and arrays in order, and name every member of an object before its value.
+ */
+public class JsonStreamWriter implements Closeable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final int MAX_DEPTH = 32;
+    private static final int INDENT = 4;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final WritableByteChannel channel;
+    private final CharBuffer chars;
+    private final ByteBuffer bytes;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    /** Reused to render numbers before they are copied into {@link #chars}. */
+    private final StringBuilder scratch = new StringBuilder();
+    /** Whether the object or array open at each depth has an element yet. */
+    private final boolean[] hasElements = new boolean[MAX_DEPTH];
+    private int depth = 0;
+    private boolean isAfterName = false;
+
+    /**
+     * Constructs a writer to a channel, which is closed with the writer.
+     *
+     * @param channel Channel to write the UTF-8 encoded document to.
+     */
+    public JsonStreamWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a writer to a channel with buffers of a given size.
+     *
+     * @param channel    Channel to write the UTF-8 encoded document to.
+     * @param bufferSize Number of characters and of bytes buffered.
+     */
+    JsonStreamWriter(WritableByteChannel channel, int bufferSize) {
+        assert bufferSize >= 4 : "Buffer must hold any encoded character";
+        this.channel = channel;
+        chars = CharBuffer.allocate(bufferSize);
+        bytes = ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * Opens an object, as a value.
+     *
+     * @return This writer.
+     * @throws IOException If the channel cannot be written.
+     */
+    public JsonStreamWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    /**
+     * Closes the innermost object.
+     *
+     * @return This writer.
+     * @throws IOException If the channel cannot be written.
+     */
+    public JsonStreamWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    /**
+     * Opens an array, as a value.
+     *
+     * @return This writer.
+     * @throws IOException If the channel cannot be written.
+     */
+    public JsonStreamWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    /**
+     * Closes the innermost array.
+     *
+     * @return This writer.
+     * @throws IOException If the channel cannot be written.
+     */
+    public JsonStreamWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * Writes the name of the next member of the innermost object.
+     *
+     * @param name Name of the member.
+     * @return This writer.
+     * @throws IOException If the channel cannot be written.
+     */
+    public JsonStreamWriter name(String name) throws IOException {
+        assert depth > 0 && !isAfterName : "A name must be inside an object and followed by a value";
+        startElement();
+        putString(name);
+        put(':');
+        put(' ');
+        isAfterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a string value, or {@code null}.
+     *
+     * @param value The string.
+     * @return This writer.
+     * @throws IOException If the channel cannot be written.
+     */
+    public JsonStreamWriter value(String value) throws IOException {
+        startValue();
+        if (value == null) {
+            put("null");
+        } else {
+            putString(value);
+        }
+        return this;
+    }
+
+    /**
+     * Writes an amount as a number with two decimal places.
+     *
+     * @param value The amount.
+     * @return This writer.
+     * @throws IOException If the channel cannot be written.
+     */
+    public JsonStreamWriter value(Money value) throws IOException {
+        startValue();
+        scratch.setLength(0);
+        put(value.appendTo(scratch));
+        return this;
+    }
+
+    /**
+     * Writes out everything buffered and closes the channel.
+     *
+     * @throws IOException If the channel cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            chars.flip();
+            encode(chars, true);
+            while (encoder.flush(bytes).isOverflow()) {
+                writeBytes();
+            }
+            writeBytes();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private JsonStreamWriter open(char bracket) throws IOException {
+        assert depth < MAX_DEPTH : "JSON is nested too deeply";
+        startValue();
+        put(bracket);
+        hasElements[depth++] = false;
+        return this;
+    }
+
+    private JsonStreamWriter close(char bracket) throws IOException {
+        assert depth > 0 && !isAfterName : "Nothing to close";
+        depth--;
+        if (hasElements[depth]) {
+            newLine();
+        }
+        put(bracket);
+        return this;
+    }
+
+    private void startValue() throws IOException {
+        if (isAfterName) {
+            isAfterName = false;
+        } else {
+            startElement();
+        }
+    }
+
+    /**
+     * Separates an element from the one before it and puts it on its own line.
+     */
+    private void startElement() throws IOException {
+        if (depth == 0) {
+            return;
+        }
+        if (hasElements[depth - 1]) {
+            put(',');
+        }
+        hasElements[depth - 1] = true;
+        newLine();
+    }
+
+    private void newLine() throws IOException {
+        put('\n');
+        for (int i = 0; i < depth * INDENT; i++) {
+            put(' ');
+        }
+    }
+
+    private void putString(String value) throws IOException {
+        put('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"' -> put("\\\"");
+            case '\\' -> put("\\\\");
+            case '\n' -> put("\\n");
+            case '\r' -> put("\\r");
+            case '\t' -> put("\\t");
+            case '\b' -> put("\\b");
+            case '\f' -> put("\\f");
+            default -> {
+                if (c < 0x20) {
+                    put("\\u00");
+                    put(HEX_DIGITS[c >> 4]);
+                    put(HEX_DIGITS[c & 0xf]);
+                } else {
+                    put(c);
+                }
+            }
+            }
+        }
+        put('"');
+    }
+
+    private void put(CharSequence s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            put(s.charAt(i));
+        }
+    }
+
+    private void put(char c) throws IOException {
+        if (!chars.hasRemaining()) {
+            chars.flip();
+            // A high surrogate at the end is kept until its pair arrives
+            encode(chars, false);
+            chars.compact();
+        }
+        chars.put(c);
+    }
+
+    private void encode(CharBuffer input, boolean isEndOfInput) throws IOException {
+        CoderResult result = encoder.encode(input, bytes, isEndOfInput);
+        while (result.isOverflow()) {
+            writeBytes();
+            result = encoder.encode(input, bytes, isEndOfInput);
+        }
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
@@ -0,0 +1,148 @@
+package seedu.tripbuddy.storage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reloads the exchange rates whenever a rates file is created or changed.
+ * The file is parsed on a background daemon thread and the new rates are swapped in as one
+ * {@link seedu.tripbuddy.dataclass.RateTable}, so commands never wait on a reload or see part of one.
+ * The directory of the file is watched, so the file may be created after the watcher starts.
+ * A change is only read once the file has gone {@value #SETTLE_MILLIS} ms without another event or a change
+ * in size or modification time, so a file that an editor is still writing is not read part way.
+ * A writer that may pause for longer should write another file and rename it over this one.
+ * After each reload a callback runs on the same thread, such as to re-value expenses at the new rates.
+ */
+public class RatesFileWatcher implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger("TripBuddy");
+    /** Time the file must go unchanged before it is read. */
+    static final long SETTLE_MILLIS = 200;
+
+    private final Path file;
+    private final Runnable onReload;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    /**
+     * Constructs a watcher for a rates file. Call {@link #start()} to begin watching.
+     *
+     * @param file     Path of the rates file, whose directory must exist.
+     * @param onReload Called after each reload of the file.
+     * @throws IOException If the directory cannot be watched.
+     */
+    public RatesFileWatcher(Path file, Runnable onReload) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onReload = onReload;
+        Path directory = this.file.getParent();
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = new Thread(this::watch, "rates-file-watcher");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts watching on the background thread.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    private void watch() {
+        try {
+            boolean isWatching = true;
+            while (isWatching) {
+                WatchKey key = watchService.take();
+                boolean isChanged = isFileChanged(key);
+                isWatching = key.reset();
+                if (isChanged) {
+                    isWatching &= awaitSettled();
+                    reload();
+                }
+            }
+            LOGGER.log(Level.WARNING, "Stopped watching " + file + " as its directory is gone");
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed by close()
+        }
+    }
+
+    private boolean isFileChanged(WatchKey key) {
+        boolean isChanged = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // Overflowed events may have included the file
+            isChanged |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || file.getFileName().equals(event.context());
+        }
+        return isChanged;
+    }
+
+    /**
+     * Waits until the file goes {@link #SETTLE_MILLIS} ms without an event or a change in size or modification time.
+     *
+     * @return Whether the directory is still watched.
+     */
+    private boolean awaitSettled() throws InterruptedException {
+        List<Object> stamp = readStamp();
+        while (true) {
+            WatchKey key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+            boolean isChanged = false;
+            if (key != null) {
+                isChanged = isFileChanged(key);
+                if (!key.reset()) {
+                    return false;
+                }
+            }
+            List<Object> current = readStamp();
+            if (!isChanged && Objects.equals(stamp, current)) {
+                return true;
+            }
+            stamp = current;
+        }
+    }
+
+    /**
+     * Returns the size and modification time of the file, or null if it cannot be read.
+     */
+    private List<Object> readStamp() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return List.of(attributes.size(), attributes.lastModifiedTime());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void reload() {
+        try {
+            String message = DataHandler.getInstance().loadRates(file.toString());
+            if (!message.isEmpty()) {
+                LOGGER.log(Level.WARNING, "Skipped lines while reloading " + file + ":\n" + message);
+            }
+            onReload.run();
+        } catch (FileNotFoundException e) {
+            // Deleted or being replaced, the rates in use are kept
+            LOGGER.log(Level.INFO, "Rates file " + file + " is gone, keeping the current rates");
+        } catch (RuntimeException e) {
+            // Keep watching, so that the next change is still picked up
+            LOGGER.log(Level.SEVERE, "Failed to reload " + file, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -0,0 +1,311 @@
+package seedu.tripbuddy.storage;
+
+import seedu.tripbuddy.exception.DataLoadingException;
+import seedu.tripbuddy.exception.InvalidArgumentException;
+import seedu.tripbuddy.framework.ExpenseManager;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Hosts many trips in one process, each with its own {@link ExpenseManager} and save file.
+ * Trips are loaded from {@code <directory>/<tripId>.json} when first requested, and at most
+ * {@code capacity} of them are kept in memory. The least recently used trip is saved and
+ * dropped when another one has to be loaded.
+ * A trip is only reached through {@link #withTrip}, which pins it for the duration of the operation,
+ * so a trip is never evicted while in use and no edit is made to a manager that will not be saved again.
+ * Pinned trips may take the registry over capacity until they are released.
+ * Save files are read and written outside the registry lock, so one slow trip does not hold up the others.
+ */
+public class TripRegistry {
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private static final Logger LOGGER = Logger.getLogger("TripBuddy");
+    private static final Pattern TRIP_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final String SAVE_FILE_SUFFIX = ".json";
+
+    private final String directory;
+    private final int capacity;
+    private final DataHandler dataHandler = DataHandler.getInstance();
+    /** Loaded trips, from least to most recently used. */
+    private final LinkedHashMap<String, ExpenseManager> trips = new LinkedHashMap<>(16, 0.75f, true);
+    /** Number of operations in progress on each trip in use. */
+    private final HashMap<String, Integer> pins = new HashMap<>();
+    /** Loads in progress, completed once the trip is in {@link #trips}. */
+    private final HashMap<String, CompletableFuture<ExpenseManager>> loading = new HashMap<>();
+    /** Trips being saved for eviction, which are not picked for eviction again meanwhile. */
+    private final HashSet<String> saving = new HashSet<>();
+
+    /**
+     * Operation on the manager of a trip.
+     *
+     * @param <T> Type of the result.
+     */
+    @FunctionalInterface
+    public interface TripOperation<T> {
+
+        /**
+         * Runs the operation. The manager must not be used after the operation returns.
+         *
+         * @param trip The manager of the trip.
+         * @return The result.
+         * @throws InvalidArgumentException If the operation is invalid for the trip.
+         */
+        T apply(ExpenseManager trip) throws InvalidArgumentException;
+    }
+
+    /**
+     * Constructs a registry that keeps up to {@value #DEFAULT_CAPACITY} trips in memory.
+     *
+     * @param directory Directory holding the save file of each trip.
+     */
+    public TripRegistry(String directory) {
+        this(directory, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a registry.
+     *
+     * @param directory Directory holding the save file of each trip.
+     * @param capacity  Maximum number of trips kept in memory.
+     */
+    public TripRegistry(String directory, int capacity) {
+        assert capacity > 0 : "Capacity must be positive";
+        this.directory = directory;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the save file path of a trip.
+     *
+     * @param tripId Trip id.
+     * @return The path of its JSON save file.
+     * @throws InvalidArgumentException If the id is not made of letters, digits, '-' and '_'.
+     */
+    public String getSavePath(String tripId) throws InvalidArgumentException {
+        if (!TRIP_ID_PATTERN.matcher(tripId).matches()) {
+            throw new InvalidArgumentException(tripId, "Trip id should only contain letters, digits, '-' and '_'.");
+        }
+        return new File(directory, tripId + SAVE_FILE_SUFFIX).getPath();
+    }
+
+    /**
+     * Runs an operation on a trip, loading it from its save file, or starting it empty if it has none.
+     * The trip is pinned in memory until the operation returns. Operations on different trips,
+     * and on the same trip, may run at the same time.
+     * Loading or releasing may save and evict the least recently used trip that is not in use.
+     * A trip that cannot be saved is logged and kept in memory, so it never fails the operation.
+     *
+     * @param tripId    Trip id.
+     * @param operation Operation to run.
+     * @param <T>       Type of the result.
+     * @return The result of the operation.
+     * @throws InvalidArgumentException If the id is invalid, or the operation throws it.
+     * @throws DataLoadingException     If the save file cannot be parsed.
+     */
+    public <T> T withTrip(String tripId, TripOperation<T> operation)
+            throws InvalidArgumentException, DataLoadingException {
+        String path = getSavePath(tripId);
+        ExpenseManager trip = pinTrip(tripId, path);
+        try {
+            evictOverCapacity();
+            return operation.apply(trip);
+        } finally {
+            unpin(tripId);
+            evictOverCapacity();
+        }
+    }
+
+    /**
+     * Pins a trip and gets its manager, loading it outside the registry lock if it is not in memory.
+     * Only one caller loads a trip, and the others requesting it meanwhile wait for that load.
+     */
+    private ExpenseManager pinTrip(String tripId, String path) throws DataLoadingException {
+        CompletableFuture<ExpenseManager> load;
+        boolean isLoader = false;
+        synchronized (this) {
+            pins.merge(tripId, 1, Integer::sum);
+            ExpenseManager trip = trips.get(tripId);
+            if (trip != null) {
+                return trip;
+            }
+            load = loading.get(tripId);
+            if (load == null) {
+                load = new CompletableFuture<>();
+                loading.put(tripId, load);
+                isLoader = true;
+            }
+        }
+        if (isLoader) {
+            return loadTrip(tripId, path, load);
+        }
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            unpin(tripId);
+            if (e.getCause() instanceof DataLoadingException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private ExpenseManager loadTrip(String tripId, String path, CompletableFuture<ExpenseManager> load)
+            throws DataLoadingException {
+        ExpenseManager trip = ExpenseManager.createTrip();
+        try {
+            if (new File(path).exists()) {
+                String message = dataHandler.loadData(path, trip);
+                if (!message.isEmpty()) {
+                    LOGGER.log(Level.WARNING, "Trip " + tripId + " loaded with errors:\n" + message);
+                }
+            }
+        } catch (FileNotFoundException e) {
+            LOGGER.log(Level.INFO, "Trip " + tripId + " save file disappeared, starting empty");
+        } catch (DataLoadingException | RuntimeException e) {
+            synchronized (this) {
+                loading.remove(tripId);
+            }
+            unpin(tripId);
+            load.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            trips.put(tripId, trip);
+            loading.remove(tripId);
+        }
+        load.complete(trip);
+        return trip;
+    }
+
+    private synchronized void unpin(String tripId) {
+        pins.computeIfPresent(tripId, (id, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * Saves and drops the least recently used trips that are not in use until the registry is within capacity.
+     * The saves run outside the registry lock. A trip that cannot be saved is logged and kept,
+     * and a trip pinned again while it was being saved is kept too, since it may have changed since.
+     */
+    private void evictOverCapacity() {
+        List<Map.Entry<String, ExpenseManager>> victims = new ArrayList<>();
+        synchronized (this) {
+            int excess = trips.size() - saving.size() - capacity;
+            for (Map.Entry<String, ExpenseManager> entry : trips.entrySet()) {
+                if (victims.size() >= excess) {
+                    break;
+                }
+                if (!pins.containsKey(entry.getKey()) && saving.add(entry.getKey())) {
+                    victims.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            }
+        }
+        for (Map.Entry<String, ExpenseManager> victim : victims) {
+            try {
+                dropIfSaved(victim.getKey(), victim.getValue());
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Trip " + victim.getKey() + " could not be saved, keeping it loaded", e);
+            }
+        }
+    }
+
+    /**
+     * Saves a trip outside the registry lock, then drops it unless it was pinned meanwhile.
+     * The caller must have added the trip to {@link #saving}.
+     *
+     * @return True if the trip was dropped.
+     */
+    private boolean dropIfSaved(String tripId, ExpenseManager trip) throws IOException {
+        try {
+            saveTrip(tripId, trip);
+        } finally {
+            synchronized (this) {
+                saving.remove(tripId);
+            }
+        }
+        synchronized (this) {
+            if (pins.containsKey(tripId) || trips.get(tripId) != trip) {
+                return false;
+            }
+            trips.remove(tripId);
+        }
+        LOGGER.log(Level.INFO, "Trip evicted: " + tripId);
+        return true;
+    }
+
+    private void saveTrip(String tripId, ExpenseManager trip) throws IOException {
+        try {
+            dataHandler.saveData(getSavePath(tripId), trip);
+        } catch (InvalidArgumentException e) {
+            throw new AssertionError("Loaded trip with invalid id: " + tripId, e);
+        }
+    }
+
+    /**
+     * Checks whether a trip is currently held in memory.
+     *
+     * @param tripId Trip id.
+     * @return True if the trip is loaded.
+     */
+    public synchronized boolean isLoaded(String tripId) {
+        return trips.containsKey(tripId);
+    }
+
+    /**
+     * Gets the number of trips held in memory.
+     *
+     * @return The loaded trip count.
+     */
+    public synchronized int getLoadedCount() {
+        return trips.size();
+    }
+
+    /**
+     * Saves a loaded trip and drops it from memory, unless it is in use.
+     *
+     * @param tripId Trip id.
+     * @return True if the trip was evicted, false if it was not loaded, is in use or is already being saved.
+     * @throws IOException If the trip cannot be saved, in which case it stays loaded.
+     */
+    public boolean evict(String tripId) throws IOException {
+        ExpenseManager trip;
+        synchronized (this) {
+            trip = trips.get(tripId);
+            if (trip == null || pins.containsKey(tripId) || !saving.add(tripId)) {
+                return false;
+            }
+        }
+        return dropIfSaved(tripId, trip);
+    }
+
+    /**
+     * Saves every loaded trip, keeping them in memory.
+     *
+     * @throws IOException If a trip cannot be saved.
+     */
+    public void saveAll() throws IOException {
+        Map<String, ExpenseManager> loaded;
+        synchronized (this) {
+            loaded = new LinkedHashMap<>(trips);
+        }
+        for (Map.Entry<String, ExpenseManager> entry : loaded.entrySet()) {
+            saveTrip(entry.getKey(), entry.getValue());
+        }
+    }
+}
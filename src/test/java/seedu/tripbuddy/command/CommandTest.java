@@ -1,6 +1,7 @@
 package seedu.tripbuddy.command;
 
 import org.junit.jupiter.api.Test;
+import seedu.tripbuddy.exception.InvalidArgumentException;
 import seedu.tripbuddy.exception.MissingOptionException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -72,4 +73,19 @@ class CommandTest {
         Option opt3 = new Option("b", "");
         assertEquals("-b", opt3.toString());
     }
+
+    @Test
+    void parseIntTest() throws MissingOptionException, InvalidArgumentException {
+        Command cmd = new Command(Keyword.TOP_EXPENSE);
+        cmd.addOption(new Option("", "5"));
+        assertEquals(5, cmd.parseInt(""));
+
+        Command notInteger = new Command(Keyword.TOP_EXPENSE);
+        notInteger.addOption(new Option("", "2.5"));
+        assertThrows(InvalidArgumentException.class, () -> notInteger.parseInt(""));
+
+        Command negative = new Command(Keyword.TOP_EXPENSE);
+        negative.addOption(new Option("", "-1"));
+        assertThrows(InvalidArgumentException.class, () -> negative.parseInt(""));
+    }
 }
@@ -3,11 +3,15 @@ package seedu.tripbuddy.dataclass;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CurrencyTest {
 
@@ -15,7 +19,7 @@ class CurrencyTest {
 
     @BeforeEach
     void setBaseCurrencySGD() {
-        Currency.setBaseCurrency(Currency.SGD);
+        RateTable.install(RateTable.defaults());
         LOGGER.log(Level.INFO, "set base currency: " + Currency.SGD.getRate());
     }
 
@@ -66,4 +70,56 @@ class CurrencyTest {
         // Check that valueOf throws NullPointerException for a null argument
         assertThrows(NullPointerException.class, () -> Currency.valueOf(null));
     }
+
+    @Test
+    void toCanonicalTest_roundTripIsExactForEveryCurrency() {
+        try {
+            // A rate far above that of any other currency still keeps its smallest amounts
+            Currency.INR.setRate(500);
+            for (Currency currency : Currency.values()) {
+                for (long minorUnits : new long[] {1, 7, 99, 1234, 100_000_000, -5}) {
+                    Money amount = Money.ofMinorUnits(minorUnits);
+                    assertEquals(amount, currency.fromCanonical(currency.toCanonical(amount)), currency.toString());
+                }
+            }
+            Money total = Money.ZERO;
+            for (int i = 0; i < 10; i++) {
+                total = total.plus(Currency.INR.toCanonical(Money.of(0.01)));
+            }
+            assertEquals(Money.of(0.1), Currency.INR.fromCanonical(total));
+        } finally {
+            RateTable.install(RateTable.defaults());
+        }
+    }
+
+    @Test
+    void toCanonicalTest_matchesExactArithmetic() {
+        BigDecimal canonicalScaledRate = BigDecimal.valueOf(Currency.CANONICAL_SCALE * Currency.RATE_SCALE);
+        Random random = new Random(2113);
+        for (int i = 0; i < 100_000; i++) {
+            // Rates from a thousandth to a million per SGD
+            long scaledRate = 1000 + random.nextInt(1_000_000_000) * (long) random.nextInt(1000);
+            long minorUnits = random.nextInt() / (1 + random.nextInt(1000));
+            BigDecimal canonical = BigDecimal.valueOf(minorUnits).multiply(canonicalScaledRate)
+                    .divide(BigDecimal.valueOf(scaledRate), 0, RoundingMode.HALF_UP);
+            assertEquals(canonical.longValueExact(), Currency.toCanonical(minorUnits, scaledRate));
+            long canonicalUnits = random.nextLong() >> (1 + random.nextInt(63));
+            BigDecimal converted = BigDecimal.valueOf(canonicalUnits).multiply(BigDecimal.valueOf(scaledRate))
+                    .divide(canonicalScaledRate, 0, RoundingMode.HALF_UP);
+            assertEquals(converted.longValueExact(), Currency.fromCanonical(canonicalUnits, scaledRate));
+        }
+    }
+
+    @Test
+    void toCanonicalBoundTest_matchesAmountsShownAtTheBound() {
+        Currency currency = Currency.USD;
+        long lower = currency.toCanonicalLowerBound(1000);
+        long upper = currency.toCanonicalUpperBound(1000);
+        assertEquals(1000, currency.fromCanonical(Money.ofMinorUnits(lower)).getMinorUnits());
+        assertEquals(999, currency.fromCanonical(Money.ofMinorUnits(lower - 1)).getMinorUnits());
+        assertEquals(1000, currency.fromCanonical(Money.ofMinorUnits(upper)).getMinorUnits());
+        assertEquals(1001, currency.fromCanonical(Money.ofMinorUnits(upper + 1)).getMinorUnits());
+        assertEquals(Long.MIN_VALUE, currency.toCanonicalLowerBound(Long.MIN_VALUE));
+        assertEquals(Long.MAX_VALUE, currency.toCanonicalUpperBound(Long.MAX_VALUE));
+    }
 }
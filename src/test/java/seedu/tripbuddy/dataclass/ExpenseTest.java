@@ -9,6 +9,7 @@ import java.time.LocalDateTime;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 
@@ -94,6 +95,17 @@ class ExpenseTest {
         assertEquals(expected, expense.toString());
     }
 
+    @Test
+    void testAppendToMatchesToString() {
+        Expense expense = new Expense("Dinner", 20.5, "Food");
+        expense.setDateTime(LocalDateTime.parse("2025-04-05 20:00:00", Expense.FORMATTER));
+        StringBuilder sb = new StringBuilder(" - ");
+        assertSame(sb, expense.appendTo(sb));
+        assertEquals(" - " + expense, sb.toString());
+        assertEquals("name: Dinner, amount: 20.50 SGD, category: Food, date: 2025-04-05 20:00:00",
+                expense.toString());
+    }
+
     @Test
     void testSettersAndGetters() {
         Expense expense = new Expense("Test", 0);
@@ -0,0 +1,73 @@
+package seedu.tripbuddy.dataclass;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    @Test
+    void ofTest_roundsThroughDecimalRepresentation() {
+        assertEquals(29, Money.of(0.285).getMinorUnits());
+        assertEquals(101, Money.of(1.005).getMinorUnits());
+        assertEquals(-1250, Money.of(-12.5).getMinorUnits());
+        assertEquals(Money.ZERO, Money.of(0.004));
+    }
+
+    @Test
+    void plusTest_staysExactWhereDoublesDrift() {
+        Money total = Money.ZERO;
+        double doubleTotal = 0;
+        for (int i = 0; i < 1000; i++) {
+            total = total.plus(Money.of(0.1));
+            doubleTotal += 0.1;
+        }
+        assertEquals(Money.of(100), total);
+        assertTrue(doubleTotal != 100);
+        assertEquals(Money.ZERO, total.minus(Money.ofMinorUnits(10000)));
+    }
+
+    @Test
+    void timesTest_roundsHalfAwayFromZero() {
+        assertEquals(3, Money.ofMinorUnits(5).times(1, 2).getMinorUnits());
+        assertEquals(-3, Money.ofMinorUnits(-5).times(1, 2).getMinorUnits());
+        assertEquals(Money.of(1091100), Money.of(10000).times(109_110_000, Currency.RATE_SCALE));
+        // The product overflows a long and is computed exactly instead
+        assertEquals(Long.MAX_VALUE / 3, Money.ofMinorUnits(Long.MAX_VALUE / 3).times(7_000_000, 7_000_000)
+                .getMinorUnits());
+    }
+
+    @Test
+    void toStringTest_twoDecimalPlaces() {
+        assertEquals("12.50", Money.of(12.5).toString());
+        assertEquals("0.05", Money.ofMinorUnits(5).toString());
+        assertEquals("-0.05", Money.ofMinorUnits(-5).toString());
+        assertEquals("-1234.00", Money.of(-1234).toString());
+        assertEquals("10.50 USD", Currency.USD.getFormattedAmount(Money.of(10.5)));
+    }
+
+    @Test
+    void appendRoundedTest_matchesFormat() {
+        double[] values = {0, -0.0, 0.285, 1.005, 0.004, -0.004, 0.005, -12.345, 112.4, 0.7499999, 1_000_000.125,
+            1.0 / 3, 506.48499999999996, 1e15 + 0.125, 123_456_789_012_345.67};
+        for (double value : values) {
+            assertEquals(String.format("%.2f", value), Money.appendRounded(new StringBuilder(), value).toString());
+        }
+        // Every value with three decimal places, where each half is a tie
+        for (int thousandths = 0; thousandths < 100_000; thousandths++) {
+            double value = thousandths / 1000.0;
+            assertEquals(String.format("%.2f", value), Money.appendRounded(new StringBuilder(), value).toString());
+        }
+        // Random values near ties, where rounding the binary value instead would differ
+        Random random = new Random(2113);
+        for (int i = 0; i < 100_000; i++) {
+            double tie = random.nextInt(10_000_000) / 100.0 + 0.005;
+            double value = Math.nextAfter(tie, random.nextBoolean() ? Double.POSITIVE_INFINITY : 0);
+            assertEquals(String.format("%.2f", value), Money.appendRounded(new StringBuilder(), value).toString());
+        }
+        assertEquals("rate 0.75", Money.appendRounded(new StringBuilder("rate "), 0.75).toString());
+    }
+}
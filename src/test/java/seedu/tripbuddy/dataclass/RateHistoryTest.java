@@ -0,0 +1,79 @@
+package seedu.tripbuddy.dataclass;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateHistoryTest {
+
+    private static final LocalDateTime MAR_1 = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final LocalDateTime MAR_15 = LocalDateTime.of(2025, 3, 15, 0, 0);
+    private static final LocalDateTime APR_1 = LocalDateTime.of(2025, 4, 1, 0, 0);
+
+    @AfterEach
+    void tearDown() {
+        RateHistory.install(RateHistory.empty());
+    }
+
+    @Test
+    void getScaledRateTest_usesLatestChangeAtOrBeforeTime() {
+        // Added out of order, sorted on build
+        RateHistory history = new RateHistory.Builder()
+                .add(Currency.USD, APR_1, 0.8)
+                .add(Currency.USD, MAR_1, 0.7)
+                .build();
+        RateTable rates = RateTable.defaults();
+        long scale = Currency.RATE_SCALE;
+
+        assertEquals(rates.getScaledRate(Currency.USD),
+                history.getScaledRate(Currency.USD, RateHistory.toEpochSecond(MAR_1.minusSeconds(1)), rates));
+        assertEquals(scale * 7 / 10, history.getScaledRate(Currency.USD, RateHistory.toEpochSecond(MAR_1), rates));
+        assertEquals(scale * 7 / 10, history.getScaledRate(Currency.USD, RateHistory.toEpochSecond(MAR_15), rates));
+        assertEquals(scale * 8 / 10, history.getScaledRate(Currency.USD, RateHistory.toEpochSecond(APR_1), rates));
+        assertEquals(scale * 8 / 10,
+                history.getScaledRate(Currency.USD, RateHistory.toEpochSecond(APR_1.plusYears(1)), rates));
+        assertEquals(rates.getScaledRate(Currency.EUR),
+                history.getScaledRate(Currency.EUR, RateHistory.toEpochSecond(MAR_15), rates));
+    }
+
+    @Test
+    void getScaledRateTest_laterChangeAtSameSecondWins() {
+        RateHistory history = new RateHistory.Builder()
+                .add(Currency.USD, MAR_1, 0.7)
+                .add(Currency.USD, MAR_1, 0.75)
+                .build();
+        assertEquals(750_000,
+                history.getScaledRate(Currency.USD, RateHistory.toEpochSecond(MAR_1), RateTable.defaults()));
+    }
+
+    @Test
+    void convertTest_roundTripAtSameTimeIsExact() {
+        RateHistory.install(new RateHistory.Builder()
+                .add(Currency.SGD, MAR_1, 1)
+                .add(Currency.JPY, MAR_1, 100)
+                .add(Currency.JPY, APR_1, 120)
+                .build());
+        Money amount = Money.of(12.34);
+
+        assertEquals(Money.of(1234), Currency.JPY.fromCanonical(Currency.SGD.toCanonical(amount, MAR_15), MAR_15));
+        assertEquals(Money.of(1480.8), Currency.JPY.fromCanonical(Currency.SGD.toCanonical(amount, APR_1), APR_1));
+        for (LocalDateTime at : new LocalDateTime[] {MAR_1.minusDays(1), MAR_15, APR_1}) {
+            assertEquals(amount, Currency.SGD.fromCanonical(Currency.SGD.toCanonical(amount, at), at));
+            assertEquals(amount, Currency.JPY.fromCanonical(Currency.JPY.toCanonical(amount, at), at));
+        }
+    }
+
+    @Test
+    void isFixedAgainstCanonicalTest() {
+        RateHistory history = new RateHistory.Builder().add(Currency.USD, MAR_1, 0.7).build();
+        assertTrue(RateHistory.empty().isFixedAgainstCanonical(Currency.USD));
+        assertFalse(history.isFixedAgainstCanonical(Currency.USD));
+        assertTrue(history.isFixedAgainstCanonical(Currency.SGD));
+        assertEquals(1, history.size());
+    }
+}
@@ -0,0 +1,49 @@
+package seedu.tripbuddy.dataclass;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RateTableTest {
+
+    @AfterEach
+    void tearDown() {
+        RateTable.install(RateTable.defaults());
+    }
+
+    @Test
+    void getRateTest_crossRatesMatchScaledRates() {
+        RateTable rates = RateTable.defaults();
+        for (Currency from : Currency.values()) {
+            for (Currency to : Currency.values()) {
+                double expected = (double) rates.getScaledRate(to) / rates.getScaledRate(from);
+                assertEquals(expected, rates.getRate(from, to), 1e-12);
+            }
+        }
+        assertEquals(74, rates.convert(100, Currency.SGD, Currency.USD), 1e-9);
+        assertEquals(Money.of(10911), rates.convert(Money.of(100), Currency.SGD, Currency.JPY));
+    }
+
+    @Test
+    void withRateTest_leavesOriginalUnchanged() {
+        RateTable original = RateTable.defaults();
+        RateTable updated = original.withRate(Currency.USD, 0.8);
+        assertEquals(0.74, original.getRate(Currency.SGD, Currency.USD), 1e-12);
+        assertEquals(0.8, updated.getRate(Currency.SGD, Currency.USD), 1e-12);
+        assertEquals(1.25, updated.getRate(Currency.USD, Currency.SGD), 1e-12);
+        assertEquals(original.getVersion() + 1, updated.getVersion());
+    }
+
+    @Test
+    void setRateTest_installsNewTable() {
+        RateTable before = RateTable.current();
+        Currency.EUR.setRate(0.5);
+        RateTable after = RateTable.current();
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertEquals(0.68, before.getRate(Currency.SGD, Currency.EUR), 1e-12);
+        assertEquals(0.5, Currency.EUR.getRate(), 1e-12);
+        assertSame(after, RateTable.current());
+    }
+}
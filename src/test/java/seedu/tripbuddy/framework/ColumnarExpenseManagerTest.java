@@ -0,0 +1,9 @@
+package seedu.tripbuddy.framework;
+
+class ColumnarExpenseManagerTest extends ExpenseManagerTest {
+
+    @Override
+    ExpenseStoreType getStoreType() {
+        return ExpenseStoreType.COLUMNAR;
+    }
+}
@@ -11,10 +11,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import seedu.tripbuddy.dataclass.Currency;
 import seedu.tripbuddy.dataclass.Expense;
+import seedu.tripbuddy.dataclass.Money;
 import seedu.tripbuddy.exception.InvalidArgumentException;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -65,6 +67,24 @@ class CommandHandlerTest {
         assertTrue(message.contains("remaining budget of 60.00 SGD."));
     }
 
+    @Test
+    void handleViewBudgetTest_breaksDownSpendingByCurrency() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(100);
+        expenseManager.setBaseCurrency(Currency.SGD);
+        CommandHandler commandHandler = CommandHandler.getInstance();
+        commandHandler.handleAddExpense("item1", 40);
+        assertFalse(commandHandler.handleViewBudget().contains("("));
+
+        String added = commandHandler.handleAddExpense("ramen", 1200, "JPY");
+        assertTrue(added.startsWith("Expense ramen of 1200.00 JPY added successfully.\n"), added);
+        assertFalse(added.contains("category"), added);
+        assertEquals(null, expenseManager.getExpenseByName("ramen").getCategory());
+        commandHandler.handleAddExpense("sushi", 800, "JPY");
+        commandHandler.handleAddExpense("tuktuk", 300, "THB");
+        String message = commandHandler.handleViewBudget();
+        assertTrue(message.contains("(40.00 SGD + 300.00 THB + 2000.00 JPY)"), message);
+    }
+
     @Test
     void handleViewBudgetTest_exceededBudget() throws InvalidArgumentException {
         ExpenseManager expenseManager = ExpenseManager.getInstance(100);
@@ -94,6 +114,36 @@ class CommandHandlerTest {
         assertEquals("dining", expenseManager.getExpense(0).getCategory());
     }
 
+    @Test
+    void handleRenameAndMergeCategoryTest() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(DEFAULT_BUDGET);
+        CommandHandler commandHandler = CommandHandler.getInstance();
+        expenseManager.addExpense("meal", 50, "dining");
+        expenseManager.addExpense("cab", 20, "taxi");
+        assertEquals("Successfully renamed category dining to food.",
+                commandHandler.handleRenameCategory("dining", "food"));
+        assertEquals("Successfully merged category taxi into food.",
+                commandHandler.handleMergeCategory("taxi", "food"));
+        assertEquals("food", expenseManager.getExpense(1).getCategory());
+        assertEquals(List.of("food"), expenseManager.getCategories());
+    }
+
+    @Test
+    void handleViewTrendTest() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(DEFAULT_BUDGET);
+        CommandHandler commandHandler = CommandHandler.getInstance();
+        expenseManager.addExpense("meal", 50, "dining");
+        expenseManager.addExpense("cab", 20);
+        expenseManager.setExpenseDateTime("meal", LocalDateTime.of(2025, 4, 5, 12, 0));
+        expenseManager.setExpenseDateTime("cab", LocalDateTime.of(2025, 4, 20, 8, 0));
+        Currency baseCurrency = expenseManager.getBaseCurrency();
+        String expected = "Spending by month:" +
+                "\n - 2025-04: " + baseCurrency.getFormattedAmount(70) + " over 2 expenses" +
+                "\n     dining: " + baseCurrency.getFormattedAmount(50);
+        assertEquals(expected, commandHandler.handleViewTrend("month", null));
+        assertThrows(InvalidArgumentException.class, () -> commandHandler.handleViewTrend("year", null));
+    }
+
     @Test
     void handleDeleteExpenseTest() throws InvalidArgumentException {
         ExpenseManager expenseManager = ExpenseManager.getInstance(DEFAULT_BUDGET);
@@ -128,6 +178,26 @@ class CommandHandlerTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    void handleTopExpenseTest() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(DEFAULT_BUDGET);
+        CommandHandler commandHandler = CommandHandler.getInstance();
+        expenseManager.addExpense("a", 10);
+        expenseManager.addExpense("b", 30);
+        expenseManager.addExpense("c", 20);
+        String expected = "Top 2 expenses:" +
+                "\n - " + expenseManager.getExpenseByName("b") +
+                "\n - " + expenseManager.getExpenseByName("c");
+        assertEquals(expected, commandHandler.handleTopExpense(2));
+    }
+
+    @Test
+    void handleFilterExpenseByAmountRange_invertedRange_throwsException() {
+        CommandHandler commandHandler = CommandHandler.getInstance();
+        assertThrows(InvalidArgumentException.class,
+                () -> commandHandler.handleFilterExpenseByAmountRange(50, 10));
+    }
+
     @Test
     void handleMaxExpense_noExpenses_throwsException() {
         ExpenseManager expenseManager = ExpenseManager.getInstance(DEFAULT_BUDGET);
@@ -158,6 +228,20 @@ class CommandHandlerTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    void handleListExpense_byCategory_totalAmountSpent() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(DEFAULT_BUDGET);
+        CommandHandler commandHandler = CommandHandler.getInstance();
+        expenseManager.addExpense("a", 50, "food");
+        expenseManager.addExpense("b", 100, "transport");
+        expenseManager.addExpense("c", 25, "food");
+        String actual = commandHandler.handleListExpense("food");
+        assertTrue(actual.contains("name: a,"));
+        assertTrue(actual.contains("name: c,"));
+        assertTrue(actual.endsWith("\nTotal amount spent: " +
+                expenseManager.getBaseCurrency().getFormattedAmount(75) + "."));
+    }
+
     @Test
     void handleSearchExpense_matchingExpenses() throws InvalidArgumentException {
         ExpenseManager expenseManager = ExpenseManager.getInstance(DEFAULT_BUDGET);
@@ -175,6 +259,50 @@ class CommandHandlerTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    void handleListExpense_paged_showsNextOffset() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(DEFAULT_BUDGET);
+        CommandHandler commandHandler = CommandHandler.getInstance();
+        expenseManager.addExpense("a", 50);
+        expenseManager.addExpense("b", 100);
+        expenseManager.addExpense("c", 25);
+        String actual = commandHandler.handleListExpense(null, 1, 1);
+        assertTrue(actual.contains("name: b,"));
+        assertTrue(!actual.contains("name: a,") && !actual.contains("name: c,"));
+        assertTrue(actual.endsWith("\nShowing 2 to 2. Use -o 2 to see more.\nTotal amount spent: " +
+                expenseManager.getBaseCurrency().getFormattedAmount(175) + "."));
+        // The last page has no hint
+        assertTrue(commandHandler.handleListExpense(null, 1, 2).contains("name: c,"));
+        assertTrue(!commandHandler.handleListExpense(null, 1, 2).contains("Showing"));
+    }
+
+    @Test
+    void handleListExpense_offsetPastEnd_keepsTotal() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(DEFAULT_BUDGET);
+        CommandHandler commandHandler = CommandHandler.getInstance();
+        assertEquals("There are no expenses.", commandHandler.handleListExpense(null, 0, 10));
+        expenseManager.addExpense("a", 50);
+        assertEquals("There are no expenses at offset 5.\nTotal amount spent: "
+                + expenseManager.getBaseCurrency().getFormattedAmount(50) + ".",
+                commandHandler.handleListExpense(null, 5, 10));
+    }
+
+    @Test
+    void handleSearchExpense_paged() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(DEFAULT_BUDGET);
+        CommandHandler commandHandler = CommandHandler.getInstance();
+        expenseManager.addExpense("lunch", 20);
+        expenseManager.addExpense("lunch-buffet", 30);
+        expenseManager.addExpense("lunch-box", 10);
+        String actual = commandHandler.handleSearch("lunch", 0, 2);
+        assertTrue(actual.contains("name: lunch,"));
+        assertTrue(actual.contains("name: lunch-buffet,"));
+        assertTrue(!actual.contains("name: lunch-box,"));
+        assertTrue(actual.endsWith("\nShowing 1 to 2. Use -o 2 to see more."));
+        assertEquals("There are no expenses that matched your search word: lunch.",
+                commandHandler.handleSearch("lunch", 3, 2));
+    }
+
     @Test
     void handleSearchExpense_noMatchingExpenses() throws InvalidArgumentException {
         ExpenseManager expenseManager = ExpenseManager.getInstance(DEFAULT_BUDGET);
@@ -296,4 +424,36 @@ class CommandHandlerTest {
         assertThrows(DateTimeParseException.class, () ->
                 commandHandler.handleSetTime(name, invalidTime));
     }
+
+    @Test
+    public void addExpensesTest_rowsWithCategoryAndCurrency() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(DEFAULT_BUDGET);
+        CommandHandler commandHandler = CommandHandler.getInstance();
+        Currency baseCurrency = expenseManager.getBaseCurrency();
+        String message = commandHandler.handleAddExpenses("ramen shop, 12.5, food; taxi, 7.5;");
+
+        assertEquals("Successfully added 2 expenses.\nYour remaining budget is "
+                + baseCurrency.getFormattedAmount(DEFAULT_BUDGET - 20) + ".", message);
+        assertEquals("food", expenseManager.getExpenseByName("ramen shop").getCategory());
+        assertEquals(12.5, expenseManager.getCategoryTotal("food"), 0.001);
+
+        Currency other = baseCurrency == Currency.JPY ? Currency.USD : Currency.JPY;
+        commandHandler.handleAddExpenses("souvenir, 100, " + other.getFullName());
+        Expense souvenir = expenseManager.getExpenseByName("souvenir");
+        assertEquals(baseCurrency.convert(100, other), souvenir.getAmount(), 0.01);
+        assertEquals(other, souvenir.getOriginalCurrency());
+        assertEquals(Money.of(100), souvenir.getOriginalMoney());
+        assertEquals(null, souvenir.getCategory());
+    }
+
+    @Test
+    public void addExpensesTest_invalidRow_addsNothing() {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(DEFAULT_BUDGET);
+        CommandHandler commandHandler = CommandHandler.getInstance();
+        assertThrows(InvalidArgumentException.class, () -> commandHandler.handleAddExpenses("a, 1; b"));
+        assertThrows(InvalidArgumentException.class, () -> commandHandler.handleAddExpenses("a, 1; b, -2"));
+        assertThrows(InvalidArgumentException.class, () -> commandHandler.handleAddExpenses("a, 1; A, 2"));
+        assertThrows(InvalidArgumentException.class, () -> commandHandler.handleAddExpenses(" ; "));
+        assertTrue(expenseManager.getExpenses().isEmpty());
+    }
 }
@@ -1,16 +1,36 @@
 package seedu.tripbuddy.framework;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import seedu.tripbuddy.command.Command;
+import seedu.tripbuddy.dataclass.Category;
+import seedu.tripbuddy.dataclass.Currency;
 import seedu.tripbuddy.dataclass.Expense;
+import seedu.tripbuddy.dataclass.ExpenseEvent;
+import seedu.tripbuddy.dataclass.Money;
+import seedu.tripbuddy.dataclass.PeriodSpending;
+import seedu.tripbuddy.dataclass.RateHistory;
+import seedu.tripbuddy.dataclass.RateTable;
+import seedu.tripbuddy.dataclass.RollupPeriod;
 import seedu.tripbuddy.exception.InvalidArgumentException;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -23,6 +43,32 @@ class ExpenseManagerTest {
     void initExpenseManager() {
         ExpenseManager expenseManager = ExpenseManager.getInstance();
         expenseManager.clearExpensesAndCategories();
+        expenseManager.setStore(getStoreType().createStore());
+        // Expenses built without a currency are in the default base
+        expenseManager.setBaseCurrency(Currency.DEFAULT_BASE);
+    }
+
+    @AfterEach
+    void restoreDefaultStore() {
+        ExpenseManager expenseManager = ExpenseManager.getInstance();
+        expenseManager.clearExpensesAndCategories();
+        expenseManager.setStore(new ListExpenseStore());
+    }
+
+    /**
+     * Gets the type of store the tests keep expenses in. Subclasses override it to run the tests on another store.
+     */
+    ExpenseStoreType getStoreType() {
+        return ExpenseStoreType.LIST;
+    }
+
+    /**
+     * Creates a standalone trip keeping its expenses in the store under test.
+     */
+    ExpenseManager createTrip() {
+        ExpenseManager trip = ExpenseManager.createTrip();
+        trip.setStore(getStoreType().createStore());
+        return trip;
     }
 
     @Test
@@ -203,4 +249,748 @@ class ExpenseManagerTest {
 
         assertEquals(0, filteredExpenses.size(), "Should return 0 expenses since none are within the date range");
     }
+
+    @Test
+    void addExpenseTest_sameNameDifferentCase_expectInvalidArgumentException() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("Lunch", 10);
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.addExpense("lunch", 20));
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.addExpense("LUNCH", 20, "food"));
+        assertEquals(1, expenseManager.getExpenses().size());
+    }
+
+    @Test
+    void addExpenseTest_sameNameDifferentCase_ignoresDefaultLocale() throws InvalidArgumentException {
+        Locale defaultLocale = Locale.getDefault();
+        // Turkish maps "I" to a dotless i, which would give "TITLE" and "title" different keys
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            ExpenseManager expenseManager = createTrip();
+            expenseManager.addExpense("TITLE", 10);
+            assertThrows(InvalidArgumentException.class, () -> expenseManager.addExpense("title", 20));
+            assertEquals("TITLE", expenseManager.getExpenseByName("title").getName());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void deleteExpenseTest_differentCase_removesMatchingExpense() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("Lunch", 10);
+        expenseManager.addExpense("dinner", 20);
+        expenseManager.deleteExpense("lUNCH");
+
+        assertFalse(expenseManager.hasExpense("lunch"));
+        assertEquals("dinner", expenseManager.getExpense(0).getName());
+        assertEquals(20, expenseManager.getTotalExpense(), 0.001);
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.deleteExpense("Lunch"));
+
+        // The name is free again once deleted
+        expenseManager.addExpense("lunch", 5);
+        assertEquals("lunch", expenseManager.getExpenseByName("LUNCH").getName());
+    }
+
+    @Test
+    void setExpenseDateTimeTest_differentCase() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("Taxi", 30);
+        LocalDateTime dateTime = LocalDateTime.of(2025, 4, 1, 10, 0);
+        expenseManager.setExpenseDateTime("taxi", dateTime);
+        assertEquals(dateTime, expenseManager.getExpense(0).getDateTime());
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.setExpenseDateTime("bus", dateTime));
+    }
+
+    @Test
+    void clearExpensesAndCategoriesTest_resetsNameIndex() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("Hotel", 300);
+        expenseManager.clearExpensesAndCategories();
+        assertFalse(expenseManager.hasExpense("hotel"));
+        expenseManager.addExpense("hotel", 200);
+        assertEquals(1, expenseManager.getExpenses().size());
+    }
+
+    @Test
+    void getCategoryTotalTest_addMoveDelete() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("lunch", 20, "food");
+        expenseManager.addExpense("dinner", 30, "food");
+        expenseManager.addExpense("grab", 15, "transport");
+        assertEquals(50, expenseManager.getCategoryTotal("food"), 0.001);
+        assertEquals(15, expenseManager.getCategoryTotal("transport"), 0.001);
+
+        expenseManager.setExpenseCategory("dinner", "transport");
+        assertEquals(20, expenseManager.getCategoryTotal("food"), 0.001);
+        assertEquals(45, expenseManager.getCategoryTotal("transport"), 0.001);
+        assertEquals(List.of("grab", "dinner"), expenseManager.getExpensesByCategory("transport").stream()
+                .map(Expense::getName).toList());
+
+        expenseManager.deleteExpense("lunch");
+        assertEquals(0, expenseManager.getCategoryTotal("food"), 0.001);
+        assertTrue(expenseManager.getExpensesByCategory("food").isEmpty());
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.getCategoryTotal("shopping"));
+    }
+
+    @Test
+    void getExpensesTest_snapshotUnaffectedByLaterChanges() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("a", 10);
+        expenseManager.addExpense("b", 20);
+        List<Expense> snapshot = expenseManager.getExpenses();
+
+        expenseManager.addExpense("c", 30);
+        expenseManager.deleteExpense("a");
+        assertEquals(List.of("a", "b"), snapshot.stream().map(Expense::getName).toList());
+        assertEquals(List.of("b", "c"), expenseManager.getExpenses().stream().map(Expense::getName).toList());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(0));
+    }
+
+    @Test
+    void concurrencyTest_addDeleteAndListKeepInvariants() throws Exception {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        int threadCount = 8;
+        int perThread = 400;
+        // Every thread also updates these, so setters race on the same expense
+        int sharedCount = 3;
+        for (int i = 0; i < sharedCount; i++) {
+            expenseManager.addExpense("shared" + i, 10, "c0");
+        }
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            String prefix = "t" + t + "-";
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    String name = prefix + i;
+                    expenseManager.addExpense(name, i % 50 + 1, "c" + i % 4);
+                    if (i % 5 == 0) {
+                        expenseManager.getExpenseByName(name).setAmount(i % 7 + 1);
+                    }
+                    Expense shared = expenseManager.getExpenseByName("shared" + i % sharedCount);
+                    shared.setAmount(i % 11 + 1);
+                    shared.setCategory("c" + i % 3);
+                    shared.setDateTime(base.plusDays(i % 90));
+                    List<Expense> snapshot = expenseManager.getExpenses();
+                    IdentityHashMap<Expense, Boolean> seen = new IdentityHashMap<>();
+                    for (Expense expense : snapshot) {
+                        assertTrue(seen.put(expense, true) == null, "Duplicate in snapshot");
+                    }
+                    assertTrue(snapshot.stream().anyMatch(expense -> expense.getName().equals(name)));
+                    if (i % 2 == 1) {
+                        expenseManager.deleteExpense(name);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        List<Expense> remaining = expenseManager.getExpenses();
+        assertEquals(threadCount * perThread / 2 + sharedCount, remaining.size());
+        double sum = remaining.stream().mapToDouble(Expense::getAmount).sum();
+        assertEquals(sum, expenseManager.getTotalExpense(), 0.001);
+        assertEquals(remaining.size(), expenseManager.getExpensesByAmountRange(0, Double.MAX_VALUE).size());
+        double categorySum = 0;
+        for (String category : expenseManager.getCategories()) {
+            categorySum += expenseManager.getCategoryTotal(category);
+        }
+        assertEquals(sum, categorySum, 0.001);
+        double trendSum = 0;
+        for (PeriodSpending spending : expenseManager.getSpendingTrend(RollupPeriod.MONTH, null)) {
+            trendSum += spending.getTotal().toDouble();
+        }
+        assertEquals(sum, trendSum, 0.001);
+        assertEquals(remaining.stream().mapToDouble(Expense::getAmount).max().orElseThrow(),
+                expenseManager.getMaxExpense().getAmount(), 0.001);
+        assertEquals(remaining.size(),
+                expenseManager.getExpensesByDateRange(base.minusYears(10), base.plusYears(100)).size());
+    }
+
+    @Test
+    void getSpendingTrendTest_followsEveryChange() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("hotel", 100, "stay");
+        expenseManager.addExpense("lunch", 20, "food");
+        expenseManager.addExpense("taxi", 15);
+        // Sunday 2025-03-30 is in ISO week 13, Monday 2025-03-31 and Tuesday 2025-04-01 in week 14
+        expenseManager.setExpenseDateTime("hotel", LocalDateTime.of(2025, 3, 30, 22, 0));
+        expenseManager.setExpenseDateTime("lunch", LocalDateTime.of(2025, 3, 31, 12, 0));
+        expenseManager.setExpenseDateTime("taxi", LocalDateTime.of(2025, 4, 1, 9, 0));
+
+        List<PeriodSpending> weeks = expenseManager.getSpendingTrend(RollupPeriod.WEEK, null);
+        assertEquals(List.of("2025-W13", "2025-W14"), weeks.stream().map(PeriodSpending::getLabel).toList());
+        assertEquals(35, weeks.get(1).getTotal().toDouble(), 0.001);
+        assertEquals(2, weeks.get(1).getCount());
+        assertEquals(List.of("food"), List.copyOf(weeks.get(1).getCategoryTotals().keySet()));
+
+        List<PeriodSpending> months = expenseManager.getSpendingTrend(RollupPeriod.MONTH, null);
+        assertEquals(List.of("2025-03", "2025-04"), months.stream().map(PeriodSpending::getLabel).toList());
+        assertEquals(120, months.get(0).getTotal().toDouble(), 0.001);
+
+        expenseManager.setExpenseCategory("taxi", "food");
+        expenseManager.getExpenseByName("lunch").setAmount(25);
+        expenseManager.deleteExpense("hotel");
+        expenseManager.renameCategory("food", "meals");
+        List<PeriodSpending> days = expenseManager.getSpendingTrend(RollupPeriod.DAY, "meals");
+        assertEquals(List.of("2025-03-31", "2025-04-01"), days.stream().map(PeriodSpending::getLabel).toList());
+        assertEquals(25, days.get(0).getCategoryTotals().get("meals").toDouble(), 0.001);
+        assertEquals(15, days.get(1).getTotal().toDouble(), 0.001);
+        assertEquals(2, expenseManager.getSpendingTrend(RollupPeriod.DAY, null).size());
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.getSpendingTrend(RollupPeriod.DAY, "food"));
+    }
+
+    @Test
+    void renameExpenseTest_rejectsNameOfAnotherExpense() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("a", 10);
+        expenseManager.addExpense("b", 20);
+        Expense a = expenseManager.getExpenseByName("a");
+
+        assertThrows(IllegalArgumentException.class, () -> a.setName("B"));
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.renameExpense("a", "B"));
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.renameExpense("a", ""));
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.renameExpense("c", "d"));
+        assertEquals("a", a.getName());
+        assertEquals(20, expenseManager.getExpenseByName("b").getAmount(), 0.001);
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.addExpense("b", 5));
+
+        // Changing only the case keeps the expense under its own key
+        expenseManager.renameExpense("a", "A");
+        expenseManager.renameExpense("A", "c");
+        assertEquals(a, expenseManager.getExpenseByName("C"));
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.getExpenseByName("a"));
+        expenseManager.deleteExpense("b");
+        assertEquals(List.of("c"), expenseManager.getExpenses().stream().map(Expense::getName).toList());
+    }
+
+    @Test
+    void renameCategoryTest_expensesFollowNewName() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("lunch", 20, "food");
+        expenseManager.addExpense("dinner", 30, "food");
+        expenseManager.addExpense("grab", 15, "transport");
+
+        expenseManager.renameCategory("food", "meals");
+        assertEquals("meals", expenseManager.getExpenseByName("lunch").getCategory());
+        assertEquals(50, expenseManager.getCategoryTotal("meals"), 0.001);
+        assertFalse(expenseManager.getCategories().contains("food"));
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.getExpensesByCategory("food"));
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.renameCategory("meals", "transport"));
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.renameCategory("food", "drinks"));
+
+        expenseManager.createCategory("food");
+        assertTrue(expenseManager.getExpensesByCategory("food").isEmpty());
+        assertEquals(2, expenseManager.getExpensesByCategory("meals").size());
+    }
+
+    @Test
+    void mergeCategoryTest_keepsTotalsAcrossLaterChanges() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("lunch", 20, "food");
+        expenseManager.addExpense("chips", 5, "snacks");
+        expenseManager.addExpense("soda", 3, "drinks");
+
+        expenseManager.mergeCategory("snacks", "food");
+        expenseManager.mergeCategory("food", "drinks");
+        assertEquals(List.of("drinks"), expenseManager.getCategories());
+        assertEquals("drinks", expenseManager.getExpenseByName("chips").getCategory());
+        assertEquals(28, expenseManager.getCategoryTotal("drinks"), 0.001);
+        assertEquals(List.of("soda", "lunch", "chips"), expenseManager.getExpensesByCategory("drinks").stream()
+                .map(Expense::getName).toList());
+
+        expenseManager.getExpenseByName("chips").setAmount(7);
+        expenseManager.deleteExpense("lunch");
+        expenseManager.addExpense("juice", 4, "drinks");
+        assertEquals(14, expenseManager.getCategoryTotal("drinks"), 0.001);
+        assertEquals(List.of("soda", "juice", "chips"), expenseManager.getExpensesByCategory("drinks").stream()
+                .map(Expense::getName).toList());
+
+        expenseManager.setExpenseCategory("chips", "food");
+        assertEquals(7, expenseManager.getCategoryTotal("food"), 0.001);
+        assertEquals(7, expenseManager.getCategoryTotal("drinks"), 0.001);
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.mergeCategory("food", "food"));
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.mergeCategory("snacks", "food"));
+    }
+
+    @Test
+    void getExpensesByDateRangeTest_chronologicalAfterSetTime() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("late", 100);
+        expenseManager.addExpense("early", 200);
+        expenseManager.addExpense("middle", 300);
+
+        expenseManager.setExpenseDateTime("late", LocalDateTime.of(2025, 4, 5, 20, 0));
+        expenseManager.setExpenseDateTime("early", LocalDateTime.of(2025, 4, 1, 8, 0));
+        expenseManager.getExpenseByName("middle").setDateTime(LocalDateTime.of(2025, 4, 3, 12, 0));
+
+        List<Expense> filteredExpenses = expenseManager.getExpensesByDateRange(
+                LocalDateTime.of(2025, 4, 1, 8, 0), LocalDateTime.of(2025, 4, 5, 20, 0));
+        assertEquals(List.of("early", "middle", "late"), filteredExpenses.stream().map(Expense::getName).toList());
+
+        // Moving an expense out of the range must not leave a stale entry behind
+        expenseManager.getExpenseByName("middle").setDateTime(LocalDateTime.of(2025, 5, 1, 0, 0));
+        filteredExpenses = expenseManager.getExpensesByDateRange(
+                LocalDateTime.of(2025, 4, 1, 0, 0), LocalDateTime.of(2025, 4, 30, 0, 0));
+        assertEquals(List.of("early", "late"), filteredExpenses.stream().map(Expense::getName).toList());
+
+        expenseManager.deleteExpense("early");
+        filteredExpenses = expenseManager.getExpensesByDateRange(
+                LocalDateTime.of(2025, 4, 1, 0, 0), LocalDateTime.of(2025, 4, 30, 0, 0));
+        assertEquals(List.of("late"), filteredExpenses.stream().map(Expense::getName).toList());
+    }
+
+    @Test
+    void amountIndexTest_topPercentileAndRange() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("e40", 40);
+        expenseManager.addExpense("e10", 10);
+        expenseManager.addExpense("e30", 30);
+        expenseManager.addExpense("e50", 50);
+        expenseManager.addExpense("e20", 20);
+
+        assertEquals(List.of("e50", "e40", "e30"), expenseManager.getTopExpenses(3).stream()
+                .map(Expense::getName).toList());
+        assertEquals(5, expenseManager.getTopExpenses(10).size());
+        assertEquals("e30", expenseManager.getPercentileExpense(50).getName());
+        assertEquals("e50", expenseManager.getPercentileExpense(100).getName());
+        assertEquals("e10", expenseManager.getPercentileExpense(1).getName());
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.getPercentileExpense(101));
+        assertEquals(List.of("e20", "e30", "e40"), expenseManager.getExpensesByAmountRange(20, 40).stream()
+                .map(Expense::getName).toList());
+
+        expenseManager.deleteExpense("e50");
+        expenseManager.getExpenseByName("e10").setAmount(60);
+        assertEquals("e10", expenseManager.getMaxExpense().getName());
+        assertEquals("e20", expenseManager.getMinExpense().getName());
+        assertEquals(150, expenseManager.getTotalExpense(), 0.001);
+    }
+
+    @Test
+    void getMaxExpenseTest_tiedAmounts_returnsEarliest() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("first", 100);
+        expenseManager.addExpense("second", 100);
+        expenseManager.addExpense("small", 1);
+        assertEquals("first", expenseManager.getMaxExpense().getName());
+    }
+
+    @Test
+    void setBaseCurrencyTest_showsAmountsInNewBaseWithoutDrift() throws InvalidArgumentException {
+        ExpenseManager expenseManager = createTrip();
+        expenseManager.addExpense("a", 10, "food");
+        expenseManager.addExpense("b", 30, "food");
+        expenseManager.addExpense("c", 20.05);
+        Expense b = expenseManager.getExpenseByName("b");
+        Money canonical = b.getCanonicalMoney();
+
+        expenseManager.setBaseCurrency(Currency.JPY);
+        assertEquals(canonical, b.getCanonicalMoney());
+        assertEquals(Currency.JPY.convert(Money.of(30), Currency.SGD), b.getMoney());
+        assertEquals(Currency.JPY.convert(Money.of(40), Currency.SGD), expenseManager.getCategoryTotalMoney("food"));
+        assertEquals("b", expenseManager.getMaxExpense().getName());
+        assertEquals(List.of("c", "b"), expenseManager.getExpensesByAmountRange(
+                Currency.JPY.convert(20.05, Currency.SGD), Currency.JPY.convert(30, Currency.SGD)).stream()
+                .map(Expense::getName).toList());
+
+        // Amounts entered in one base are kept exactly through any number of switches
+        expenseManager.addExpense("d", 1234);
+        for (int i = 0; i < 100; i++) {
+            expenseManager.setBaseCurrency(i % 2 == 0 ? Currency.USD : Currency.JPY);
+        }
+        assertEquals(Money.of(1234), expenseManager.getExpenseByName("d").getMoney());
+        expenseManager.setBaseCurrency(Currency.SGD);
+        assertEquals(Money.of(10), expenseManager.getExpenseByName("a").getMoney());
+        assertEquals(Money.of(1000), expenseManager.getBudgetMoney());
+        assertEquals(canonical, b.getCanonicalMoney());
+        assertEquals("c", expenseManager.getExpensesByAmountRange(20.05, 20.05).get(0).getName());
+    }
+
+    @Test
+    void spendingByCurrencyTest_tracksAmountsAsEntered() throws InvalidArgumentException {
+        ExpenseManager expenseManager = createTrip();
+        expenseManager.addExpenses(List.of(
+                new Expense("ramen", Money.of(1200), Currency.JPY, null),
+                new Expense("sushi", Money.of(800), Currency.JPY, null),
+                new Expense("tuktuk", Money.of(300), Currency.THB, null)));
+        expenseManager.addExpense("taxi", 20);
+        assertEquals(Map.of(Currency.JPY, Money.of(2000), Currency.THB, Money.of(300), Currency.SGD, Money.of(20)),
+                expenseManager.getSpendingByCurrency());
+
+        // An amount set in the base currency is then held in it
+        expenseManager.getExpenseByName("sushi").setAmount(Money.of(5));
+        expenseManager.deleteExpense("tuktuk");
+        assertEquals(Map.of(Currency.JPY, Money.of(1200), Currency.SGD, Money.of(25)),
+                expenseManager.getSpendingByCurrency());
+        assertEquals(Money.of(1200), expenseManager.getExpenseByName("ramen").getOriginalMoney());
+
+        expenseManager.clearExpensesAndCategories();
+        assertTrue(expenseManager.getSpendingByCurrency().isEmpty());
+    }
+
+    @Test
+    void revalueExpensesTest_reconvertsAmountsAsEnteredAtNewRates() throws InvalidArgumentException {
+        ExpenseManager expenseManager = createTrip();
+        expenseManager.addExpenses(List.of(new Expense("ramen", Money.of(1200), Currency.JPY, new Category("food"))));
+        expenseManager.addExpense("taxi", 20, "transport");
+        Money ramenBefore = expenseManager.getExpenseByName("ramen").getMoney();
+        try {
+            Currency.JPY.setRate(120);
+            // Canonical units are fixed against SGD, so only the expense entered in JPY changes
+            assertEquals(1, expenseManager.revalueExpenses());
+            assertEquals(0, expenseManager.revalueExpenses());
+
+            assertEquals(Money.of(10), expenseManager.getExpenseByName("ramen").getMoney());
+            assertNotEquals(ramenBefore, expenseManager.getExpenseByName("ramen").getMoney());
+            assertEquals(Money.of(20), expenseManager.getExpenseByName("taxi").getMoney());
+            assertEquals(Money.of(30), expenseManager.getTotalExpenseMoney());
+            assertEquals(Money.of(10), expenseManager.getCategoryTotalMoney("food"));
+            assertEquals("ramen", expenseManager.getMinExpense().getName());
+        } finally {
+            RateTable.install(RateTable.defaults());
+        }
+    }
+
+    @Test
+    void rateHistoryTest_valuesEachExpenseAtRatesOfItsTime() throws InvalidArgumentException {
+        LocalDateTime march = LocalDateTime.of(2025, 3, 10, 12, 0);
+        LocalDateTime april = LocalDateTime.of(2025, 4, 10, 12, 0);
+        RateHistory.install(new RateHistory.Builder()
+                .add(Currency.USD, march, 0.7)
+                .add(Currency.USD, april, 0.8)
+                .build());
+        try {
+            ExpenseManager expenseManager = createTrip();
+            expenseManager.addExpenses(List.of(
+                    new Expense("march", Money.of(100), Currency.SGD, new Category("food"), march),
+                    new Expense("april", Money.of(100), Currency.SGD, new Category("food"), april)));
+
+            expenseManager.setBaseCurrency(Currency.USD);
+            assertEquals(Money.of(70), expenseManager.getExpenseByName("march").getMoney());
+            assertEquals(Money.of(80), expenseManager.getExpenseByName("april").getMoney());
+            assertEquals(Money.of(150), expenseManager.getTotalExpenseMoney());
+            assertEquals(Money.of(150), expenseManager.getCategoryTotalMoney("food"));
+            assertEquals(Money.of(740 - 150), expenseManager.getRemainingBudgetMoney());
+            assertEquals(List.of("april"), expenseManager.getExpensesByAmountRange(75, 85).stream()
+                    .map(Expense::getName).toList());
+            ExpenseQuery query = new ExpenseQuery();
+            query.setAmountRange(Money.of(75), Money.of(85));
+            assertEquals(List.of("april"), expenseManager.query(query, 0, ExpenseManager.NO_LIMIT)
+                    .getExpenses().stream().map(Expense::getName).toList());
+            assertEquals(List.of(Money.of(70), Money.of(80)),
+                    expenseManager.getSpendingTrend(RollupPeriod.MONTH, null).stream()
+                            .map(PeriodSpending::getTotal).toList());
+
+            // Amounts entered in SGD are shown unchanged in SGD whatever the rates of other currencies
+            expenseManager.setBaseCurrency(Currency.SGD);
+            assertEquals(Money.of(200), expenseManager.getTotalExpenseMoney());
+        } finally {
+            RateHistory.install(RateHistory.empty());
+        }
+    }
+
+    @Test
+    void totalExpenseTest_noDriftAfterAddDeleteCycles() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("kept", 0.3, "food");
+        for (int i = 0; i < 2000; i++) {
+            expenseManager.addExpense("e" + i, 0.1 + (i % 7) * 0.01, "food");
+        }
+        for (int i = 0; i < 2000; i++) {
+            expenseManager.deleteExpense("e" + i);
+        }
+        assertEquals(Money.of(0.3), expenseManager.getTotalExpenseMoney());
+        assertEquals(Money.of(0.3), expenseManager.getCategoryTotalMoney("food"));
+        assertEquals(Money.of(999.7), expenseManager.getRemainingBudgetMoney());
+    }
+
+    @Test
+    void getExpensesBySearchwordTest_trigramIndex() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("Lunch", 20);
+        expenseManager.addExpense("dinner", 40);
+        expenseManager.addExpense("LUNCH-buffet", 30);
+        expenseManager.addExpense("brunch", 15);
+
+        assertEquals(List.of("Lunch", "LUNCH-buffet"), expenseManager.getExpensesBySearchword("lunCH").stream()
+                .map(Expense::getName).toList());
+        assertEquals(List.of("Lunch", "LUNCH-buffet", "brunch"), expenseManager.getExpensesBySearchword("UN")
+                .stream().map(Expense::getName).toList());
+        // Every trigram matches but the word itself does not occur
+        assertTrue(expenseManager.getExpensesBySearchword("unchunch").isEmpty());
+        assertTrue(expenseManager.getExpensesBySearchword("shopping").isEmpty());
+
+        expenseManager.deleteExpense("lunch");
+        assertEquals(List.of("LUNCH-buffet"), expenseManager.getExpensesBySearchword("lunch").stream()
+                .map(Expense::getName).toList());
+    }
+
+    @Test
+    void setStoreTest_movesExistingExpenses() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("lunch", 20, "food");
+        expenseManager.setStore(getStoreType().createStore());
+        expenseManager.addExpense("dinner", 40, "food");
+        expenseManager.addExpense("taxi", 15);
+        expenseManager.deleteExpense("lunch");
+        expenseManager.getExpenseByName("taxi").setAmount(25);
+
+        assertEquals(List.of("dinner", "taxi"), expenseManager.getExpenses().stream()
+                .map(Expense::getName).toList());
+        assertEquals("taxi", expenseManager.getExpense(1).getName());
+        assertEquals(List.of("dinner"), expenseManager.getExpensesBySearchword("NN").stream()
+                .map(Expense::getName).toList());
+        assertEquals(65, expenseManager.getTotalExpense(), 0.001);
+        assertEquals(40, expenseManager.getCategoryTotal("food"), 0.001);
+    }
+
+    @Test
+    void addExpensesTest_indexesWholeBatch() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("lunch", 20, "food");
+        ArrayList<Expense> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(new Expense("item" + i, i + 1, i % 2 == 0 ? "food" : null));
+        }
+        expenseManager.addExpenses(batch);
+
+        assertEquals(101, expenseManager.getExpenses().size());
+        assertEquals("item99", expenseManager.getExpense(100).getName());
+        assertEquals(20 + 5050, expenseManager.getTotalExpense(), 0.001);
+        assertEquals(20 + 2500, expenseManager.getCategoryTotal("food"), 0.001);
+        assertEquals("item99", expenseManager.getMaxExpense().getName());
+        assertEquals(11, expenseManager.getExpensesBySearchword("item9").size());
+        expenseManager.getExpenseByName("ITEM0").setAmount(200);
+        assertEquals("item0", expenseManager.getMaxExpense().getName());
+    }
+
+    @Test
+    void addExpensesTest_invalidRow_addsNothing() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("lunch", 20);
+        List<Expense> withInBatchDuplicate = List.of(new Expense("taxi", 10, "transport"), new Expense("Taxi", 5));
+        List<Expense> withExistingName = List.of(new Expense("dinner", 10), new Expense("LUNCH", 5));
+        List<Expense> withTooLargeAmount = List.of(new Expense("hotel", Command.MAX_INPUT_VAL + 1));
+        List<Expense> withEmptyCategory = List.of(new Expense("museum", 10, ""));
+
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.addExpenses(withInBatchDuplicate));
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.addExpenses(withExistingName));
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.addExpenses(withTooLargeAmount));
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.addExpenses(withEmptyCategory));
+        assertEquals(1, expenseManager.getExpenses().size());
+        assertEquals(20, expenseManager.getTotalExpense(), 0.001);
+        assertFalse(expenseManager.getCategories().contains("transport"));
+    }
+
+    @Test
+    void pagedGettersTest_returnsOnlyThePage() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        for (int i = 0; i < 10; i++) {
+            if (i % 2 == 0) {
+                expenseManager.addExpense("meal" + i, i + 1, "food");
+            } else {
+                expenseManager.addExpense("meal" + i, i + 1);
+            }
+            expenseManager.setExpenseDateTime("meal" + i, LocalDateTime.of(2025, 4, 10 - i, 12, 0));
+        }
+
+        assertEquals(List.of("meal3", "meal4", "meal5"), expenseManager.getExpenses(3, 3).stream()
+                .map(Expense::getName).toList());
+        assertEquals(List.of("meal8"), expenseManager.getExpenses(8, 1).stream()
+                .map(Expense::getName).toList());
+        assertTrue(expenseManager.getExpenses(10, 5).isEmpty());
+        assertEquals(List.of("meal4", "meal6"), expenseManager.getExpensesByCategory("food", 2, 2)
+                .stream().map(Expense::getName).toList());
+        assertEquals(List.of("meal2", "meal3"), expenseManager.getExpensesBySearchword("MEAL", 2, 2)
+                .stream().map(Expense::getName).toList());
+        // Chronological order, so the last-added expense comes first
+        assertEquals(List.of("meal8", "meal7"), expenseManager.getExpensesByDateRange(
+                LocalDateTime.of(2025, 4, 1, 0, 0), LocalDateTime.of(2025, 4, 30, 0, 0), 1, 2)
+                .stream().map(Expense::getName).toList());
+    }
+
+    @Test
+    void queryTest_startsFromMostSelectiveIndex() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        for (int i = 0; i < 20; i++) {
+            String name = (i % 2 == 0 ? "meal" : "taxi") + i;
+            if (i % 2 == 0) {
+                expenseManager.addExpense(name, i + 1, "food");
+            } else {
+                expenseManager.addExpense(name, i + 1);
+            }
+            expenseManager.setExpenseDateTime(name, LocalDateTime.of(2025, 4, 1 + i, 12, 0));
+        }
+
+        ExpenseQuery query = new ExpenseQuery();
+        query.setCategory("food");
+        query.setAmountRange(Money.of(15), null);
+        QueryResult result = expenseManager.query(query, 0, ExpenseManager.NO_LIMIT);
+        assertEquals(List.of("meal14", "meal16", "meal18"), result.getExpenses().stream()
+                .map(Expense::getName).toList());
+        assertEquals("amount index (estimated 6 rows), then filter by category", result.getPlan());
+        assertEquals(6, result.getRowsScanned());
+
+        query.setAmountRange(null, null);
+        query.setDateRange(LocalDateTime.of(2025, 4, 3, 0, 0), LocalDateTime.of(2025, 4, 4, 23, 59));
+        result = expenseManager.query(query, 0, ExpenseManager.NO_LIMIT);
+        assertEquals(List.of("meal2"), result.getExpenses().stream().map(Expense::getName).toList());
+        assertEquals("time index (estimated 3 rows), then filter by category", result.getPlan());
+        assertEquals(2, result.getRowsScanned());
+
+        // The scan stops once the page is full
+        ExpenseQuery byName = new ExpenseQuery();
+        byName.setNameContaining("MEAL");
+        result = expenseManager.query(byName, 0, 2);
+        assertEquals(List.of("meal0", "meal2"), result.getExpenses().stream().map(Expense::getName).toList());
+        assertEquals("name index (estimated 10 rows)", result.getPlan());
+        assertEquals(2, result.getRowsScanned());
+
+        // Too short for the name index
+        byName.setNameContaining("i1");
+        result = expenseManager.query(byName, 0, ExpenseManager.NO_LIMIT);
+        assertEquals(6, result.getExpenses().size());
+        assertEquals("full scan (estimated 20 rows), then filter by name", result.getPlan());
+
+        ExpenseQuery byMissingCategory = new ExpenseQuery();
+        byMissingCategory.setCategory("hotel");
+        assertThrows(InvalidArgumentException.class, () -> expenseManager.query(byMissingCategory, 0, 1));
+        assertThrows(InvalidArgumentException.class, () -> query.setAmountRange(Money.of(2), Money.of(1)));
+    }
+
+    @Test
+    void queryTest_sameMatchesWhicheverIndexIsChosen() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        for (int i = 0; i < 30; i++) {
+            expenseManager.addExpense("item" + i, i % 7 + 1, i % 3 == 0 ? "food" : "transport");
+            expenseManager.setExpenseDateTime("item" + i, LocalDateTime.of(2025, 4, 1, i % 5, 0));
+        }
+        ExpenseQuery query = new ExpenseQuery();
+        query.setCategory("food");
+        query.setDateRange(LocalDateTime.of(2025, 4, 1, 1, 0), null);
+        query.setAmountRange(Money.of(2), Money.of(6));
+        query.setNameContaining("TEM");
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            if (i % 3 == 0 && i % 5 >= 1 && i % 7 + 1 >= 2 && i % 7 + 1 <= 6) {
+                expected.add("item" + i);
+            }
+        }
+        List<String> actual = new ArrayList<>(expenseManager.query(query, 0, ExpenseManager.NO_LIMIT)
+                .getExpenses().stream().map(Expense::getName).toList());
+        expected.sort(null);
+        actual.sort(null);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void deleteExpensesTest_keepsIndexesAndTotals() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        for (int i = 0; i < 10; i++) {
+            expenseManager.addExpense("meal" + i, i + 1, i % 2 == 0 ? "food" : "drinks");
+            expenseManager.setExpenseDateTime("meal" + i, LocalDateTime.of(2025, 4, 1 + i, 12, 0));
+        }
+        ExpenseQuery byCategory = new ExpenseQuery();
+        byCategory.setCategory("food");
+        assertEquals(5, expenseManager.deleteExpenses(byCategory).size());
+
+        ExpenseQuery byDate = new ExpenseQuery();
+        byDate.setDateRange(null, LocalDateTime.of(2025, 4, 4, 0, 0));
+        assertEquals(List.of("meal1"), expenseManager.deleteExpenses(byDate).stream()
+                .map(Expense::getName).toList());
+
+        assertEquals(List.of("meal3", "meal5", "meal7", "meal9"), expenseManager.getExpenses().stream()
+                .map(Expense::getName).toList());
+        assertEquals("meal5", expenseManager.getExpense(1).getName());
+        assertEquals(List.of("meal7", "meal9"), expenseManager.getExpenses(2, 5).stream()
+                .map(Expense::getName).toList());
+        assertEquals(4 + 6 + 8 + 10, expenseManager.getTotalExpense(), 0.001);
+        assertEquals(0, expenseManager.getCategoryTotal("food"), 0.001);
+        assertEquals("meal9", expenseManager.getMaxExpense().getName());
+        assertTrue(expenseManager.getExpensesBySearchword("meal1").isEmpty());
+        // Deleted names can be reused
+        expenseManager.addExpense("meal0", 1);
+        assertEquals(5, expenseManager.getExpenses().size());
+    }
+
+    @Test
+    void deleteExpensesTest_clearsLargeImport() throws InvalidArgumentException {
+        ExpenseManager expenseManager = ExpenseManager.getInstance(1000);
+        expenseManager.addExpense("kept", 5);
+        expenseManager.setExpenseDateTime("kept", LocalDateTime.of(2025, 1, 1, 0, 0));
+        ArrayList<Expense> batch = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            Expense expense = new Expense("import" + i, 1, "imported");
+            expense.setDateTime(LocalDateTime.of(2025, 4, 1, 0, 0).plusSeconds(i));
+            batch.add(expense);
+        }
+        expenseManager.addExpenses(batch);
+
+        ExpenseQuery query = new ExpenseQuery();
+        query.setDateRange(LocalDateTime.of(2025, 4, 1, 0, 0), null);
+        assertEquals(100_000, expenseManager.deleteExpenses(query).size());
+        assertEquals(List.of("kept"), expenseManager.getExpenses().stream().map(Expense::getName).toList());
+        assertEquals(5, expenseManager.getTotalExpense(), 0.001);
+    }
+
+    @Test
+    void subscribeTest_everyMutationIsPublished() throws InvalidArgumentException {
+        ExpenseManager expenseManager = createTrip();
+        ArrayList<String> events = new ArrayList<>();
+        ExpenseListener listener = event -> events.add(event.toString());
+        expenseManager.subscribe(listener);
+
+        expenseManager.addExpense("taxi", 10);
+        expenseManager.setExpenseCategory("taxi", "transport");
+        expenseManager.setExpenseDateTime("taxi", LocalDateTime.of(2025, 4, 1, 8, 0));
+        expenseManager.getExpenseByName("taxi").setAmount(12);
+        expenseManager.getExpenseByName("taxi").setName("cab");
+        expenseManager.addExpenses(List.of(new Expense("bus", 2), new Expense("train", 3)));
+        expenseManager.deleteExpense("bus");
+        ExpenseQuery query = new ExpenseQuery();
+        query.setNameContaining("rain");
+        expenseManager.deleteExpenses(query);
+        expenseManager.clearExpensesAndCategories();
+        expenseManager.unsubscribe(listener);
+        expenseManager.addExpense("ignored", 1);
+
+        assertEquals(List.of("ADDED taxi", "RECATEGORIZED taxi", "RETIMED taxi", "REVALUED taxi", "RENAMED cab",
+                "ADDED bus", "ADDED train", "REMOVED bus", "REMOVED train", "CLEARED"), events);
+    }
+
+    @Test
+    void setterTest_renameAndRecategorizeKeepIndexes() throws InvalidArgumentException {
+        ExpenseManager expenseManager = createTrip();
+        ArrayList<ExpenseEvent> events = new ArrayList<>();
+        expenseManager.subscribe(events::add);
+        expenseManager.addExpense("lunch", 12, "food");
+        expenseManager.addExpense("taxi", 20);
+        events.clear();
+
+        Expense taxi = expenseManager.getExpenseByName("taxi");
+        taxi.setName("Airport Cab");
+        taxi.setCategory("food");
+        assertFalse(expenseManager.hasExpense("taxi"));
+        assertEquals(taxi, expenseManager.getExpenseByName("airport cab"));
+        assertEquals(List.of(taxi), expenseManager.getExpensesBySearchword("port"));
+        assertTrue(expenseManager.getExpensesBySearchword("tax").isEmpty());
+        assertEquals("Airport Cab", expenseManager.getExpenses().get(1).getName());
+        // Bound to the shared entry rather than a standalone one
+        assertEquals(expenseManager.getExpenseByName("lunch").getCategoryEntry(), taxi.getCategoryEntry());
+        assertEquals(32, expenseManager.getCategoryTotal("food"), 0.001);
+        assertEquals("RECATEGORIZED Airport Cab", events.get(1).toString());
+        assertEquals(null, events.get(1).getOldCategory());
+
+        taxi.setCategory(null);
+        assertEquals(12, expenseManager.getCategoryTotal("food"), 0.001);
+        assertEquals(32, expenseManager.getTotalExpense(), 0.001);
+    }
 }
@@ -0,0 +1,125 @@
+package seedu.tripbuddy.framework;
+
+import org.junit.jupiter.api.Test;
+import seedu.tripbuddy.dataclass.Currency;
+import seedu.tripbuddy.dataclass.Expense;
+import seedu.tripbuddy.dataclass.RateHistory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpenseStoreTest {
+
+    @Test
+    void addRemoveTest_keepsOrderAcrossGrowth() {
+        for (ExpenseStoreType storeType : ExpenseStoreType.values()) {
+            ExpenseStore store = storeType.createStore();
+            ArrayList<Expense> added = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Expense expense = new Expense("e" + i, i + 1, i % 2 == 0 ? "even" : null);
+                added.add(expense);
+                store.add(expense);
+            }
+            store.remove(added.get(0));
+            store.remove(added.get(50));
+            added.remove(50);
+            added.remove(0);
+
+            assertEquals(98, store.size(), storeType.toString());
+            assertEquals(added, store.toList());
+            assertSame(added.get(49), store.get(49));
+            assertThrows(IndexOutOfBoundsException.class, () -> store.get(98));
+
+            double expectedSum = 0;
+            for (Expense expense : added) {
+                expectedSum += expense.getAmount();
+            }
+            assertEquals(expectedSum, store.sumAmounts(Currency.DEFAULT_BASE, RateHistory.current()).toDouble(), 0.001);
+        }
+    }
+
+    @Test
+    void updateTest_refreshesChangedFields() {
+        for (ExpenseStoreType storeType : ExpenseStoreType.values()) {
+            ExpenseStore store = storeType.createStore();
+            Expense lunch = new Expense("Lunch", 10);
+            store.add(lunch);
+            store.add(new Expense("dinner", 20));
+            lunch.setAmount(15);
+            store.update(lunch);
+            assertEquals(35, store.sumAmounts(Currency.DEFAULT_BASE, RateHistory.current()).toDouble(), 0.001);
+            assertEquals(List.of(lunch), store.findByNameContaining("UN"));
+        }
+    }
+
+    @Test
+    void clearTest() {
+        for (ExpenseStoreType storeType : ExpenseStoreType.values()) {
+            ExpenseStore store = storeType.createStore();
+            store.add(new Expense("a", 1));
+            store.clear();
+            assertTrue(store.isEmpty(), storeType.toString());
+            assertEquals(0, store.sumAmounts(Currency.DEFAULT_BASE, RateHistory.current()).toDouble(), 0.001);
+            assertTrue(store.toList().isEmpty());
+        }
+    }
+
+    @Test
+    void removeTest_tombstonesUntilRatioThenCompacts() {
+        for (ExpenseStoreType storeType : ExpenseStoreType.values()) {
+            ExpenseStore store = storeType.createStore();
+            ArrayList<Expense> added = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Expense expense = new Expense("e" + i, i + 1);
+                added.add(expense);
+                store.add(expense);
+            }
+            store.remove(added.get(1));
+            store.remove(added.get(5));
+
+            // Two of eight rows is not more than a quarter
+            assertEquals(2, store.getTombstoneCount(), storeType.toString());
+            assertEquals(6, store.size());
+            assertEquals(List.of(added.get(0), added.get(2), added.get(3), added.get(4), added.get(6), added.get(7)),
+                    store.toList());
+            assertSame(added.get(6), store.get(4));
+            assertThrows(IndexOutOfBoundsException.class, () -> store.get(6));
+            assertEquals(28, store.sumAmounts(Currency.DEFAULT_BASE, RateHistory.current()).toDouble(), 0.001);
+            assertTrue(store.findByNameContaining("5").isEmpty());
+
+            store.remove(added.get(0));
+            assertEquals(0, store.getTombstoneCount());
+            assertEquals(List.of(added.get(2), added.get(3), added.get(4), added.get(6), added.get(7)), store.toList());
+            assertSame(added.get(4), store.get(2));
+            // Rows moved by compaction are still found by later updates
+            added.get(7).setAmount(10);
+            store.update(added.get(7));
+            assertEquals(29, store.sumAmounts(Currency.DEFAULT_BASE, RateHistory.current()).toDouble(), 0.001);
+            assertEquals(List.of(added.get(7)), store.findByNameContaining("E7"));
+        }
+    }
+
+    @Test
+    void removeAllTest_compactsOnce() {
+        for (ExpenseStoreType storeType : ExpenseStoreType.values()) {
+            ExpenseStore store = storeType.createStore();
+            ArrayList<Expense> added = new ArrayList<>();
+            ArrayList<Expense> removed = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Expense expense = new Expense("e" + i, i + 1);
+                (i % 2 == 0 ? removed : added).add(expense);
+                store.add(expense);
+            }
+            store.removeAll(removed);
+
+            assertEquals(0, store.getTombstoneCount(), storeType.toString());
+            assertEquals(added, store.toList());
+            assertEquals(2550, store.sumAmounts(Currency.DEFAULT_BASE, RateHistory.current()).toDouble(), 0.001);
+        }
+    }
+}
@@ -112,4 +112,32 @@ public class InputHandlerTest {
                 () -> inputHandler.handleUserInput("     set-time Lunch -t 2024-04-01 10:00:00")
         );
     }
+
+    @Test
+    public void handleUserInputTest_queryWithExplain() {
+        inputHandler.handleUserInput("add-expense lunch -a 12 -c food");
+        inputHandler.handleUserInput("add-expense dinner -a 30 -c food");
+        inputHandler.handleUserInput("add-expense taxi -a 25");
+
+        String output = inputHandler.handleUserInput("query -c food -max 20 -e");
+        assertTrue(output.startsWith("Expenses that matched the query:"));
+        assertTrue(output.contains("name: lunch,"));
+        assertFalse(output.contains("name: dinner,"));
+        assertTrue(output.contains("\nPlan: "));
+        assertTrue(output.endsWith("\nRows scanned: 1"));
+        assertTrue(inputHandler.handleUserInput("query -min 20 -max 10").contains("Lower bound"));
+    }
+
+    @Test
+    public void handleUserInputTest_bulkDelete() {
+        inputHandler.handleUserInput("add-expense lunch -a 12 -c food");
+        inputHandler.handleUserInput("add-expense dinner -a 30 -c food");
+        inputHandler.handleUserInput("add-expense taxi -a 8");
+
+        assertTrue(inputHandler.handleUserInput("delete-expense -c food").startsWith("2 expenses deleted"));
+        assertTrue(inputHandler.handleUserInput("list-expense").contains("name: taxi,"));
+        assertFalse(inputHandler.handleUserInput("list-expense").contains("name: lunch,"));
+        assertTrue(inputHandler.handleUserInput("delete-expense -c food").startsWith("No expenses matched"));
+        assertTrue(inputHandler.handleUserInput("delete-expense taxi").startsWith("Expense taxi deleted"));
+    }
 }
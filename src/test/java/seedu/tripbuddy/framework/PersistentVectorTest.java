@@ -0,0 +1,45 @@
+package seedu.tripbuddy.framework;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PersistentVectorTest {
+
+    @Test
+    void plusTest_matchesArrayListAcrossTrieLevels() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        ArrayList<Integer> expected = new ArrayList<>();
+        // 32 * 32 * 32 + 100 elements needs a trie of three levels
+        for (int i = 0; i < 32868; i++) {
+            vector = vector.plus(i);
+            expected.add(i);
+        }
+        assertEquals(expected.size(), vector.size());
+        assertEquals(expected, vector);
+        assertEquals(expected, PersistentVector.of(expected.toArray(), expected.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> PersistentVector.empty().get(0));
+    }
+
+    @Test
+    void withTest_leavesOlderVersionsUnchanged() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for (int i = 0; i < 2000; i++) {
+            vector = vector.plus(i);
+        }
+        List<Integer> snapshot = vector;
+
+        PersistentVector<Integer> replaced = vector.with(5, -5).with(1999, -1999);
+        assertEquals(-5, replaced.get(5).intValue());
+        assertEquals(-1999, replaced.get(1999).intValue());
+
+        assertEquals(2000, snapshot.size());
+        assertEquals(5, snapshot.get(5).intValue());
+        assertEquals(1024, snapshot.get(1024).intValue());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(0));
+    }
+}
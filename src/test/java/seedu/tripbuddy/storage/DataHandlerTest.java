@@ -6,15 +6,20 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import seedu.tripbuddy.dataclass.Currency;
 import seedu.tripbuddy.dataclass.Expense;
+import seedu.tripbuddy.dataclass.RateHistory;
+import seedu.tripbuddy.dataclass.RateTable;
 import seedu.tripbuddy.exception.DataLoadingException;
+import seedu.tripbuddy.exception.InvalidArgumentException;
 import seedu.tripbuddy.framework.ExpenseManager;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertAll;
@@ -107,4 +112,131 @@ class DataHandlerTest {
         // Expect handled exception due to missing currency information.
         assertAll(() -> DataHandler.getInstance().loadData(tempFile.getAbsolutePath()));
     }
+
+    @Test
+    void testLoadDataInvalidExpense_skipsOnlyInvalidOnes() throws IOException, DataLoadingException {
+        JSONObject root = new JSONObject();
+        root.put("budget", 1500.0);
+        root.put("currency", "SGD");
+        root.put("categories", new JSONArray());
+
+        JSONArray expensesArr = new JSONArray();
+        String[] names = {"Lunch", "Taxi", "lunch", "Dinner"};
+        double[] amounts = {12.5, 8, 3, -1};
+        for (int i = 0; i < names.length; i++) {
+            JSONObject expense = new JSONObject();
+            expense.put("name", names[i]);
+            expense.put("amount", amounts[i]);
+            expense.put("dateTime", "2025-04-05 12:00:00");
+            expensesArr.put(expense);
+        }
+        root.put("expenses", expensesArr);
+
+        File tempFile = File.createTempFile("testLoadDataInvalidExpense", ".json");
+        tempFile.deleteOnExit();
+        Files.write(tempFile.toPath(), root.toString().getBytes());
+
+        String message = DataHandler.getInstance().loadData(tempFile.getAbsolutePath());
+        ExpenseManager expenseManager = ExpenseManager.getInstance();
+        assertEquals(List.of("Lunch", "Taxi"), expenseManager.getExpenses().stream().map(Expense::getName).toList());
+        assertEquals(20.5, expenseManager.getTotalExpense(), 0.001);
+        assertTrue(message.contains("index 2") && message.contains("index 3"), message);
+    }
+
+    @Test
+    void testSaveAndLoad_keepsAmountsInSavedCurrency()
+            throws IOException, DataLoadingException, InvalidArgumentException {
+        ExpenseManager saved = ExpenseManager.createTrip();
+        saved.setBaseCurrency(Currency.USD);
+        saved.addExpense("Lunch", 12.5);
+
+        File tempFile = File.createTempFile("testSaveAndLoad", ".json");
+        tempFile.deleteOnExit();
+        DataHandler.getInstance().saveData(tempFile.getAbsolutePath(), saved);
+        ExpenseManager loaded = ExpenseManager.createTrip();
+        DataHandler.getInstance().loadData(tempFile.getAbsolutePath(), loaded);
+
+        assertEquals(Currency.USD, loaded.getBaseCurrency());
+        assertEquals(12.5, loaded.getExpenseByName("Lunch").getAmount(), 0.0001);
+        assertEquals(saved.getBudget(), loaded.getBudget(), 0.0001);
+    }
+
+    @Test
+    void testSaveData_streamsExpensesThatReadBack() throws IOException, InvalidArgumentException {
+        ExpenseManager saved = ExpenseManager.createTrip();
+        saved.addExpense("Lunch \"set\"", 12.5, "Food");
+        saved.addExpense("Taxi", 20);
+
+        File tempFile = File.createTempFile("testSaveData", ".json");
+        tempFile.deleteOnExit();
+        DataHandler.getInstance().saveData(tempFile.getAbsolutePath(), saved);
+        JSONObject root = new JSONObject(Files.readString(tempFile.toPath()));
+
+        assertEquals("SGD", root.getString("currency"));
+        assertEquals(saved.getBudget(), root.getDouble("budget"), 0.0001);
+        assertEquals(1, root.getJSONArray("categories").length());
+        assertEquals("Food", root.getJSONArray("categories").get(0));
+        JSONArray expensesArr = root.getJSONArray("expenses");
+        assertEquals(2, expensesArr.length());
+        assertEquals("Food", expensesArr.getJSONObject(0).getString("category"));
+        // An expense without a category has no such member
+        assertFalse(expensesArr.getJSONObject(1).has("category"));
+        for (int i = 0; i < expensesArr.length(); i++) {
+            Expense expected = saved.getExpenses().get(i);
+            Expense actual = Expense.fromJSON(expensesArr.getJSONObject(i));
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getMoney(), actual.getMoney());
+            assertEquals(expected.getOriginalCurrency(), actual.getOriginalCurrency());
+            assertEquals(expected.getOriginalMoney(), actual.getOriginalMoney());
+            assertEquals(expected.getCategory(), actual.getCategory());
+            assertEquals(expected.getDateTimeString(), actual.getDateTimeString());
+        }
+    }
+
+    @Test
+    void testLoadRateHistory_skipsInvalidLines() throws IOException {
+        File tempFile = File.createTempFile("testLoadRateHistory", ".csv");
+        tempFile.deleteOnExit();
+        Files.write(tempFile.toPath(), List.of(
+                "currency,dateTime,rate",
+                "USD,2025-03-01 00:00:00,0.7",
+                "",
+                "usd, 2025-04-01 00:00:00, 0.8",
+                "XYZ,2025-04-01 00:00:00,1",
+                "EUR,2025-04-01,0.6",
+                "EUR,2025-04-01 00:00:00,-1"));
+        try {
+            String message = DataHandler.getInstance().loadRateHistory(tempFile.getAbsolutePath());
+            RateHistory history = RateHistory.current();
+            assertEquals(2, history.size());
+            assertEquals(800_000, history.getScaledRate(Currency.USD,
+                    RateHistory.toEpochSecond(LocalDateTime.of(2025, 4, 2, 0, 0)), RateTable.current()));
+            assertTrue(message.contains("line 5") && message.contains("line 6") && message.contains("line 7"),
+                    message);
+        } finally {
+            RateHistory.install(RateHistory.empty());
+        }
+    }
+
+    @Test
+    void testLoadRates_swapsInValidRates() throws IOException {
+        File tempFile = File.createTempFile("testLoadRates", ".csv");
+        tempFile.deleteOnExit();
+        Files.write(tempFile.toPath(), List.of("currency,rate", "USD,0.8", "JPY,abc", "eur , 0.7", "XYZ,1",
+                "INR,500"));
+        long version = RateTable.current().getVersion();
+        try {
+            String message = DataHandler.getInstance().loadRates(tempFile.getAbsolutePath());
+            assertEquals(version + 1, RateTable.current().getVersion());
+            assertEquals(0.8, Currency.USD.getRate(), 1e-9);
+            assertEquals(0.7, Currency.EUR.getRate(), 1e-9);
+            assertEquals(109.11, Currency.JPY.getRate(), 1e-9);
+            // A rate above that of every other currency is kept as given
+            assertEquals(500, Currency.INR.getRate(), 1e-9);
+            assertTrue(message.contains("line 3") && message.contains("line 5") && !message.contains("line 6"),
+                    message);
+        } finally {
+            RateTable.install(RateTable.defaults());
+        }
+    }
 }
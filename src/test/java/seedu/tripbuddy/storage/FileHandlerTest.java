@@ -3,7 +3,10 @@ package seedu.tripbuddy.storage;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
 
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
@@ -74,4 +77,26 @@ public class FileHandlerTest {
         File file = new File(absolutePath);
         assertTrue(file.exists(), "File should exist and directories should be created.");
     }
+
+    @Test
+    public void testWriteJsonDocument_failureKeepsOldFile() throws IOException {
+        Path filePath = tempDir.resolve("test.json");
+        String path = filePath.toString();
+        FileHandler fileHandler = FileHandler.getInstance();
+        fileHandler.writeJsonDocument(path, writer -> writer.beginObject().name("key").value("old").endObject());
+
+        // The document fails part way, after more than a buffer has been written out
+        assertThrows(IOException.class, () -> fileHandler.writeJsonDocument(path, writer -> {
+            writer.beginArray();
+            for (int i = 0; i < 10_000; i++) {
+                writer.value("new");
+            }
+            throw new IOException("Disk full");
+        }));
+
+        assertEquals("old", fileHandler.readJsonObject(path).getString("key"));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(filePath), files.toList(), "The temporary file should be removed.");
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package seedu.tripbuddy.storage;
+
+import org.json.JSONArray;
+import org.junit.jupiter.api.Test;
+import seedu.tripbuddy.dataclass.Money;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonStreamWriterTest {
+
+    @Test
+    void writeTest_indentsNestedValues() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonStreamWriter writer = new JsonStreamWriter(Channels.newChannel(out))) {
+            writer.beginObject();
+            writer.name("budget").value(Money.of(1000));
+            writer.name("empty").beginArray().endArray();
+            writer.name("rows").beginArray();
+            writer.beginObject().name("name").value("ramen").endObject();
+            writer.value((String) null);
+            writer.endArray();
+            writer.endObject();
+        }
+        assertEquals("{\n"
+                + "    \"budget\": 1000.00,\n"
+                + "    \"empty\": [],\n"
+                + "    \"rows\": [\n"
+                + "        {\n"
+                + "            \"name\": \"ramen\"\n"
+                + "        },\n"
+                + "        null\n"
+                + "    ]\n"
+                + "}", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writeTest_escapesAndEncodesAcrossSmallBuffers() throws IOException {
+        // Buffers smaller than the document, so characters and surrogate pairs are split between writes
+        String name = "caf\u00e9 \"\u20ac\ud83d\ude00\"\\\n\u0001";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonStreamWriter writer = new JsonStreamWriter(Channels.newChannel(out), 5)) {
+            writer.beginArray();
+            for (int i = 0; i < 100; i++) {
+                writer.value(name);
+            }
+            writer.endArray();
+        }
+        String json = out.toString(StandardCharsets.UTF_8);
+        JSONArray parsed = new JSONArray(json);
+        assertEquals(100, parsed.length());
+        for (int i = 0; i < parsed.length(); i++) {
+            assertEquals(name, parsed.get(i));
+        }
+        assertTrue(json.contains("\\u0001"), json);
+    }
+}
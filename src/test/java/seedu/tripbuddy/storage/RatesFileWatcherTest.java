@@ -0,0 +1,107 @@
+package seedu.tripbuddy.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import seedu.tripbuddy.dataclass.Currency;
+import seedu.tripbuddy.dataclass.RateTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RatesFileWatcherTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        RateTable.install(RateTable.defaults());
+    }
+
+    private static boolean awaitRate(Currency currency, double rate) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (Math.abs(currency.getRate() - rate) < 1e-9) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+
+    @Test
+    void watchTest_reloadsRatesWhenFileIsCreatedAndChanged() throws IOException, InterruptedException {
+        Path file = tempDir.resolve("exchange_rates.csv");
+        try (RatesFileWatcher watcher = new RatesFileWatcher(file, () -> { })) {
+            watcher.start();
+
+            Files.write(file, List.of("currency,rate", "USD,0.8"));
+            assertTrue(awaitRate(Currency.USD, 0.8));
+
+            Files.write(file, List.of("USD,0.9", "EUR,0.7"));
+            assertTrue(awaitRate(Currency.EUR, 0.7));
+            assertEquals(0.9, Currency.USD.getRate(), 1e-9);
+            // Rates not in the file are kept
+            assertEquals(1.0, Currency.SGD.getRate(), 1e-9);
+        }
+    }
+
+    @Test
+    void watchTest_ignoresOtherFiles() throws IOException, InterruptedException {
+        Path file = tempDir.resolve("exchange_rates.csv");
+        long version = RateTable.current().getVersion();
+        try (RatesFileWatcher watcher = new RatesFileWatcher(file, () -> { })) {
+            watcher.start();
+            Files.write(tempDir.resolve("other.csv"), List.of("USD,0.5"));
+            Files.write(file, List.of("EUR,0.6"));
+            assertTrue(awaitRate(Currency.EUR, 0.6));
+        }
+        assertEquals(0.74, Currency.USD.getRate(), 1e-9);
+        assertTrue(RateTable.current().getVersion() > version);
+    }
+
+    @Test
+    void watchTest_waitsForFileToSettle() throws IOException, InterruptedException {
+        Path file = tempDir.resolve("exchange_rates.csv");
+        List<Double> reloadedRates = new CopyOnWriteArrayList<>();
+        try (RatesFileWatcher watcher = new RatesFileWatcher(file, () -> reloadedRates.add(Currency.USD.getRate()))) {
+            watcher.start();
+            // A truncated line still parses, so reading part way would swap in the wrong rate
+            Files.writeString(file, "USD,0.8");
+            Thread.sleep(RatesFileWatcher.SETTLE_MILLIS / 4);
+            Files.writeString(file, "5\n", StandardOpenOption.APPEND);
+            assertTrue(awaitRate(Currency.USD, 0.85));
+            Thread.sleep(RatesFileWatcher.SETTLE_MILLIS * 2);
+        }
+        assertEquals(List.of(0.85), reloadedRates);
+    }
+
+    @Test
+    void watchTest_keepsWatchingAfterCallbackFails() throws IOException, InterruptedException {
+        Path file = tempDir.resolve("exchange_rates.csv");
+        AtomicInteger reloads = new AtomicInteger();
+        try (RatesFileWatcher watcher = new RatesFileWatcher(file, () -> {
+            reloads.incrementAndGet();
+            throw new IllegalStateException("Revaluing failed");
+        })) {
+            watcher.start();
+            Files.write(file, List.of("USD,0.8"));
+            assertTrue(awaitRate(Currency.USD, 0.8));
+
+            Files.write(file, List.of("USD,0.9"));
+            assertTrue(awaitRate(Currency.USD, 0.9));
+        }
+        assertTrue(reloads.get() >= 2);
+    }
+}
@@ -0,0 +1,186 @@
+package seedu.tripbuddy.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import seedu.tripbuddy.dataclass.Currency;
+import seedu.tripbuddy.exception.DataLoadingException;
+import seedu.tripbuddy.exception.InvalidArgumentException;
+import seedu.tripbuddy.framework.ExpenseManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TripRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void withTripTest_tripsAreIndependent() throws InvalidArgumentException, DataLoadingException, IOException {
+        TripRegistry registry = new TripRegistry(tempDir.toString());
+        ExpenseManager tokyo = registry.withTrip("tokyo", trip -> {
+            trip.setBaseCurrency(Currency.JPY);
+            trip.addExpense("ramen", 1200, "food");
+            return trip;
+        });
+        ExpenseManager paris = registry.withTrip("paris", trip -> {
+            trip.addExpense("croissant", 3, "food");
+            return trip;
+        });
+
+        assertSame(tokyo, registry.withTrip("tokyo", trip -> trip));
+        assertNotSame(ExpenseManager.getInstance(), tokyo);
+        assertEquals(1, paris.getExpenses().size());
+        assertEquals(Currency.DEFAULT_BASE, paris.getBaseCurrency());
+        assertTrue(tokyo.getExpenseByName("ramen").toString().contains("1200.00 JPY"));
+        assertTrue(paris.getExpenseByName("croissant").toString().contains("3.00 SGD"));
+    }
+
+    @Test
+    void withTripTest_evictsLeastRecentlyUsedToDisk()
+            throws InvalidArgumentException, DataLoadingException, IOException {
+        TripRegistry registry = new TripRegistry(tempDir.toString(), 2);
+        registry.withTrip("a", trip -> {
+            trip.addExpense("hotel", 200, "stay");
+            return null;
+        });
+        registry.withTrip("b", trip -> {
+            trip.addExpense("train", 30);
+            return null;
+        });
+        registry.withTrip("a", trip -> null);
+        registry.withTrip("c", trip -> null);
+
+        assertEquals(2, registry.getLoadedCount());
+        assertFalse(registry.isLoaded("b"));
+        assertTrue(registry.isLoaded("a"));
+        assertTrue(new File(registry.getSavePath("b")).exists());
+        assertFalse(new File(registry.getSavePath("a")).exists());
+
+        registry.withTrip("b", trip -> {
+            assertEquals(30, trip.getTotalExpense(), 0.001);
+            assertEquals("train", trip.getExpense(0).getName());
+            return null;
+        });
+        assertFalse(registry.isLoaded("a"));
+
+        registry.saveAll();
+        double stayTotal = new TripRegistry(tempDir.toString()).withTrip("a", trip -> trip.getCategoryTotal("stay"));
+        assertEquals(200, stayTotal, 0.001);
+    }
+
+    @Test
+    void withTripTest_keepsTripInUseLoaded() throws InvalidArgumentException, DataLoadingException, IOException {
+        TripRegistry registry = new TripRegistry(tempDir.toString(), 1);
+        registry.withTrip("a", trip -> {
+            touch(registry, "b");
+            touch(registry, "c");
+            // Over capacity while "a" is in use, and edits made now are still saved
+            assertTrue(registry.isLoaded("a"));
+            trip.addExpense("hotel", 200);
+            return null;
+        });
+
+        // The trips loaded meanwhile made way once released
+        assertEquals(1, registry.getLoadedCount());
+        assertTrue(registry.isLoaded("a"));
+        assertTrue(registry.evict("a"));
+        double total = new TripRegistry(tempDir.toString()).withTrip("a", ExpenseManager::getTotalExpense);
+        assertEquals(200, total, 0.001);
+    }
+
+    @Test
+    void evictTest_skipsTripInUse() throws InvalidArgumentException, DataLoadingException, IOException {
+        TripRegistry registry = new TripRegistry(tempDir.toString());
+        registry.withTrip("a", trip -> {
+            assertFalse(evict(registry, "a"));
+            return null;
+        });
+        assertTrue(registry.evict("a"));
+        assertFalse(registry.evict("a"));
+    }
+
+    @Test
+    void withTripTest_keepsTripThatCannotBeSaved()
+            throws InvalidArgumentException, DataLoadingException, IOException {
+        TripRegistry registry = new TripRegistry(tempDir.toString(), 1);
+        registry.withTrip("a", trip -> {
+            trip.addExpense("hotel", 200);
+            return null;
+        });
+        // A directory in place of its save file makes saving "a" fail
+        File blocker = new File(registry.getSavePath("a"));
+        assertTrue(blocker.mkdir());
+        assertTrue(new File(blocker, "keep").createNewFile());
+
+        int count = registry.withTrip("b", trip -> trip.getExpenses().size());
+
+        assertEquals(0, count);
+        assertTrue(registry.isLoaded("a"));
+        assertEquals(2, registry.getLoadedCount());
+        assertThrows(IOException.class, () -> registry.evict("a"));
+        assertTrue(registry.isLoaded("a"));
+    }
+
+    @Test
+    void withTripTest_concurrentRequestsShareOneLoad() throws Exception {
+        TripRegistry writer = new TripRegistry(tempDir.toString());
+        writer.withTrip("a", trip -> {
+            trip.addExpense("hotel", 200);
+            return null;
+        });
+        writer.saveAll();
+
+        TripRegistry registry = new TripRegistry(tempDir.toString());
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ExpenseManager>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> registry.withTrip("a", trip -> trip)));
+            }
+            ExpenseManager first = results.get(0).get();
+            for (Future<ExpenseManager> result : results) {
+                assertSame(first, result.get());
+            }
+            assertEquals(200, first.getTotalExpense(), 0.001);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void touch(TripRegistry registry, String tripId) {
+        try {
+            registry.withTrip(tripId, trip -> null);
+        } catch (InvalidArgumentException | DataLoadingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static boolean evict(TripRegistry registry, String tripId) {
+        try {
+            return registry.evict(tripId);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    void getSavePathTest_rejectsPathSeparators() {
+        TripRegistry registry = new TripRegistry(tempDir.toString());
+        assertThrows(InvalidArgumentException.class, () -> registry.withTrip("../escape", trip -> null));
+        assertThrows(InvalidArgumentException.class, () -> registry.getSavePath(""));
+    }
+}